@@ -0,0 +1,71 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.actions.ChawatheScriptGenerator;
+import com.github.gumtreediff.actions.EditScript;
+import com.github.gumtreediff.actions.EditScriptGenerator;
+import com.github.gumtreediff.actions.OverlayChawatheScriptGenerator;
+import com.github.gumtreediff.actions.SimplifiedChawatheScriptGenerator;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the computation of edit scripts from the mappings of the default matcher.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EditScriptGeneratorBenchmark {
+    @Param({"chawathe", "overlay-chawathe", "simplified-chawathe"})
+    public String generatorId;
+
+    @Param({Fixtures.ALL})
+    public String fixture;
+
+    private EditScriptGenerator generator;
+
+    private MappingStore mappings;
+
+    @Setup
+    public void setup() {
+        if ("chawathe".equals(generatorId))
+            generator = new ChawatheScriptGenerator();
+        else if ("overlay-chawathe".equals(generatorId))
+            generator = new OverlayChawatheScriptGenerator();
+        else if ("simplified-chawathe".equals(generatorId))
+            generator = new SimplifiedChawatheScriptGenerator();
+        else
+            throw new IllegalArgumentException(String.format("Unknown generator: %s", generatorId));
+        Fixtures.installRegistries();
+        Pair<TreeContext, TreeContext> trees = Fixtures.load(fixture);
+        mappings = Matchers.getInstance().getMatcher().match(trees.first.getRoot(), trees.second.getRoot());
+    }
+
+    @Benchmark
+    public EditScript computeActions() {
+        return generator.computeActions(mappings);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.RegistryIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Access to the fixture tree pairs bundled with the core tests. A fixture named
+ * `foo` corresponds to the `foo_v0.xml` and `foo_v1.xml` resources.
+ */
+public final class Fixtures {
+    /**
+     * The names of the available fixtures, suitable for a JMH `@Param`.
+     */
+    public static final String ALL = "action,gumtree,zs,zs_slide,Dummy,cd,bottom_up";
+
+    static {
+        if (!RegistryIndex.installAll())
+            throw new IllegalStateException("No registry index found on the classpath.");
+    }
+
+    private Fixtures() {}
+
+    /**
+     * Install the tree generators and matchers in their registries, which is done once
+     * when this class is initialized. Must be called before looking them up by id.
+     */
+    public static void installRegistries() {}
+
+    public static Pair<TreeContext, TreeContext> load(String name) {
+        return new Pair<>(loadTree(srcResource(name)), loadTree(dstResource(name)));
+    }
+
+    public static String read(String resource) {
+        try (InputStream stream = Fixtures.class.getResourceAsStream(resource)) {
+            if (stream == null)
+                throw new IllegalArgumentException(String.format("Unknown fixture: %s", resource));
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Unable to load fixture: %s", resource), e);
+        }
+    }
+
+    public static String srcResource(String name) {
+        return "/" + name + "_v0.xml";
+    }
+
+    public static String dstResource(String name) {
+        return "/" + name + "_v1.xml";
+    }
+
+    private static TreeContext loadTree(String resource) {
+        try {
+            return TreeIoUtils.fromXml().generateFrom().string(read(resource));
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Unable to load fixture: %s", resource), e);
+        }
+    }
+}
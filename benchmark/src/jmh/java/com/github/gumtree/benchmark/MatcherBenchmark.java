@@ -0,0 +1,71 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure each matcher registered in {@link com.github.gumtreediff.matchers.CompositeMatchers}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MatcherBenchmark {
+    @Param({"gumtree-simple", "gumtree-classic", "gumtree-simple-stable", "gumtree-simple-id", "gumtree-hybrid",
+            "gumtree-hybrid-id", "change-distiller", "xy", "theta", "change-distiller-theta",
+            "gumtree-classic-theta", "gumtree-simple-id-theta", "rted-theta"})
+    public String matcherId;
+
+    @Param({Fixtures.ALL})
+    public String fixture;
+
+    private Matcher matcher;
+
+    private Tree src;
+
+    private Tree dst;
+
+    @Setup
+    public void setup() {
+        Fixtures.installRegistries();
+        matcher = Matchers.getInstance().getMatcher(matcherId);
+        if (matcher == null)
+            throw new IllegalArgumentException(String.format("Unknown matcher: %s", matcherId));
+        Pair<TreeContext, TreeContext> trees = Fixtures.load(fixture);
+        src = trees.first.getRoot();
+        dst = trees.second.getRoot();
+        // Metrics are computed lazily, compute them once so that only the matching is measured.
+        src.getMetrics();
+        dst.getMetrics();
+    }
+
+    @Benchmark
+    public MappingStore match() {
+        return matcher.match(src, dst);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.utils.RegistryIndex;
+import org.atteo.classindex.ClassIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the startup cost of the registries, by discovering the tree generators and matchers
+ * either through the indexes generated at build time or through the classpath scanning
+ * previously done by the client. Each measurement is the single shot of a fresh JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+    @Param({"index", "scan"})
+    public String discovery;
+
+    @Benchmark
+    public Matcher initialize() {
+        if (discovery.equals("index"))
+            RegistryIndex.installAll();
+        else {
+            ClassIndex.getSubclasses(TreeGenerator.class).forEach(gen -> {
+                com.github.gumtreediff.gen.Register a = gen.getAnnotation(com.github.gumtreediff.gen.Register.class);
+                if (a != null)
+                    TreeGenerators.getInstance().install(gen, a);
+            });
+            ClassIndex.getSubclasses(Matcher.class).forEach(matcher -> {
+                com.github.gumtreediff.matchers.Register a =
+                        matcher.getAnnotation(com.github.gumtreediff.matchers.Register.class);
+                if (a != null)
+                    Matchers.getInstance().install(matcher, a);
+            });
+        }
+        return Matchers.getInstance().getMatcher();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure how the main matchers scale with the size of synthetic trees. Combined with
+ * the gc profiler, it reports both the matching time and the allocation rate per node count.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ScalingBenchmark {
+    @Param({"gumtree-simple", "gumtree-classic", "gumtree-hybrid"})
+    public String matcherId;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"0.05"})
+    public double mutationRate;
+
+    private Matcher matcher;
+
+    private Tree src;
+
+    private Tree dst;
+
+    @Setup
+    public void setup() {
+        Fixtures.installRegistries();
+        matcher = Matchers.getInstance().getMatcher(matcherId);
+        if (matcher == null)
+            throw new IllegalArgumentException(String.format("Unknown matcher: %s", matcherId));
+        // The same seed for every size, so that the sizes are compared on trees of the same shape.
+        SyntheticTreeGenerator generator = new SyntheticTreeGenerator(0L)
+                .setSize(size).setMutationRate(mutationRate);
+        TreeContext srcContext = generator.generate();
+        src = srcContext.getRoot();
+        dst = generator.mutate(srcContext).getRoot();
+        src.getMetrics();
+        dst.getMetrics();
+    }
+
+    @Benchmark
+    public MappingStore match() {
+        return matcher.match(src, dst);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.io.TreeIoUtils.TreeSerializer;
+import com.github.gumtreediff.tree.TreeContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the serializers of {@link TreeIoUtils}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+    @Param({"xml", "compact-xml", "json", "lisp", "dot", "text", "binary"})
+    public String format;
+
+    @Param({Fixtures.ALL})
+    public String fixture;
+
+    private TreeSerializer serializer;
+
+    @Setup
+    public void setup() {
+        TreeContext context = Fixtures.load(fixture).first;
+        if ("xml".equals(format))
+            serializer = TreeIoUtils.toXml(context);
+        else if ("compact-xml".equals(format))
+            serializer = TreeIoUtils.toCompactXml(context);
+        else if ("json".equals(format))
+            serializer = TreeIoUtils.toJson(context);
+        else if ("lisp".equals(format))
+            serializer = TreeIoUtils.toLisp(context);
+        else if ("dot".equals(format))
+            serializer = TreeIoUtils.toDot(context);
+        else if ("text".equals(format))
+            serializer = TreeIoUtils.toText(context);
+        else if ("binary".equals(format))
+            serializer = TreeIoUtils.toBinary(context);
+        else
+            throw new IllegalArgumentException(String.format("Unknown format: %s", format));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        serializer.writeTo(stream);
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.gen.jdt.JdtTreeGenerator;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.TreeContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the generation of trees from their XML representation, and from Java sources
+ * with the JDT generator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TreeGenerationBenchmark {
+    @Param({Fixtures.ALL})
+    public String fixture;
+
+    private String content;
+
+    @Setup
+    public void setup() {
+        content = Fixtures.read(Fixtures.srcResource(fixture));
+    }
+
+    @Benchmark
+    public TreeContext generate() throws IOException {
+        return TreeIoUtils.fromXml().generateFrom().string(content);
+    }
+
+    @Benchmark
+    public TreeContext generateJava(JavaSource source) throws IOException {
+        return source.generator.generateFrom().string(source.content);
+    }
+
+    /**
+     * The Java sources bundled with the tests of the JDT generator.
+     */
+    @State(Scope.Benchmark)
+    public static class JavaSource {
+        @Param({"case_1_0007d191fec7fe2d6a0c4e87594cb286a553f92c_ASTInspector/"
+                    + "1_0007d191fec7fe2d6a0c4e87594cb286a553f92c_ASTInspector_s.javaa",
+                "case_1_0a664d752c4b0e5a7fb6f06d005181a0c9dc2905/"
+                    + "1_0a664d752c4b0e5a7fb6f06d005181a0c9dc2905_FlowControlService_s.javaa",
+                "case_1_203910661b72775d1a983bf98c25ddde2d2898b9/"
+                    + "1_203910661b72775d1a983bf98c25ddde2d2898b9_Producto_s.javaa"})
+        public String file;
+
+        private final JdtTreeGenerator generator = new JdtTreeGenerator();
+
+        private String content;
+
+        @Setup
+        public void setup() {
+            content = Fixtures.read("/" + file);
+        }
+    }
+}
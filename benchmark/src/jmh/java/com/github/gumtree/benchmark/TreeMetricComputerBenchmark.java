@@ -0,0 +1,52 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeMetricComputer;
+import com.github.gumtreediff.tree.TreeMetrics;
+import com.github.gumtreediff.tree.TreeVisitor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the computation of the metrics (size, height, hashes, ...) of a whole tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TreeMetricComputerBenchmark {
+    @Param({Fixtures.ALL})
+    public String fixture;
+
+    private Tree root;
+
+    @Setup
+    public void setup() {
+        root = Fixtures.load(fixture).first.getRoot();
+    }
+
+    @Benchmark
+    public TreeMetrics computeMetrics() {
+        TreeVisitor.visitTree(root, new TreeMetricComputer());
+        return root.getMetrics();
+    }
+}
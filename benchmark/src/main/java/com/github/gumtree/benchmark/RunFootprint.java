@@ -0,0 +1,92 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.tree.CompactTreeContext;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Measure the heap retained per node by the default and the compact representations
+ * of synthetic trees produced by {@link SyntheticTreeGenerator}. For each tree size and
+ * representation, the number of bytes per node retained by the tree, then by its metrics,
+ * then by a full traversal of the tree are written to a CSV file.
+ */
+public class RunFootprint {
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+
+    private static final long SEED = 0L;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Wrong command. Expected arguments: OUTPUT_FILE [SIZES...]. Got: "
+                    + Arrays.toString(args));
+            System.exit(1);
+        }
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 1)
+            sizes = Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray();
+
+        try (FileWriter output = new FileWriter(args[0])) {
+            output.append("nodes;representation;tree;metrics;traversal\n");
+            for (int size : sizes) {
+                System.out.printf("Measuring %d nodes%n", size);
+                long baseline = usedHeap();
+                TreeContext context = new SyntheticTreeGenerator(SEED).setSize(size).generate();
+                output.append(size + ";default;" + measure(context, baseline) + "\n");
+
+                baseline = usedHeap();
+                CompactTreeContext compact = CompactTreeContext.fromTreeContext(context);
+                output.append(size + ";compact;" + measure(compact, baseline) + "\n");
+                output.flush();
+            }
+        }
+    }
+
+    private static String measure(TreeContext context, long baseline) {
+        long tree = usedHeap();
+        context.getRoot().getMetrics();
+        long metrics = usedHeap();
+        // Visiting every node shows whether views or metrics objects are retained by the tree.
+        int size = 0;
+        for (Tree t : context.getRoot().preOrder())
+            size += t.getMetrics().size > 0 ? 1 : 0;
+        long traversal = usedHeap();
+        return perNode(tree - baseline, size) + ";" + perNode(metrics - tree, size) + ";"
+                + perNode(traversal - metrics, size);
+    }
+
+    private static String perNode(long bytes, int size) {
+        return String.format("%.1f", (double) bytes / size);
+    }
+
+    // Several collections are run so that only the reachable objects are counted.
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.function.Supplier;
+
+/**
+ * Measure how the matchers scale with the size of the trees, using synthetic trees
+ * produced by {@link SyntheticTreeGenerator}. For each tree size, seed and matcher, the median
+ * matching time, the number of allocated bytes and the peak heap usage during matching are
+ * written to a CSV file, which can be plotted with src/main/python/scaling.py.
+ *
+ * <p>The trees of every size are generated from the same fixed seeds, so that the sizes are
+ * compared on trees of the same shape. The peak heap usage is the sum of the peaks of the heap
+ * memory pools, reset after a garbage collection right before matching. It therefore includes
+ * the source and destination trees.
+ */
+public class RunScaling {
+    private static final int TIME_MEASURES = 5;
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final long[] SEEDS = {0L, 1L, 2L};
+    private static final int GC_RUNS = 3;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Wrong command. Expected arguments: OUTPUT_FILE [SIZES...]. Got: "
+                    + Arrays.toString(args));
+            System.exit(1);
+        }
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 1)
+            sizes = Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray();
+
+        Map<String, Supplier<Matcher>> matchers = new LinkedHashMap<>();
+        matchers.put("simple", CompositeMatchers.SimpleGumtree::new);
+        matchers.put("classic", CompositeMatchers.ClassicGumtree::new);
+        matchers.put("hybrid", CompositeMatchers.HybridGumtree::new);
+
+        try (FileWriter output = new FileWriter(args[0])) {
+            output.append("nodes;seed;algorithm;time;allocated;peak\n");
+            for (int size : sizes) {
+                for (long seed : SEEDS) {
+                    SyntheticTreeGenerator generator = new SyntheticTreeGenerator(seed).setSize(size);
+                    TreeContext src = generator.generate();
+                    TreeContext dst = generator.mutate(src);
+                    src.getRoot().getMetrics();
+                    dst.getRoot().getMetrics();
+                    for (Map.Entry<String, Supplier<Matcher>> matcher : matchers.entrySet()) {
+                        System.out.printf("Matching %d nodes (seed %d) with %s%n", size, seed, matcher.getKey());
+                        output.append(size + ";" + seed + ";" + matcher.getKey() + ";"
+                                + measure(matcher.getValue(), src, dst) + "\n");
+                        output.flush();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String measure(Supplier<Matcher> factory, TreeContext src, TreeContext dst) {
+        long[] times = new long[TIME_MEASURES];
+        long allocated = 0;
+        long peak = 0;
+        for (int i = 0; i < TIME_MEASURES; i++) {
+            Matcher matcher = factory.get();
+            resetPeakHeap();
+            long allocatedBefore = allocatedBytes();
+            long startedTime = System.nanoTime();
+            matcher.match(src.getRoot(), dst.getRoot());
+            times[i] = System.nanoTime() - startedTime;
+            allocated = allocatedBytes() - allocatedBefore;
+            peak = Math.max(peak, peakHeap());
+        }
+        Arrays.sort(times);
+        return times[TIME_MEASURES / 2] + ";" + allocated + ";" + peak;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        return -1;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Collect the garbage, so that only the live objects remain, and then reset the peak
+     * usage of the heap pools to their current usage.
+     */
+    private static void resetPeakHeap() {
+        for (int i = 0; i < GC_RUNS; i++)
+            System.gc();
+        for (MemoryPoolMXBean pool : heapPools())
+            pool.resetPeakUsage();
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools())
+            peak += pool.getPeakUsage().getUsed();
+        return peak;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtree.benchmark;
+
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.Type;
+import com.github.gumtreediff.tree.TypeSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A seeded generator of synthetic trees, used to benchmark GumTree on inputs of
+ * arbitrary size. Given the same parameters and seed, the generated trees are always
+ * identical.
+ *
+ * <p>The source tree is grown by attaching each new node to a random node that has
+ * neither reached the maximum depth nor the maximum fan-out. Leaves receive a label drawn
+ * from a vocabulary of 2^labelEntropy labels. The destination tree is obtained by applying
+ * size * mutationRate random edits (updates, insertions, deletions and moves) to a copy of
+ * the source tree.
+ */
+public class SyntheticTreeGenerator {
+    private static final int INNER_TYPES = 24;
+    private static final int LEAF_TYPES = 8;
+
+    private int size = 1000;
+    private int maxDepth = 24;
+    private int maxFanOut = 8;
+    private int labelEntropy = 10;
+    private double mutationRate = 0.05;
+    private long seed = 0L;
+
+    private Random random;
+
+    public SyntheticTreeGenerator() {
+    }
+
+    public SyntheticTreeGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public SyntheticTreeGenerator setSize(int size) {
+        if (size < 1)
+            throw new IllegalArgumentException("The size must be strictly positive: " + size);
+        this.size = size;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setMaxDepth(int maxDepth) {
+        if (maxDepth < 1)
+            throw new IllegalArgumentException("The maximum depth must be strictly positive: " + maxDepth);
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setMaxFanOut(int maxFanOut) {
+        if (maxFanOut < 1)
+            throw new IllegalArgumentException("The maximum fan-out must be strictly positive: " + maxFanOut);
+        this.maxFanOut = maxFanOut;
+        return this;
+    }
+
+    /**
+     * Set the entropy, in bits, of the labels of the leaves.
+     */
+    public SyntheticTreeGenerator setLabelEntropy(int labelEntropy) {
+        if (labelEntropy < 0 || labelEntropy > 30)
+            throw new IllegalArgumentException("The label entropy must be between 0 and 30: " + labelEntropy);
+        this.labelEntropy = labelEntropy;
+        return this;
+    }
+
+    /**
+     * Set the ratio between the number of edits applied to create the destination tree
+     * and the size of the source tree.
+     */
+    public SyntheticTreeGenerator setMutationRate(double mutationRate) {
+        if (mutationRate < 0)
+            throw new IllegalArgumentException("The mutation rate must be positive: " + mutationRate);
+        this.mutationRate = mutationRate;
+        return this;
+    }
+
+    public SyntheticTreeGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Generate a source tree.
+     */
+    public TreeContext generate() {
+        random = new Random(seed);
+        TreeContext context = new TreeContext();
+        Tree root = context.createTree(innerType(), Tree.NO_LABEL);
+        context.setRoot(root);
+
+        // Nodes that can still receive children, with their depth.
+        List<Tree> open = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        if (maxDepth > 1) {
+            open.add(root);
+            depths.add(0);
+        }
+        List<Tree> nodes = new ArrayList<>(size);
+        nodes.add(root);
+        for (int i = 1; i < size && !open.isEmpty(); i++) {
+            int index = random.nextInt(open.size());
+            Tree parent = open.get(index);
+            final int depth = depths.get(index) + 1;
+            Tree child = context.createTree(innerType(), Tree.NO_LABEL);
+            parent.addChild(child);
+            nodes.add(child);
+            if (parent.getChildren().size() >= maxFanOut)
+                removeOpen(open, depths, index);
+            if (depth < maxDepth - 1) {
+                open.add(child);
+                depths.add(depth);
+            }
+        }
+
+        for (Tree node : nodes)
+            if (node.isLeaf()) {
+                node.setType(leafType());
+                node.setLabel(label());
+            }
+        updatePositions(root);
+        return context;
+    }
+
+    /**
+     * Generate a destination tree by applying random edits to a copy of the given
+     * source tree, which is left untouched.
+     */
+    public TreeContext mutate(TreeContext src) {
+        random = new Random(seed ^ 0x5DEECE66DL);
+        TreeContext context = new TreeContext();
+        Tree root = src.getRoot().deepCopy();
+        context.setRoot(root);
+
+        List<Tree> nodes = new ArrayList<>();
+        for (Tree node : root.preOrder())
+            nodes.add(node);
+        int edits = (int) Math.round(nodes.size() * mutationRate);
+        int applied = 0;
+        while (applied < edits)
+            if (applyRandomEdit(context, root, nodes))
+                applied++;
+        updatePositions(root);
+        return context;
+    }
+
+    /**
+     * Try to apply a random edit on a random node.
+     * @return false if the drawn edit was not applicable on the drawn node.
+     */
+    private boolean applyRandomEdit(TreeContext context, Tree root, List<Tree> nodes) {
+        Tree node = nodes.get(random.nextInt(nodes.size()));
+        if (node != root && node.getParent() == null)
+            return false; // The node has been deleted.
+
+        int action = random.nextInt(4);
+        if (action == 0 && node.isLeaf()) {
+            node.setLabel(label());
+            return true;
+        }
+        else if (action == 1 && !node.isLeaf()) {
+            Tree leaf = context.createTree(leafType(), label());
+            node.insertChild(leaf, random.nextInt(node.getChildren().size() + 1));
+            nodes.add(leaf);
+            return true;
+        }
+        else if (action == 2 && node.isLeaf() && node != root) {
+            node.getParent().getChildren().remove(node);
+            node.setParent(null);
+            return true;
+        }
+        else if (action == 3 && node != root)
+            return move(root, node, nodes.get(random.nextInt(nodes.size())));
+        else
+            return false;
+    }
+
+    /**
+     * Move the given node under the given new parent, if it is an inner node
+     * of the tree which is not a descendant of the node.
+     */
+    private boolean move(Tree root, Tree node, Tree newParent) {
+        if (newParent == node || newParent.isLeaf() || (newParent != root && newParent.getParent() == null)
+                || newParent.getParents().contains(node))
+            return false;
+        node.getParent().getChildren().remove(node);
+        newParent.insertChild(node, random.nextInt(newParent.getChildren().size() + 1));
+        return true;
+    }
+
+    private static void removeOpen(List<Tree> open, List<Integer> depths, int index) {
+        int last = open.size() - 1;
+        open.set(index, open.get(last));
+        depths.set(index, depths.get(last));
+        open.remove(last);
+        depths.remove(last);
+    }
+
+    /**
+     * Assign to each node a position in pre-order and a length equal to its size, so that
+     * the trees mimic the layout of trees produced by parsers.
+     */
+    private static void updatePositions(Tree root) {
+        int pos = 0;
+        for (Tree node : root.preOrder()) {
+            node.setPos(pos++);
+            node.setMetrics(null);
+        }
+        for (Tree node : root.postOrder()) {
+            int length = 1;
+            for (Tree child : node.getChildren())
+                length += child.getLength();
+            node.setLength(length);
+        }
+    }
+
+    private Type innerType() {
+        return TypeSet.type("inner_" + random.nextInt(INNER_TYPES));
+    }
+
+    private Type leafType() {
+        return TypeSet.type("leaf_" + random.nextInt(LEAF_TYPES));
+    }
+
+    private String label() {
+        return "l" + random.nextInt(1 << labelEntropy);
+    }
+}
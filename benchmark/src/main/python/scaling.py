@@ -0,0 +1,19 @@
+# Plot the output of RunScaling: python scaling.py INPUT_CSV OUTPUT_FOLDER
+import sys
+
+import pandas as pd
+from plotnine import aes, geom_line, geom_point, ggplot, labs, scale_x_log10, scale_y_log10
+
+# The measures of the different seeds are averaged.
+data = pd.read_csv(sys.argv[1], sep=";").groupby(["nodes", "algorithm"], as_index=False)[
+    ["time", "allocated", "peak"]].mean()
+data["time"] = data["time"] / 1e6
+data["allocated"] = data["allocated"] / 1e6
+data["peak"] = data["peak"] / 1e6
+
+for (column, label) in [("time", "Time (ms)"), ("allocated", "Allocated memory (MB)"),
+                        ("peak", "Peak heap usage (MB)")]:
+    plot = (ggplot(data, aes(x="nodes", y=column, color="algorithm"))
+            + geom_point() + geom_line() + scale_x_log10() + scale_y_log10()
+            + labs(x="Number of nodes", y=label))
+    plot.save(f"{sys.argv[2]}/scaling-{column}.pdf", verbose=False)
@@ -27,6 +27,8 @@ import com.github.gumtreediff.gen.TreeGenerators;
 import com.github.gumtreediff.matchers.ConfigurationOptions;
 import com.github.gumtreediff.matchers.GumtreeProperties;
 import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.PhaseListener;
 
 import java.io.IOException;
 import java.io.PrintStream;
@@ -128,9 +130,27 @@ public abstract class AbstractDiffClient<O extends AbstractDiffClient.DiffOption
     }
 
     public Diff getDiff(String src, String dst) throws IOException {
+        PhaseListener listener = getPhaseListener();
         if (opts.command == null)
-            return Diff.compute(src, dst, opts.treeGeneratorId, opts.matcherId, opts.properties);
+            return Diff.compute(src, dst, opts.treeGeneratorId, opts.matcherId, opts.properties, listener);
         else
-            return Diff.computeWithCommand(src, dst, opts.command, opts.matcherId, opts.properties);
+            return Diff.computeWithCommand(src, dst, opts.command, opts.matcherId, opts.properties, listener);
+    }
+
+    /**
+     * Parse the provided file with the tree generator or the command of the options.
+     */
+    public TreeContext getTree(String path) throws IOException {
+        if (opts.command == null)
+            return TreeGenerators.getInstance().getTree(path, opts.treeGeneratorId);
+        else
+            return TreeGenerators.getInstance().getTreeFromCommand(path, opts.command);
+    }
+
+    protected PhaseListener getPhaseListener() {
+        if (Option.Verbose.verbose)
+            return statistics -> System.err.println(statistics);
+        else
+            return PhaseListener.NONE;
     }
 }
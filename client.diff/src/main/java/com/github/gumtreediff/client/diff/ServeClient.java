@@ -0,0 +1,398 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.client.diff;
+
+import com.github.gumtreediff.actions.Diff;
+import com.github.gumtreediff.client.Client;
+import com.github.gumtreediff.client.Option;
+import com.github.gumtreediff.client.Register;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.ActionsIoUtils;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.ConfigurationOptions;
+import com.github.gumtreediff.matchers.GumtreeProperties;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.TreeContext;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A long-running server answering diff and parse requests, which avoids paying the startup
+ * of the JVM and the initialization of the registries for each diff. The server listens
+ * on a Unix domain socket or on a TCP port of the loopback interface, and speaks a JSON-lines
+ * protocol: each request is a JSON object on a single line, and each response is a JSON object
+ * on a single line carrying the id of its request. The requests are processed concurrently,
+ * therefore the responses of a connection might not be sent in the order of the requests. A client
+ * can shut down the output of its connection after its last request, the server closes the connection
+ * once all the responses have been sent.
+ *
+ * <p>The requests are of the form:
+ * <pre>
+ * {"id": 1, "command": "diff", "src": "a/Foo.java", "dst": "b/Foo.java", "format": "json"}
+ * {"id": 2, "command": "parse", "file": "a/Foo.java", "generator": "java-jdtc", "format": "text"}
+ * {"id": 3, "command": "ping"}
+ * {"id": 4, "command": "shutdown"}
+ * </pre>
+ * The optional "generator", "matcher" and "format" fields override the defaults of the server.
+ * The responses are of the form {"id": 1, "result": ...} or {"id": 1, "error": "..."}, where the
+ * result is a JSON value for the json format and a string otherwise.
+ */
+@Register(name = "serve", description = "Answer diff and parse requests on a local socket.",
+        options = ServeClient.ServeOptions.class)
+public class ServeClient extends Client {
+    public static final String SYNTAX = "Syntax: serve [options]";
+
+    private final ServeOptions opts = new ServeOptions();
+
+    private ServerSocketChannel server;
+
+    private ExecutorService pool;
+
+    public ServeClient(String[] args) {
+        super(args);
+        args = Option.processCommandLine(args, opts);
+        if (args.length != 0)
+            throw new Option.OptionException("No argument expected. " + SYNTAX, opts);
+
+        if (opts.matcherId != null && Matchers.getInstance().findById(opts.matcherId) == null)
+            throw new Option.OptionException("Error loading matcher: " + opts.matcherId);
+        if (opts.treeGeneratorId != null && TreeGenerators.getInstance().findById(opts.treeGeneratorId) == null)
+            throw new Option.OptionException("Error loading tree generator: " + opts.treeGeneratorId);
+    }
+
+    public static class ServeOptions implements Option.Context {
+        public static final int DEFAULT_PORT = 4568;
+
+        public String matcherId;
+        public String treeGeneratorId;
+        public GumtreeProperties properties = new GumtreeProperties();
+        public int port = DEFAULT_PORT;
+        public String socket;
+        public int threads = Runtime.getRuntime().availableProcessors();
+
+        @Override
+        public Option[] values() {
+            return new Option[] {
+                    new Option("-m", "Id of the default matcher.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            matcherId = args[0];
+                        }
+                    },
+                    new Option("-g", "Id of the default tree generator.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            treeGeneratorId = args[0];
+                        }
+                    },
+                    new Option("-M", "Add a matcher property (-M property value). Available: "
+                            + Arrays.toString(ConfigurationOptions.values()) + ".", 2) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            try {
+                                properties.put(ConfigurationOptions.valueOf(args[0]), args[1]);
+                            } catch (IllegalArgumentException e) {
+                                throw new Option.OptionException(String.format(
+                                        "No such matcher property '%s', available properties are: %s",
+                                        args[0], Arrays.toString(ConfigurationOptions.values())), e);
+                            }
+                        }
+                    },
+                    new Option("--port", String.format("Listen on a TCP port of the loopback interface "
+                            + "(default to %d).", DEFAULT_PORT), 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            port = parseInt(args[0]);
+                        }
+                    },
+                    new Option("--socket", "Listen on a Unix domain socket rather than on a TCP port.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            socket = args[0];
+                        }
+                    },
+                    new Option("-j", "Number of threads processing the requests.", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            threads = parseInt(args[0]);
+                        }
+                    },
+                    new Option.Help(this) {
+                        @Override
+                        public void process(String name, String[] args) {
+                            System.out.println(SYNTAX);
+                            super.process(name, args);
+                        }
+                    }
+            };
+        }
+
+        private static int parseInt(String arg) {
+            try {
+                int value = Integer.parseInt(arg);
+                if (value > 0)
+                    return value;
+            } catch (NumberFormatException e) {
+                // Reported below.
+            }
+            throw new Option.OptionException("Invalid positive number: " + arg);
+        }
+    }
+
+    @Override
+    public void run() throws Exception {
+        SocketAddress address;
+        if (opts.socket != null) {
+            Path path = Paths.get(opts.socket);
+            Files.deleteIfExists(path); // Left by a previous server.
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            address = UnixDomainSocketAddress.of(path);
+        } else {
+            server = ServerSocketChannel.open();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), opts.port);
+        }
+        pool = Executors.newFixedThreadPool(opts.threads);
+        try {
+            server.bind(address);
+            System.out.printf("Listening on %s.\n", server.getLocalAddress());
+            while (true) {
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (ClosedChannelException e) {
+                    break; // Shutdown requested.
+                }
+                Thread reader = new Thread(() -> serve(channel), "gumtree-serve-connection");
+                reader.setDaemon(true);
+                reader.start();
+            }
+        } finally {
+            server.close();
+            pool.shutdown();
+            if (opts.socket != null)
+                Files.deleteIfExists(Paths.get(opts.socket));
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        PendingRequests pending = new PendingRequests();
+        try (channel;
+                BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank())
+                        continue;
+                    String request = line;
+                    pending.start();
+                    try {
+                        pool.execute(() -> {
+                            try {
+                                respond(writer, process(request));
+                            } finally {
+                                pending.done();
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        pending.done();
+                        respond(writer, error(request, "The server is shutting down."));
+                    }
+                }
+            } catch (IOException e) {
+                // The client closed the connection, its pending responses cannot be sent but are awaited anyway.
+            } finally {
+                // A client might half-close the connection once its requests are sent, and still await responses.
+                pending.await();
+            }
+        } catch (IOException e) {
+            // The client closed the connection.
+        }
+    }
+
+    private void respond(Writer writer, JsonObject response) {
+        synchronized (writer) {
+            try {
+                writer.write(response.toString());
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                // The client closed the connection.
+            }
+        }
+    }
+
+    private static JsonObject error(String line, String message) {
+        JsonObject response = new JsonObject();
+        try {
+            JsonObject request = JsonParser.parseString(line).getAsJsonObject();
+            if (request.has("id"))
+                response.add("id", request.get("id"));
+        } catch (Throwable e) {
+            // No id to report.
+        }
+        response.addProperty("error", message);
+        return response;
+    }
+
+    private JsonObject process(String line) {
+        JsonObject response = new JsonObject();
+        JsonObject request;
+        try {
+            request = JsonParser.parseString(line).getAsJsonObject();
+        } catch (Throwable e) { // Deeply nested values overflow the stack of the parser.
+            response.addProperty("error", "Malformed request: " + line);
+            return response;
+        }
+        if (request.has("id"))
+            response.add("id", request.get("id"));
+
+        try {
+            String command = getString(request, "command", null);
+            if (command == null)
+                throw new IllegalArgumentException("Missing command.");
+            else if (command.equals("diff"))
+                response.add("result", diff(request));
+            else if (command.equals("parse"))
+                response.add("result", parse(request));
+            else if (command.equals("ping"))
+                response.addProperty("result", "pong");
+            else if (command.equals("shutdown")) {
+                response.addProperty("result", "bye");
+                server.close();
+            } else
+                throw new IllegalArgumentException("Unknown command: " + command);
+        } catch (IllegalArgumentException e) {
+            response.addProperty("error", e.getMessage());
+        } catch (Throwable e) { // Including errors, such as a stack overflow on a deep AST.
+            response.addProperty("error", e.toString());
+        }
+        return response;
+    }
+
+    private JsonElement diff(JsonObject request) throws Exception {
+        String src = getRequiredString(request, "src");
+        String dst = getRequiredString(request, "dst");
+        String format = getString(request, "format", "text");
+        Diff diff = Diff.compute(src, dst, getString(request, "generator", opts.treeGeneratorId),
+                getString(request, "matcher", opts.matcherId), opts.properties);
+
+        ActionsIoUtils.ActionSerializer serializer;
+        if (format.equals("text"))
+            serializer = ActionsIoUtils.toText(diff.src, diff.editScript, diff.mappings);
+        else if (format.equals("json"))
+            return JsonParser.parseString(
+                    ActionsIoUtils.toJson(diff.src, diff.editScript, diff.mappings).toString());
+        else if (format.equals("xml"))
+            serializer = ActionsIoUtils.toXml(diff.src, diff.editScript, diff.mappings);
+        else
+            throw new IllegalArgumentException("Unknown diff format: " + format);
+        return new JsonPrimitive(serializer.toString());
+    }
+
+    private JsonElement parse(JsonObject request) throws Exception {
+        String file = getRequiredString(request, "file");
+        String format = getString(request, "format", "text");
+        TreeContext ctx = TreeGenerators.getInstance().getTree(file,
+                getString(request, "generator", opts.treeGeneratorId));
+
+        TreeIoUtils.TreeSerializer serializer;
+        if (format.equals("text"))
+            serializer = TreeIoUtils.toText(ctx);
+        else if (format.equals("json"))
+            return JsonParser.parseString(TreeIoUtils.toJson(ctx).toString());
+        else if (format.equals("xml"))
+            serializer = TreeIoUtils.toCompactXml(ctx);
+        else if (format.equals("lisp"))
+            serializer = TreeIoUtils.toLisp(ctx);
+        else
+            throw new IllegalArgumentException("Unknown parse format: " + format);
+        return new JsonPrimitive(serializer.toString());
+    }
+
+    /**
+     * The number of requests of a connection whose response has not been written yet.
+     */
+    private static final class PendingRequests {
+        private int count = 0;
+
+        synchronized void start() {
+            count++;
+        }
+
+        synchronized void done() {
+            if (--count == 0)
+                notifyAll();
+        }
+
+        synchronized void await() {
+            boolean interrupted = false;
+            while (count > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String getRequiredString(JsonObject request, String key) {
+        String value = getString(request, key, null);
+        if (value == null)
+            throw new IllegalArgumentException("Missing field: " + key);
+        return value;
+    }
+
+    private static String getString(JsonObject request, String key, String defaultValue) {
+        JsonElement value = request.get(key);
+        if (value == null || value.isJsonNull())
+            return defaultValue;
+        if (!value.isJsonPrimitive())
+            throw new IllegalArgumentException("Field " + key + " must be a string.");
+        return value.getAsString();
+    }
+}
@@ -20,29 +20,45 @@
 
 package com.github.gumtreediff.client.diff;
 
+import com.github.gumtreediff.actions.BatchDiff;
 import com.github.gumtreediff.actions.Diff;
-import com.github.gumtreediff.actions.EditScript;
+import com.github.gumtreediff.actions.EditScriptGenerator;
+import com.github.gumtreediff.actions.SimplifiedChawatheScriptGenerator;
 import com.github.gumtreediff.client.Option;
 import com.github.gumtreediff.client.Register;
 import com.github.gumtreediff.io.ActionsIoUtils;
+import com.github.gumtreediff.io.DirectoryComparator;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.PhaseListener;
+import com.github.gumtreediff.utils.PhaseStatistics;
+import com.google.gson.JsonPrimitive;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.regex.Pattern;
 
 @Register(name = "textdiff", description = "Dump actions in a textual format.",
         options = TextDiff.TextDiffOptions.class)
 public class TextDiff extends AbstractDiffClient<TextDiff.TextDiffOptions> {
     public TextDiff(String[] args) {
         super(args);
-        if (!Files.isRegularFile(Paths.get(opts.srcPath)))
-            throw new Option.OptionException("Source must be a file: " + opts.srcPath, opts);
-        if (!Files.isRegularFile(Paths.get(opts.dstPath)))
-            throw new Option.OptionException("Destination must be a file: " + opts.dstPath, opts);
+        if (Files.isDirectory(Paths.get(opts.srcPath)) && Files.isDirectory(Paths.get(opts.dstPath))) {
+            if (opts.command != null)
+                throw new Option.OptionException("Folders cannot be diffed with a command: " + opts.command, opts);
+        } else {
+            if (!Files.isRegularFile(Paths.get(opts.srcPath)))
+                throw new Option.OptionException("Source must be a file: " + opts.srcPath, opts);
+            if (!Files.isRegularFile(Paths.get(opts.dstPath)))
+                throw new Option.OptionException("Destination must be a file: " + opts.dstPath, opts);
+        }
 
         if (opts.format == null) {
             opts.format = OutputFormat.TEXT;
@@ -58,6 +74,7 @@ public class TextDiff extends AbstractDiffClient<TextDiff.TextDiffOptions> {
     public static class TextDiffOptions extends AbstractDiffClient.DiffOptions {
         protected OutputFormat format;
         protected String output;
+        protected int threads = Runtime.getRuntime().availableProcessors();
 
         @Override
         public Option[] values() {
@@ -79,6 +96,18 @@ public class TextDiff extends AbstractDiffClient<TextDiff.TextDiffOptions> {
                         protected void process(String name, String[] args) {
                             output = args[0];
                         }
+                    },
+                    new Option("-j", "number of threads used to diff folders", 1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            try {
+                                threads = Integer.parseInt(args[0]);
+                            } catch (NumberFormatException e) {
+                                throw new Option.OptionException("Invalid number of threads: " + args[0], e);
+                            }
+                            if (threads < 1)
+                                throw new Option.OptionException("Invalid number of threads: " + args[0]);
+                        }
                     }
             );
         }
@@ -88,6 +117,7 @@ public class TextDiff extends AbstractDiffClient<TextDiff.TextDiffOptions> {
             super.dump(out);
             out.printf("format: %s\n", format);
             out.printf("output file: %s\n", output == null ? "<stdout>" : output);
+            out.printf("threads: %d\n", threads);
         }
     }
 
@@ -98,39 +128,163 @@ public class TextDiff extends AbstractDiffClient<TextDiff.TextDiffOptions> {
 
     @Override
     public void run() throws Exception {
-        Diff diff = getDiff();
+        if (Files.isDirectory(Paths.get(opts.srcPath))) {
+            runOnFolders();
+            return;
+        }
+
+        PhaseListener listener = getPhaseListener();
+        PhaseStatistics.Probe probe = PhaseStatistics.start("parse-src");
+        final TreeContext src = getTree(opts.srcPath);
+        listener.phaseCompleted(probe.stop());
+        probe = PhaseStatistics.start("parse-dst");
+        TreeContext dst = getTree(opts.dstPath);
+        listener.phaseCompleted(probe.stop());
+        MappingStore mappings = Diff.computeMappings(src, dst, opts.matcherId, opts.properties, listener);
+
+        // The actions are written as soon as they are computed, the edit script is never held in memory.
+        probe = PhaseStatistics.start("edit-script");
         ActionsIoUtils.ActionSerializer serializer = opts.format.getSerializer(
-                diff.src, diff.editScript, diff.mappings);
+                src, new SimplifiedChawatheScriptGenerator(), mappings);
         if (opts.output == null)
             serializer.writeTo(System.out);
         else
             serializer.writeTo(opts.output);
+        listener.phaseCompleted(probe.stop());
+    }
+
+    private void runOnFolders() throws Exception {
+        DirectoryComparator comparator = new DirectoryComparator(opts.srcPath, opts.dstPath);
+        comparator.compare();
+        BatchDiff batch = new BatchDiff(opts.treeGeneratorId, opts.matcherId, opts.properties)
+                .setParallelism(opts.threads);
+        if (Option.Verbose.verbose)
+            batch.setPhaseListener(statistics -> System.err.println(statistics));
+
+        Writer writer = (opts.output == null)
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(opts.output), StandardCharsets.UTF_8);
+        try {
+            // The diffs of all the pairs of files are written in a single document of the output format.
+            opts.format.startBatch(writer);
+            batch.run(comparator, new BatchDiff.Sink() {
+                private boolean first = true;
+
+                @Override
+                public void diffComputed(File src, File dst, Diff diff) throws Exception {
+                    opts.format.writeBatchEntry(writer, src, dst, opts.format.getSerializer(
+                            diff.src, mappings -> diff.editScript, diff.mappings), first);
+                    first = false;
+                }
+
+                @Override
+                public void diffFailed(File src, File dst, Throwable e) {
+                    System.err.printf("Error diffing %s %s: %s\n", src.getPath(), dst.getPath(), e);
+                }
+            });
+            opts.format.endBatch(writer);
+        } finally {
+            if (opts.output == null)
+                writer.flush();
+            else
+                writer.close();
+        }
     }
 
     enum OutputFormat {
         TEXT {
             @Override
-            ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScript actions, MappingStore mappings)
-                    throws IOException {
-                return ActionsIoUtils.toText(sctx, actions, mappings);
+            ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScriptGenerator generator,
+                                                          MappingStore mappings) throws IOException {
+                return ActionsIoUtils.toText(sctx, generator, mappings);
+            }
+
+            @Override
+            void writeBatchEntry(Writer writer, File src, File dst, ActionsIoUtils.ActionSerializer serializer,
+                                 boolean first) throws Exception {
+                writer.write(String.format("=== %s %s\n", src.getPath(), dst.getPath()));
+                serializer.writeTo(writer);
+                writer.write("\n");
             }
         },
         XML {
             @Override
-            ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScript actions, MappingStore mappings)
-                    throws IOException {
-                return ActionsIoUtils.toXml(sctx, actions, mappings);
+            ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScriptGenerator generator,
+                                                          MappingStore mappings) throws IOException {
+                return ActionsIoUtils.toXml(sctx, generator, mappings);
+            }
+
+            @Override
+            void startBatch(Writer writer) throws IOException {
+                writer.write("<?xml version=\"1.0\" ?>\n<diffs>\n");
+            }
+
+            @Override
+            void writeBatchEntry(Writer writer, File src, File dst, ActionsIoUtils.ActionSerializer serializer,
+                                 boolean first) throws Exception {
+                writer.write(String.format("<diff src=\"%s\" dst=\"%s\">\n",
+                        escapeXml(src.getPath()), escapeXml(dst.getPath())));
+                // The matches and actions of the pair are nested in its element, without their XML declaration.
+                writer.write(XML_DECLARATION.matcher(serializer.toString()).replaceFirst(""));
+                writer.write("</diff>\n");
+            }
+
+            @Override
+            void endBatch(Writer writer) throws IOException {
+                writer.write("</diffs>\n");
             }
         },
         JSON {
             @Override
-            ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScript actions, MappingStore mappings)
-                    throws IOException {
-                return ActionsIoUtils.toJson(sctx, actions, mappings);
+            ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScriptGenerator generator,
+                                                          MappingStore mappings) throws IOException {
+                return ActionsIoUtils.toJson(sctx, generator, mappings);
+            }
+
+            @Override
+            void startBatch(Writer writer) throws IOException {
+                writer.write("[\n");
+            }
+
+            @Override
+            void writeBatchEntry(Writer writer, File src, File dst, ActionsIoUtils.ActionSerializer serializer,
+                                 boolean first) throws Exception {
+                if (!first)
+                    writer.write(",\n");
+                writer.write(String.format("{\"src\": %s, \"dst\": %s, \"diff\": ",
+                        new JsonPrimitive(src.getPath()), new JsonPrimitive(dst.getPath())));
+                serializer.writeTo(writer);
+                writer.write("}");
+            }
+
+            @Override
+            void endBatch(Writer writer) throws IOException {
+                writer.write("\n]\n");
             }
         };
 
-        abstract ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScript actions,
+        private static final Pattern XML_DECLARATION = Pattern.compile("^<\\?xml[^>]*\\?>\\s*");
+
+        abstract ActionsIoUtils.ActionSerializer getSerializer(TreeContext sctx, EditScriptGenerator generator,
                                                                MappingStore mappings) throws IOException;
+
+        /**
+         * Start the document holding the diffs of several pairs of files.
+         */
+        void startBatch(Writer writer) throws IOException {
+        }
+
+        /**
+         * Write the diff of a pair of files in the document started by {@link #startBatch(Writer)}.
+         */
+        abstract void writeBatchEntry(Writer writer, File src, File dst, ActionsIoUtils.ActionSerializer serializer,
+                                      boolean first) throws Exception;
+
+        void endBatch(Writer writer) throws IOException {
+        }
+
+        private static String escapeXml(String value) {
+            return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+        }
     }
 }
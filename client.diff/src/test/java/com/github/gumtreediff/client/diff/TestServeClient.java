@@ -0,0 +1,172 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.client.diff;
+
+import com.github.gumtreediff.client.Option;
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Matchers;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestServeClient {
+    private static final String SRC = "<tree type=\"0\" label=\"a\" pos=\"0\" length=\"10\">"
+            + "<tree type=\"1\" label=\"b\" pos=\"0\" length=\"1\"/></tree>";
+    private static final String DST = "<tree type=\"0\" label=\"a\" pos=\"0\" length=\"10\">"
+            + "<tree type=\"1\" label=\"c\" pos=\"0\" length=\"1\"/></tree>";
+
+    private Path directory;
+
+    private Path socket;
+
+    private Thread server;
+
+    @BeforeAll
+    public static void prepareRegistries() {
+        Register r = TreeIoUtils.XmlInternalGenerator.class.getAnnotation(Register.class);
+        TreeGenerators.getInstance().install(TreeIoUtils.XmlInternalGenerator.class, r);
+        Matchers.getInstance().install(CompositeMatchers.SimpleGumtree.class,
+                CompositeMatchers.SimpleGumtree.class.getAnnotation(com.github.gumtreediff.matchers.Register.class));
+    }
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        directory = Files.createTempDirectory("gumtree-serve");
+        Files.writeString(directory.resolve("v0.xml"), SRC);
+        Files.writeString(directory.resolve("v1.xml"), DST);
+        socket = directory.resolve("serve.sock");
+        ServeClient client = new ServeClient(new String[] {"--socket", socket.toString(), "-g", "xml"});
+        server = new Thread(() -> {
+            try {
+                client.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        server.start();
+        for (int i = 0; i < 100 && !Files.exists(socket); i++)
+            Thread.sleep(50);
+        assertTrue(Files.exists(socket));
+    }
+
+    @AfterEach
+    public void stopServer() throws Exception {
+        if (server.isAlive()) {
+            try (SocketChannel channel = connect()) {
+                send(channel, "{\"id\": 0, \"command\": \"shutdown\"}");
+                readResponses(channel, 1);
+            }
+        }
+        server.join(10000);
+        Files.deleteIfExists(directory.resolve("v0.xml"));
+        Files.deleteIfExists(directory.resolve("v1.xml"));
+        Files.deleteIfExists(socket);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testRequestsBeforeHalfClose() throws IOException {
+        try (SocketChannel channel = connect()) {
+            send(channel, "{\"id\": 1, \"command\": \"ping\"}",
+                    String.format("{\"id\": 2, \"command\": \"diff\", \"src\": \"%s\", \"dst\": \"%s\", "
+                            + "\"format\": \"json\"}", directory.resolve("v0.xml"), directory.resolve("v1.xml")),
+                    "{\"id\": 3, \"command\": \"foo\"}",
+                    "{\"id\": 4, \"command\": \"parse\"}",
+                    "{\"id\": 5, \"command\": \"diff\", \"src\": \"foo.xml\", \"dst\": \"bar.xml\"}",
+                    "not json");
+            // The responses must be sent although the client will not send anything anymore.
+            channel.shutdownOutput();
+            Map<String, JsonObject> responses = readResponses(channel, 6);
+            assertEquals(6, responses.size());
+            assertEquals("pong", responses.get("1").get("result").getAsString());
+            JsonObject diff = responses.get("2").getAsJsonObject("result");
+            assertEquals(1, diff.getAsJsonArray("actions").size());
+            assertEquals("update-node", diff.getAsJsonArray("actions").get(0)
+                    .getAsJsonObject().get("action").getAsString());
+            assertEquals("Unknown command: foo", responses.get("3").get("error").getAsString());
+            assertEquals("Missing field: file", responses.get("4").get("error").getAsString());
+            assertTrue(responses.get("5").has("error"));
+            assertTrue(responses.get(null).get("error").getAsString().startsWith("Malformed request"));
+        }
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        try (SocketChannel channel = connect()) {
+            send(channel, "{\"id\": 1, \"command\": \"shutdown\"}");
+            assertEquals("bye", readResponses(channel, 1).get("1").get("result").getAsString());
+        }
+        server.join(10000);
+        assertFalse(server.isAlive());
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    public void testInvalidMatcherProperty() {
+        assertThrows(Option.OptionException.class, () -> new ServeClient(new String[] {"-M", "foo", "1"}));
+    }
+
+    private SocketChannel connect() throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(socket));
+        return channel;
+    }
+
+    private static void send(SocketChannel channel, String... requests) throws IOException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        for (String request : requests)
+            writer.write(request + "\n");
+        writer.flush();
+    }
+
+    // Responses are keyed by the id of their request, null for a request without id.
+    private static Map<String, JsonObject> readResponses(SocketChannel channel, int count) throws IOException {
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        Map<String, JsonObject> responses = new HashMap<>();
+        String line;
+        while (responses.size() < count && (line = reader.readLine()) != null) {
+            JsonObject response = JsonParser.parseString(line).getAsJsonObject();
+            responses.put(response.has("id") ? response.get("id").getAsString() : null, response);
+        }
+        return responses;
+    }
+}
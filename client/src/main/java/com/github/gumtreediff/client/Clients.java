@@ -39,10 +39,15 @@ public class Clients extends Registry<String, Client, Register> {
     }
 
     @Override
-    protected Entry newEntry(Class<? extends Client> clazz, Register annotation) {
+    protected Factory<? extends Client> newFactory(Class<? extends Client> clazz) {
+        return defaultFactory(clazz, String[].class);
+    }
+
+    @Override
+    protected Entry newEntry(Class<? extends Client> clazz, Register annotation, Factory<? extends Client> factory) {
         String name = annotation.name().equals(Register.no_value)
                 ? clazz.getSimpleName() : annotation.name();
-        return new Entry(name.toLowerCase(), clazz, defaultFactory(clazz, String[].class),  annotation.priority()) {
+        return new Entry(name.toLowerCase(), clazz, factory,  annotation.priority()) {
             @Override
             protected boolean handle(String key) {
                 return id.equalsIgnoreCase(key);
@@ -22,6 +22,7 @@ package com.github.gumtreediff.client;
 
 import com.github.gumtreediff.gen.TreeGenerators;
 import com.github.gumtreediff.utils.Registry;
+import com.github.gumtreediff.utils.RegistryIndex;
 import com.github.gumtreediff.gen.TreeGenerator;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.matchers.Matchers;
@@ -82,9 +83,24 @@ public class Run {
                 });
     }
 
+    /**
+     * Install the tree generators, matchers and clients using the registry indexes generated
+     * at build time. The classpath is scanned instead if no index is found, or if the
+     * gumtree.registry.scan system property is set to true (e.g. to find classes of third-party
+     * jars built without the registry annotation processor).
+     *
+     * @see RegistryIndex
+     */
+    public static void initRegistries() {
+        if (Boolean.getBoolean("gumtree.registry.scan") || !RegistryIndex.installAll()) {
+            initGenerators();
+            initMatchers();
+            initClients();
+        }
+    }
+
     static {
-        initGenerators();
-        initMatchers();
+        initRegistries();
     }
 
     public static void startClient(String name, Registry.Factory<? extends Client> client, String[] args) {
@@ -109,8 +125,6 @@ public class Run {
         Options opts = new Options();
         String[] args = Option.processCommandLine(origArgs, opts);
 
-        initClients();
-
         Registry.Factory<? extends Client> client;
         if (args.length == 0) {
             System.err.println("No command given.");
@@ -20,79 +20,87 @@
 package com.github.gumtreediff.actions;
 
 import com.github.gumtreediff.actions.model.*;
-import org.jgrapht.alg.connectivity.ConnectivityInspector;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.graph.DefaultEdge;
+import com.github.gumtreediff.tree.Tree;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
+/**
+ * Groups the actions of an edit script into clusters of related actions: inserts (resp. deletes)
+ * of a node and of its children, updates to the same value and moves of nodes sharing the same
+ * parent. The clusters are the connected components of these relations, found with a union-find
+ * over the actions indexed by parent node and by updated value. The clusters are listed, and
+ * their actions iterated, in the order of the edit script.
+ */
 public class ActionClusterFinder {
-    private DefaultDirectedGraph<Action, DefaultEdge> graph;
-
-    private List<Set<Action>> clusters;
+    private final Set<Tree> insertedNodes = new HashSet<>();
 
-    public ActionClusterFinder(EditScript actions) {
-        graph = new DefaultDirectedGraph<>(DefaultEdge.class);
+    private final Set<Tree> deletedNodes = new HashSet<>();
 
-        for (Action a: actions)
-            graph.addVertex(a);
+    private final int[] representatives;
 
+    private List<Set<Action>> clusters;
 
-        for (Action a1: actions) {
-            for (Action a2: actions) {
-                if (a1 != a2) {
-                    if (embeddedInserts(a1, a2) || sameValueUpdates(a1, a2)
-                            || sameParentMoves(a1, a2) || embeddedDeletes(a1, a2))
-                        graph.addEdge(a1, a2);
-                }
-            }
+    public ActionClusterFinder(EditScript actions) {
+        List<Action> script = actions.asList();
+        representatives = new int[script.size()];
+        for (int i = 0; i < representatives.length; i++)
+            representatives[i] = i;
+
+        Map<Tree, Integer> inserts = new HashMap<>();
+        Map<Tree, Integer> deletes = new HashMap<>();
+        Map<String, Integer> updates = new HashMap<>();
+        Map<Tree, Integer> moves = new HashMap<>();
+        for (int i = 0; i < script.size(); i++) {
+            Action a = script.get(i);
+            if (a instanceof Insert)
+                inserts.putIfAbsent(a.getNode(), i);
+            else if (a instanceof Delete)
+                deletes.putIfAbsent(a.getNode(), i);
+            else if (a instanceof Update)
+                union(i, updates.merge(((Update) a).getValue(), i, Math::min));
+            else if (a instanceof Move && a.getNode() != null)
+                union(i, moves.merge(a.getNode().getParent(), i, Math::min));
+        }
+        insertedNodes.addAll(inserts.keySet());
+        deletedNodes.addAll(deletes.keySet());
+
+        for (int i = 0; i < script.size(); i++) {
+            Action a = script.get(i);
+            Integer parent = null;
+            if (a instanceof Insert)
+                parent = inserts.get(((Insert) a).getParent());
+            else if (a instanceof Delete && a.getNode().getParent() != null)
+                parent = deletes.get(a.getNode().getParent());
+            if (parent != null)
+                union(i, parent);
         }
 
-        ConnectivityInspector<Action, DefaultEdge> alg = new ConnectivityInspector<>(graph);
-        clusters = alg.connectedSets();
+        Map<Integer, Set<Action>> clustersByRepresentative = new LinkedHashMap<>();
+        for (int i = 0; i < script.size(); i++)
+            clustersByRepresentative.computeIfAbsent(find(i), r -> new LinkedHashSet<>()).add(script.get(i));
+        clusters = new ArrayList<>(clustersByRepresentative.values());
     }
 
     public List<Set<Action>> getClusters() {
         return clusters;
     }
 
-    private boolean embeddedInserts(Action a1, Action a2) {
-        if (!(a1 instanceof Insert && a2 instanceof Insert))
-            return false;
-        Insert i1 = (Insert) a1;
-        Insert i2 = (Insert) a2;
-        return i2.getParent().equals(i1.getNode());
-    }
-
-    private boolean embeddedDeletes(Action a1, Action a2) {
-        if (!(a1 instanceof Delete && a2 instanceof Delete))
-            return false;
-        Delete d1 = (Delete) a1;
-        Delete d2 = (Delete) a2;
-        if (d2.getNode().getParent() == null)
-            return false;
-        return d2.getNode().getParent().equals(d1.getNode());
-    }
-
-    private boolean sameParentMoves(Action a1, Action a2) {
-        if (!(a1 instanceof Move && a2 instanceof Move))
-            return false;
-        Move m1 = (Move) a1;
-        Move m2 = (Move) a2;
-        if (m1.getNode() == null)
-            return false;
-        if (m2.getNode() == null)
-            return false;
-        return m1.getNode().getParent().equals(m2.getNode().getParent());
+    private int find(int i) {
+        while (representatives[i] != i) {
+            representatives[i] = representatives[representatives[i]];
+            i = representatives[i];
+        }
+        return i;
     }
 
-    private boolean sameValueUpdates(Action a1, Action a2) {
-        if (!(a1 instanceof Update && a2 instanceof Update))
-            return false;
-        Update u1 = (Update) a1;
-        Update u2 = (Update) a2;
-        return u1.getValue().equals(u2.getValue());
+    private void union(int i, int j) {
+        int ri = find(i);
+        int rj = find(j);
+        // The smallest index is kept as representative, so that clusters follow the script order.
+        if (ri < rj)
+            representatives[rj] = ri;
+        else if (rj < ri)
+            representatives[ri] = rj;
     }
 
     public String getClusterLabel(Set<Action> cluster) {
@@ -102,7 +110,7 @@ public class ActionClusterFinder {
         if (first instanceof Insert) {
             Insert root = null;
             for (Action a : cluster)
-                if (graph.inDegreeOf(a) == 0)
+                if (!insertedNodes.contains(((Insert) a).getParent()))
                     root = (Insert) a;
             return root.toString();
         } else if (first instanceof Move) {
@@ -114,7 +122,7 @@ public class ActionClusterFinder {
         } else if (first instanceof Delete) {
             Delete root = null;
             for (Action a : cluster)
-                if (graph.inDegreeOf(a) == 0)
+                if (a.getNode().getParent() == null || !deletedNodes.contains(a.getNode().getParent()))
                     root = (Delete) a;
             return root.toString();
         } else
@@ -0,0 +1,34 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.actions.model.Action;
+
+/**
+ * A consumer of the actions of an edit script, notified of each action as soon as it is
+ * computed, in the order of the edit script.
+ *
+ * @see EditScriptGenerator#computeActions(com.github.gumtreediff.matchers.MappingStore, ActionSink)
+ */
+@FunctionalInterface
+public interface ActionSink {
+    void actionComputed(Action action);
+}
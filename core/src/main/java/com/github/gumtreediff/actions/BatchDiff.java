@@ -0,0 +1,211 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.DirectoryComparator;
+import com.github.gumtreediff.matchers.GumtreeProperties;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.PhaseListener;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Compute the diffs of many pairs of files in parallel, typically the modified files
+ * of a {@link DirectoryComparator}. The files are parsed and matched on a pool of threads
+ * (a work-stealing pool by default), and the diffs are streamed to a {@link Sink} as soon
+ * as they are computed, in an unspecified order.
+ *
+ * <p>The number of diffs in flight (being computed or waiting for the sink) is bounded,
+ * so that the memory used by the trees stays bounded whatever the number of files.
+ */
+public class BatchDiff {
+    /**
+     * The consumer of the diffs computed by a batch. Its methods are never called concurrently,
+     * therefore it does not need to be thread-safe.
+     */
+    public interface Sink {
+        void diffComputed(File src, File dst, Diff diff) throws Exception;
+
+        /**
+         * Called when a diff cannot be computed, for instance because of a syntax error,
+         * or of a stack overflow on a very deep tree. By default, the failure is ignored.
+         */
+        default void diffFailed(File src, File dst, Throwable e) throws Exception {
+        }
+    }
+
+    private final String treeGenerator;
+    private final String matcher;
+    private final GumtreeProperties properties;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxInFlight = -1;
+    private ExecutorService executor;
+    private PhaseListener listener = PhaseListener.NONE;
+
+    /**
+     * Instantiate a batch using the provided tree generator and matcher ids, which
+     * can be null to use the tree generators based on the file extensions and the
+     * default matcher.
+     */
+    public BatchDiff(String treeGenerator, String matcher, GumtreeProperties properties) {
+        this.treeGenerator = treeGenerator;
+        this.matcher = matcher;
+        this.properties = properties;
+    }
+
+    public BatchDiff() {
+        this(null, null, new GumtreeProperties());
+    }
+
+    /**
+     * Set the number of threads of the default pool. Ignored if an executor is provided.
+     */
+    public BatchDiff setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("The parallelism must be strictly positive: " + parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of diffs in flight. By default, it is twice the parallelism.
+     */
+    public BatchDiff setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("The maximum number of diffs in flight must be strictly positive: "
+                    + maxInFlight);
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Set the executor computing the diffs, which is not shut down by the batch.
+     * It allows for instance to use a pool of virtual threads.
+     */
+    public BatchDiff setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Set the listener notified of the phases of every diff. It is called concurrently
+     * by the threads computing the diffs.
+     */
+    public BatchDiff setPhaseListener(PhaseListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Compute the diffs of the modified files of the provided comparator, which must
+     * have been compared.
+     *
+     * @see DirectoryComparator#compare()
+     */
+    public void run(DirectoryComparator comparator, Sink sink) throws Exception {
+        run(comparator.getModifiedFiles(), sink);
+    }
+
+    /**
+     * Compute the diffs of the provided pairs of files, and return when all of them have
+     * been consumed by the sink. If the sink throws an exception, no more diff is submitted,
+     * the diffs already in flight are computed but not given to the sink, and the exception
+     * is rethrown once they are all done.
+     */
+    public void run(List<Pair<File, File>> pairs, Sink sink) throws Exception {
+        // The registries are lazily created singletons, create them before going parallel.
+        TreeGenerators.getInstance();
+        Matchers.getInstance();
+
+        ExecutorService pool = (executor != null) ? executor : Executors.newWorkStealingPool(parallelism);
+        // Each diff holds a permit from its submission until its consumption by the sink.
+        int permits = (maxInFlight > 0) ? maxInFlight : 2 * parallelism;
+        Semaphore inFlight = new Semaphore(permits);
+        SerializedSink serializedSink = new SerializedSink(sink);
+        try {
+            for (Pair<File, File> pair : pairs) {
+                inFlight.acquire();
+                if (serializedSink.error != null) {
+                    inFlight.release();
+                    break;
+                }
+                try {
+                    pool.execute(() -> {
+                        try {
+                            serializedSink.consume(pair.first, pair.second, compute(pair.first, pair.second));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+            // Wait for all the submitted diffs to be consumed.
+            inFlight.acquire(permits);
+        } finally {
+            if (executor == null)
+                pool.shutdown();
+        }
+        if (serializedSink.error instanceof Error)
+            throw (Error) serializedSink.error;
+        if (serializedSink.error != null)
+            throw (Exception) serializedSink.error;
+    }
+
+    private Object compute(File src, File dst) {
+        try {
+            return Diff.compute(src.getPath(), dst.getPath(), treeGenerator, matcher, properties, listener);
+        } catch (Throwable e) {
+            return e;
+        }
+    }
+
+    private static class SerializedSink {
+        private final Sink sink;
+        private volatile Throwable error;
+
+        SerializedSink(Sink sink) {
+            this.sink = sink;
+        }
+
+        synchronized void consume(File src, File dst, Object result) {
+            if (error != null)
+                return;
+            try {
+                if (result instanceof Diff)
+                    sink.diffComputed(src, dst, (Diff) result);
+                else
+                    sink.diffFailed(src, dst, (Throwable) result);
+            } catch (Throwable e) {
+                error = e;
+            }
+        }
+    }
+}
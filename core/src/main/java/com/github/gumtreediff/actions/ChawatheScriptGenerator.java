@@ -25,6 +25,7 @@ import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.tree.FakeTree;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.utils.SequenceAlgorithms;
 
 import java.util.*;
 
@@ -46,17 +47,26 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
 
     private Set<Tree> srcInOrder;
 
-    private EditScript actions;
+    private ActionSink sink;
 
     private Map<Tree, Tree> origToCopy;
 
     private Map<Tree, Tree> copyToOrig;
 
+    private Map<Tree, Integer> dstPositions;
+
+    private Map<Tree, Integer> srcPositions;
+
     @Override
     public EditScript computeActions(MappingStore ms) {
         initWith(ms);
-        generate();
-        return actions;
+        return generate();
+    }
+
+    @Override
+    public void computeActions(MappingStore ms, ActionSink sink) {
+        initWith(ms);
+        generate(sink);
     }
 
     public void initWith(MappingStore ms) {
@@ -80,14 +90,23 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
     }
 
     public EditScript generate() {
+        EditScript actions = new EditScript();
+        generate(actions::add);
+        return actions;
+    }
+
+    private void generate(ActionSink sink) {
         Tree srcFakeRoot = new FakeTree(cpySrc);
         Tree dstFakeRoot = new FakeTree(origDst);
         cpySrc.setParent(srcFakeRoot);
         origDst.setParent(dstFakeRoot);
 
-        actions = new EditScript();
+        this.sink = sink;
         dstInOrder = new HashSet<>();
         srcInOrder = new HashSet<>();
+        dstPositions = new HashMap<>();
+        srcPositions = new HashMap<>();
+        dstPositions.put(origDst, 0);
 
         cpyMappings.addMapping(srcFakeRoot, dstFakeRoot);
 
@@ -104,25 +123,24 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
                 // In order to use the real nodes from the second tree, we
                 // furnish x instead of w
                 Action ins = new Insert(x, copyToOrig.get(z), k);
-                actions.add(ins);
+                sink.actionComputed(ins);
                 copyToOrig.put(w, x);
                 cpyMappings.addMapping(w, x);
-                z.insertChild(w, k);
+                insertChild(z, w, k);
             } else {
                 w = cpyMappings.getSrcForDst(x);
                 if (!x.equals(origDst)) { // TODO => x != origDst // Case of the root
                     Tree v = w.getParent();
                     if (!w.getLabel().equals(x.getLabel())) {
-                        actions.add(new Update(copyToOrig.get(w), x.getLabel()));
+                        sink.actionComputed(new Update(copyToOrig.get(w), x.getLabel()));
                         w.setLabel(x.getLabel());
                     }
                     if (!z.equals(v)) {
                         int k = findPos(x);
                         Action mv = new Move(copyToOrig.get(w), copyToOrig.get(z), k);
-                        actions.add(mv);
-                        int oldk = w.positionInParent();
-                        w.getParent().getChildren().remove(oldk);
-                        z.insertChild(w, k);
+                        sink.actionComputed(mv);
+                        w.getParent().getChildren().remove(positionInParent(w));
+                        insertChild(z, w, k);
                     }
                 }
             }
@@ -134,106 +152,95 @@ public class ChawatheScriptGenerator implements EditScriptGenerator {
 
         for (Tree w : cpySrc.postOrder())
             if (!cpyMappings.isSrcMapped(w))
-                actions.add(new Delete(copyToOrig.get(w)));
-
-        return actions;
+                sink.actionComputed(new Delete(copyToOrig.get(w)));
     }
 
+    /**
+     * Moves the mapped children of w that are out of order. The children in order are the ones
+     * of a longest increasing subsequence of the positions in w of the partners of the children of x.
+     */
     private void alignChildren(Tree w, Tree x) {
-        srcInOrder.removeAll(w.getChildren());
-        dstInOrder.removeAll(x.getChildren());
-
-        List<Tree> s1 = new ArrayList<>();
-        for (Tree c: w.getChildren())
-            if (cpyMappings.isSrcMapped(c))
-                if (x.getChildren().contains(cpyMappings.getDstForSrc(c)))
-                    s1.add(c);
+        List<Tree> srcChildren = w.getChildren();
+        List<Tree> dstChildren = x.getChildren();
+
+        Map<Tree, Integer> s1 = new HashMap<>();
+        for (int i = 0; i < srcChildren.size(); i++) {
+            Tree c = srcChildren.get(i);
+            srcInOrder.remove(c);
+            srcPositions.put(c, i);
+            if (cpyMappings.isSrcMapped(c) && x.equals(cpyMappings.getDstForSrc(c).getParent()))
+                s1.put(c, s1.size());
+        }
 
         List<Tree> s2 = new ArrayList<>();
-        for (Tree c: x.getChildren())
-            if (cpyMappings.isDstMapped(c))
-                if (w.getChildren().contains(cpyMappings.getSrcForDst(c)))
+        int[] s1Positions = new int[dstChildren.size()];
+        for (int i = 0; i < dstChildren.size(); i++) {
+            Tree c = dstChildren.get(i);
+            dstInOrder.remove(c);
+            dstPositions.put(c, i);
+            if (cpyMappings.isDstMapped(c)) {
+                Integer position = s1.get(cpyMappings.getSrcForDst(c));
+                if (position != null) {
+                    s1Positions[s2.size()] = position;
                     s2.add(c);
+                }
+            }
+        }
 
-        List<Mapping> lcs = lcs(s1, s2);
-
-        for (Mapping m : lcs) {
-            srcInOrder.add(m.first);
-            dstInOrder.add(m.second);
+        int[] lis = SequenceAlgorithms.longestIncreasingSubsequence(Arrays.copyOf(s1Positions, s2.size()));
+        boolean[] inOrder = new boolean[s2.size()];
+        for (int i : lis) {
+            inOrder[i] = true;
+            srcInOrder.add(cpyMappings.getSrcForDst(s2.get(i)));
+            dstInOrder.add(s2.get(i));
         }
 
-        for (Tree b: s2 ) { // iterate through s2 first, to ensure left-to-right insertions
-            for (Tree a : s1) {
-                if (cpyMappings.has(a, b)) {
-                    if (!lcs.contains(new Mapping(a, b))) {
-                        a.getParent().getChildren().remove(a); // remove this node directly.
-                        int k = findPos(b); // find insert position AFTER removing node from old place.
-                        Action mv = new Move(copyToOrig.get(a), copyToOrig.get(w), k);
-                        actions.add(mv);
-                        w.getChildren().add(k, a);
-                        a.setParent(w);
-                        srcInOrder.add(a);
-                        dstInOrder.add(b);
-                    }
-                }
+        for (int i = 0; i < s2.size(); i++) { // iterate through s2, to ensure left-to-right insertions
+            if (!inOrder[i]) {
+                Tree b = s2.get(i);
+                Tree a = cpyMappings.getSrcForDst(b);
+                a.getParent().getChildren().remove(positionInParent(a)); // remove this node directly.
+                int k = findPos(b); // find insert position AFTER removing node from old place.
+                Action mv = new Move(copyToOrig.get(a), copyToOrig.get(w), k);
+                sink.actionComputed(mv);
+                insertChild(w, a, k);
+                srcInOrder.add(a);
+                dstInOrder.add(b);
             }
         }
     }
 
     private int findPos(Tree x) {
-        Tree y = x.getParent();
-        List<Tree> siblings = y.getChildren();
-
-        for (Tree c : siblings) {
-            if (dstInOrder.contains(c)) {
-                if (c.equals(x)) return 0;
-                else break;
-            }
-        }
+        List<Tree> siblings = x.getParent().getChildren();
 
-        int xpos = x.positionInParent();
+        // The rightmost sibling in order on the left of x, if x is the leftmost one there is none.
         Tree v = null;
-        for (int i = 0; i < xpos; i++) {
-            Tree c = siblings.get(i);
-            if (dstInOrder.contains(c)) v = c;
-        }
+        for (int i = dstPositions.get(x) - 1; i >= 0 && v == null; i--)
+            if (dstInOrder.contains(siblings.get(i)))
+                v = siblings.get(i);
 
-        //if (v == null) throw new RuntimeException("No rightmost sibling in order");
         if (v == null) return 0;
 
         Tree u = cpyMappings.getSrcForDst(v);
-        // siblings = u.getParent().getChildren();
-        // int upos = siblings.indexOf(u);
-        int upos = u.positionInParent();
-        // int r = 0;
-        // for (int i = 0; i <= upos; i++)
-        // if (srcInOrder.contains(siblings.get(i))) r++;
-        return upos + 1;
+        return positionInParent(u) + 1;
     }
 
-    private List<Mapping> lcs(List<Tree> x, List<Tree> y) {
-        int m = x.size();
-        int n = y.size();
-        List<Mapping> lcs = new ArrayList<>();
-
-        int[][] opt = new int[m + 1][n + 1];
-        for (int i = m - 1; i >= 0; i--) {
-            for (int j = n - 1; j >= 0; j--) {
-                if (cpyMappings.getSrcForDst(y.get(j)).equals(x.get(i))) opt[i][j] = opt[i + 1][j + 1] + 1;
-                else  opt[i][j] = Math.max(opt[i + 1][j], opt[i][j + 1]);
-            }
-        }
-
-        int i = 0, j = 0;
-        while (i < m && j < n) {
-            if (cpyMappings.getSrcForDst(y.get(j)).equals(x.get(i))) {
-                lcs.add(new Mapping(x.get(i), y.get(j)));
-                i++;
-                j++;
-            } else if (opt[i + 1][j] >= opt[i][j + 1]) i++;
-            else j++;
-        }
+    private void insertChild(Tree parent, Tree child, int position) {
+        parent.insertChild(child, position);
+        srcPositions.put(child, position);
+    }
 
-        return lcs;
+    /**
+     * Returns the position of t in its parent, using the last known position of t as a hint
+     * since most of the lookups occur right after the insertion of a sibling.
+     */
+    private int positionInParent(Tree t) {
+        List<Tree> siblings = t.getParent().getChildren();
+        Integer hint = srcPositions.get(t);
+        if (hint != null && hint < siblings.size() && siblings.get(hint) == t)
+            return hint;
+        int position = t.positionInParent();
+        srcPositions.put(t, position);
+        return position;
     }
 }
@@ -21,11 +21,14 @@
 package com.github.gumtreediff.actions;
 
 import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.matchers.CompositeMatchers.CompositeMatcher;
 import com.github.gumtreediff.matchers.GumtreeProperties;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.matchers.Matchers;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.PhaseListener;
+import com.github.gumtreediff.utils.PhaseStatistics;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -78,21 +81,70 @@ public class Diff {
      */
     public static Diff compute(String srcFile, String dstFile, String treeGenerator,
                                String matcher, GumtreeProperties properties) throws IOException {
-        TreeContext src = TreeGenerators.getInstance().getTree(srcFile, treeGenerator);
+        return compute(srcFile, dstFile, treeGenerator, matcher, properties, PhaseListener.NONE);
+    }
+
+    /**
+     * Compute and return a diff, reporting the resources consumed by each phase
+     * of the computation to the provided listener.
+     * @param srcFile The path to the source file.
+     * @param dstFile The path to the destination file.
+     * @param treeGenerator The id of the tree generator to use.
+     * @param matcher The id of the the matcher to use.
+     * @param properties The set of options.
+     * @param listener The listener notified of each completed phase.
+     * @throws IOException an IO exception is raised in case of IO problems related to the source
+     *     or destination file.
+     * @see PhaseListener
+     */
+    public static Diff compute(String srcFile, String dstFile, String treeGenerator,
+                               String matcher, GumtreeProperties properties,
+                               PhaseListener listener) throws IOException {
+        PhaseStatistics.Probe probe = PhaseStatistics.start("parse-src");
+        final TreeContext src = TreeGenerators.getInstance().getTree(srcFile, treeGenerator);
+        listener.phaseCompleted(probe.stop());
+        probe = PhaseStatistics.start("parse-dst");
         TreeContext dst = TreeGenerators.getInstance().getTree(dstFile, treeGenerator);
+        listener.phaseCompleted(probe.stop());
 
-        return compute(src, dst, treeGenerator, matcher, properties);
+        return compute(src, dst, matcher, properties, listener);
     }
 
-    private static Diff compute(TreeContext src, TreeContext dst, String treeGenerator,
-                               String matcher, GumtreeProperties properties) throws IOException {
-        Matcher m = Matchers.getInstance().getMatcherWithFallback(matcher);
-        m.configure(properties);
-        MappingStore mappings = m.match(src.getRoot(), dst.getRoot());
+    private static Diff compute(TreeContext src, TreeContext dst, String matcher,
+                                GumtreeProperties properties, PhaseListener listener) {
+        MappingStore mappings = computeMappings(src, dst, matcher, properties, listener);
+        PhaseStatistics.Probe probe = PhaseStatistics.start("edit-script");
         EditScript editScript = new SimplifiedChawatheScriptGenerator().computeActions(mappings);
+        listener.phaseCompleted(probe.stop());
         return new Diff(src, dst, mappings, editScript);
     }
 
+    /**
+     * Compute and return the mappings between two ASTs, without computing the edit script,
+     * reporting the resources consumed by the matching to the provided listener. The edit
+     * script can then be streamed from the mappings rather than held in a diff.
+     * @param src The source AST in its context.
+     * @param dst The destination AST in its context.
+     * @param matcher The id of the the matcher to use.
+     * @param properties The set of options.
+     * @param listener The listener notified of each completed phase.
+     * @see EditScriptGenerator#computeActions(MappingStore, ActionSink)
+     */
+    public static MappingStore computeMappings(TreeContext src, TreeContext dst, String matcher,
+                                               GumtreeProperties properties, PhaseListener listener) {
+        Matcher m = Matchers.getInstance().getMatcherWithFallback(matcher);
+        m.configure(properties);
+        PhaseStatistics.Probe probe = PhaseStatistics.start("match");
+        MappingStore mappings;
+        if (m instanceof CompositeMatcher)
+            mappings = ((CompositeMatcher) m).match(src.getRoot(), dst.getRoot(),
+                    m.newMappingStore(src.getRoot(), dst.getRoot()), listener);
+        else
+            mappings = m.match(src.getRoot(), dst.getRoot());
+        listener.phaseCompleted(probe.stop());
+        return mappings;
+    }
+
     /**
      * Compute and return a diff.
      * @param srcReader The reader to the source file.
@@ -105,9 +157,32 @@ public class Diff {
      */
     public static Diff compute(Reader srcReader, Reader dstReader, String treeGenerator,
                                String matcher, GumtreeProperties properties) throws IOException {
-        TreeContext src = TreeGenerators.getInstance().getTree(srcReader, treeGenerator);
+        return compute(srcReader, dstReader, treeGenerator, matcher, properties, PhaseListener.NONE);
+    }
+
+    /**
+     * Compute and return a diff, reporting the resources consumed by each phase
+     * of the computation to the provided listener.
+     * @param srcReader The reader to the source file.
+     * @param dstReader The reader to the destination file.
+     * @param treeGenerator The id of the tree generator to use.
+     * @param matcher The id of the the matcher to use.
+     * @param properties The set of options.
+     * @param listener The listener notified of each completed phase.
+     * @throws IOException an IO exception is raised in case of IO problems related to the source
+     *     or destination file.
+     * @see PhaseListener
+     */
+    public static Diff compute(Reader srcReader, Reader dstReader, String treeGenerator,
+                               String matcher, GumtreeProperties properties,
+                               PhaseListener listener) throws IOException {
+        PhaseStatistics.Probe probe = PhaseStatistics.start("parse-src");
+        final TreeContext src = TreeGenerators.getInstance().getTree(srcReader, treeGenerator);
+        listener.phaseCompleted(probe.stop());
+        probe = PhaseStatistics.start("parse-dst");
         TreeContext dst = TreeGenerators.getInstance().getTree(dstReader, treeGenerator);
-        return compute(src, dst, treeGenerator, matcher, properties);
+        listener.phaseCompleted(probe.stop());
+        return compute(src, dst, matcher, properties, listener);
     }
 
     /**
@@ -122,13 +197,32 @@ public class Diff {
      */
     public static Diff computeWithCommand(String srcFile, String dstFile, String command,
                                String matcher, GumtreeProperties properties) throws IOException {
-        TreeContext src = TreeGenerators.getInstance().getTreeFromCommand(srcFile, command);
+        return computeWithCommand(srcFile, dstFile, command, matcher, properties, PhaseListener.NONE);
+    }
+
+    /**
+     * Compute and return a diff, reporting the resources consumed by each phase
+     * of the computation to the provided listener.
+     * @param srcFile The path to the source file.
+     * @param dstFile The path to the destination file.
+     * @param command The executable command in the form: command $FILE.
+     * @param matcher The id of the the matcher to use.
+     * @param properties The set of options.
+     * @param listener The listener notified of each completed phase.
+     * @throws IOException an IO exception is raised in case of IO problems related to the source
+     *     or destination file.
+     * @see PhaseListener
+     */
+    public static Diff computeWithCommand(String srcFile, String dstFile, String command,
+                               String matcher, GumtreeProperties properties,
+                               PhaseListener listener) throws IOException {
+        PhaseStatistics.Probe probe = PhaseStatistics.start("parse-src");
+        final TreeContext src = TreeGenerators.getInstance().getTreeFromCommand(srcFile, command);
+        listener.phaseCompleted(probe.stop());
+        probe = PhaseStatistics.start("parse-dst");
         TreeContext dst = TreeGenerators.getInstance().getTreeFromCommand(dstFile, command);
-        Matcher m = Matchers.getInstance().getMatcherWithFallback(matcher);
-        m.configure(properties);
-        MappingStore mappings = m.match(src.getRoot(), dst.getRoot());
-        EditScript editScript = new SimplifiedChawatheScriptGenerator().computeActions(mappings);
-        return new Diff(src, dst, mappings, editScript);
+        listener.phaseCompleted(probe.stop());
+        return compute(src, dst, matcher, properties, listener);
     }
 
     /**
@@ -160,17 +254,19 @@ public class Diff {
     /**
      * Compute and return a all node classifier that indicates which node have
      * been added/deleted/updated/moved.
+     * @see IndexedTreeClassifier
      */
     public TreeClassifier createAllNodeClassifier() {
-        return new AllNodesClassifier(this);
+        return new IndexedTreeClassifier(this, false);
     }
 
     /**
      * Compute and return a root node classifier that indicates which node have
      * been added/deleted/updated/moved. Only the root note is marked when a whole
      * subtree has been subject to a same operation.
+     * @see IndexedTreeClassifier
      */
     public TreeClassifier createRootNodesClassifier() {
-        return new OnlyRootsClassifier(this);
+        return new IndexedTreeClassifier(this, true);
     }
 }
@@ -19,6 +19,7 @@
 
 package com.github.gumtreediff.actions;
 
+import com.github.gumtreediff.actions.model.Action;
 import com.github.gumtreediff.matchers.MappingStore;
 
 /**
@@ -26,10 +27,22 @@ import com.github.gumtreediff.matchers.MappingStore;
  *
  * @see MappingStore
  * @see EditScript
+ * @see ActionSink
  */
 public interface EditScriptGenerator {
     /**
      * Compute and return the edit script for the provided mappings.
      */
     EditScript computeActions(MappingStore mappings);
+
+    /**
+     * Compute the edit script for the provided mappings, handing each action to the provided
+     * sink instead of returning the script. Generators that produce their actions in order
+     * override this method so that the script is never held in memory. By default, the script
+     * is computed then its actions are handed to the sink.
+     */
+    default void computeActions(MappingStore mappings, ActionSink sink) {
+        for (Action action : computeActions(mappings))
+            sink.actionComputed(action);
+    }
 }
@@ -0,0 +1,292 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.actions.model.*;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeMetrics;
+
+import java.util.*;
+
+/**
+ * Tree classifier that records the classification of each node in a byte array
+ * indexed by the dense post-order position of the nodes (as computed in their metrics),
+ * making membership tests of the returned sets free of any hashing. The classification
+ * is computed in a single pass over the edit script, the subtrees of the tree actions
+ * being marked as intervals of positions.
+ * It classifies either all the nodes, as {@link AllNodesClassifier}, or only the roots of
+ * the subtrees subject to a same operation, as {@link OnlyRootsClassifier}.
+ * The ASTs of the diff must not be modified while the classifier is in use.
+ *
+ * @see com.github.gumtreediff.tree.TreeMetrics#position
+ */
+public class IndexedTreeClassifier implements TreeClassifier {
+    private static final byte UPDATED = 1;
+
+    private static final byte MOVED = 2;
+
+    // Deleted for a source node, inserted for a destination node.
+    private static final byte CHANGED = 4;
+
+    // Target of a single node deletion or insertion, only used to find the roots.
+    private static final byte SINGLE = 8;
+
+    private static final byte SINGLE_SUBTREE = 16;
+
+    private final Diff diff;
+
+    private final NodeIndex srcIndex;
+
+    private final NodeIndex dstIndex;
+
+    private final Set<Tree> srcUpdTrees;
+
+    private final Set<Tree> dstUpdTrees;
+
+    private final Set<Tree> srcMvTrees;
+
+    private final Set<Tree> dstMvTrees;
+
+    private final Set<Tree> srcDelTrees;
+
+    private final Set<Tree> dstAddTrees;
+
+    /**
+     * Classify the nodes of the ASTs of the provided diff.
+     * @param onlyRoots if true, only the root node is marked when a whole subtree
+     *     has been subject to a same operation.
+     */
+    public IndexedTreeClassifier(Diff diff, boolean onlyRoots) {
+        this.diff = diff;
+        this.srcIndex = new NodeIndex(diff.src.getRoot());
+        this.dstIndex = new NodeIndex(diff.dst.getRoot());
+        if (onlyRoots) {
+            classifyRoots();
+            srcIndex.markRoots();
+            dstIndex.markRoots();
+        }
+        else
+            classifyAll();
+        srcUpdTrees = srcIndex.nodes(UPDATED);
+        dstUpdTrees = dstIndex.nodes(UPDATED);
+        srcMvTrees = srcIndex.nodes(MOVED);
+        dstMvTrees = dstIndex.nodes(MOVED);
+        srcDelTrees = srcIndex.nodes(CHANGED);
+        dstAddTrees = dstIndex.nodes(CHANGED);
+    }
+
+    private void classifyAll() {
+        for (Action a: diff.editScript) {
+            if (a instanceof Delete)
+                srcIndex.mark(a.getNode(), CHANGED);
+            else if (a instanceof TreeDelete)
+                srcIndex.markSubtree(a.getNode(), CHANGED);
+            else if (a instanceof Insert)
+                dstIndex.mark(a.getNode(), CHANGED);
+            else if (a instanceof TreeInsert)
+                dstIndex.markSubtree(a.getNode(), CHANGED);
+            else if (a instanceof Update) {
+                srcIndex.mark(a.getNode(), UPDATED);
+                dstIndex.mark(diff.mappings.getDstForSrc(a.getNode()), UPDATED);
+            }
+            else if (a instanceof Move) {
+                srcIndex.markSubtree(a.getNode(), MOVED);
+                dstIndex.markSubtree(diff.mappings.getDstForSrc(a.getNode()), MOVED);
+            }
+        }
+    }
+
+    private void classifyRoots() {
+        for (Action a: diff.editScript) {
+            if (a instanceof Delete)
+                srcIndex.mark(a.getNode(), SINGLE);
+            else if (a instanceof TreeDelete)
+                srcIndex.mark(a.getNode(), CHANGED);
+            else if (a instanceof Insert)
+                dstIndex.mark(a.getNode(), SINGLE);
+            else if (a instanceof TreeInsert)
+                dstIndex.mark(a.getNode(), CHANGED);
+            else if (a instanceof Update) {
+                srcIndex.mark(a.getNode(), UPDATED);
+                dstIndex.mark(diff.mappings.getDstForSrc(a.getNode()), UPDATED);
+            }
+            else if (a instanceof Move) {
+                srcIndex.mark(a.getNode(), MOVED);
+                dstIndex.mark(diff.mappings.getDstForSrc(a.getNode()), MOVED);
+            }
+        }
+    }
+
+    @Override
+    public Set<Tree> getUpdatedSrcs() {
+        return srcUpdTrees;
+    }
+
+    @Override
+    public Set<Tree> getUpdatedDsts() {
+        return dstUpdTrees;
+    }
+
+    @Override
+    public Set<Tree> getMovedSrcs() {
+        return srcMvTrees;
+    }
+
+    @Override
+    public Set<Tree> getMovedDsts() {
+        return dstMvTrees;
+    }
+
+    @Override
+    public Set<Tree> getDeletedSrcs() {
+        return srcDelTrees;
+    }
+
+    @Override
+    public Set<Tree> getInsertedDsts() {
+        return dstAddTrees;
+    }
+
+    private static final class NodeIndex {
+        private final Tree[] nodes;
+
+        private final int offset;
+
+        private final byte[] flags;
+
+        NodeIndex(Tree root) {
+            TreeMetrics metrics = root.getMetrics();
+            nodes = new Tree[metrics.size];
+            offset = metrics.position - metrics.size + 1;
+            for (Tree t : root.postOrder())
+                nodes[t.getMetrics().position - offset] = t;
+            flags = new byte[nodes.length];
+        }
+
+        int index(Tree t) {
+            int i = t.getMetrics().position - offset;
+            if (i >= 0 && i < nodes.length && t.equals(nodes[i]))
+                return i;
+            return -1;
+        }
+
+        private int checkedIndex(Tree t) {
+            int i = index(t);
+            if (i == -1)
+                throw new IllegalArgumentException("Node is not part of the diffed ASTs: " + t);
+            return i;
+        }
+
+        void mark(Tree t, byte flag) {
+            flags[checkedIndex(t)] |= flag;
+        }
+
+        // The descendants of a node are the size - 1 nodes preceding it in post-order.
+        void markSubtree(Tree t, byte flag) {
+            int last = checkedIndex(t);
+            for (int i = last - t.getMetrics().size + 1; i <= last; i++)
+                flags[i] |= flag;
+        }
+
+        /**
+         * Mark as changed the nodes targeted by a single node action, unless all their
+         * descendants and their parent are also targeted by such an action.
+         */
+        void markRoots() {
+            for (int i = 0; i < nodes.length; i++) {
+                boolean descendantsSingle = true;
+                for (Tree c : nodes[i].getChildren())
+                    if ((flags[index(c)] & SINGLE_SUBTREE) == 0)
+                        descendantsSingle = false;
+                if ((flags[i] & SINGLE) != 0 && descendantsSingle)
+                    flags[i] |= SINGLE_SUBTREE;
+            }
+            for (int i = 0; i < nodes.length; i++) {
+                if ((flags[i] & SINGLE) == 0)
+                    continue;
+                boolean descendantsSingle = (flags[i] & SINGLE_SUBTREE) != 0;
+                Tree parent = nodes[i].getParent();
+                int p = (parent == null) ? -1 : index(parent);
+                if (!(descendantsSingle && p != -1 && (flags[p] & SINGLE) != 0))
+                    flags[i] |= CHANGED;
+            }
+        }
+
+        Set<Tree> nodes(byte flag) {
+            return new FlaggedNodes(flag);
+        }
+
+        private final class FlaggedNodes extends AbstractSet<Tree> {
+            private final byte flag;
+
+            private final int size;
+
+            FlaggedNodes(byte flag) {
+                this.flag = flag;
+                int count = 0;
+                for (byte f : flags)
+                    if ((f & flag) != 0)
+                        count++;
+                this.size = count;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Tree))
+                    return false;
+                int i = index((Tree) o);
+                return i != -1 && (flags[i] & flag) != 0;
+            }
+
+            @Override
+            public Iterator<Tree> iterator() {
+                return new Iterator<>() {
+                    int next = nextFlagged(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < nodes.length;
+                    }
+
+                    @Override
+                    public Tree next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        Tree t = nodes[next];
+                        next = nextFlagged(next + 1);
+                        return t;
+                    }
+
+                    private int nextFlagged(int from) {
+                        while (from < nodes.length && (flags[from] & flag) == 0)
+                            from++;
+                        return from;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        }
+    }
+}
@@ -30,42 +30,37 @@ import com.github.gumtreediff.tree.Tree;
  * @see SimplifiedChawatheScriptGenerator
  */
 public class InsertDeleteChawatheScriptGenerator implements EditScriptGenerator {
-    private EditScript actions;
-    private MappingStore origMappings;
-
     @Override
     public EditScript computeActions(MappingStore ms) {
-        this.origMappings = ms;
-        this.actions = new SimplifiedChawatheScriptGenerator().computeActions(ms);
-        return removeMovesAndUpdates();
+        EditScript actions = new EditScript();
+        computeActions(ms, actions::add);
+        return actions;
     }
 
-    private EditScript removeMovesAndUpdates() {
-        EditScript actionsCpy = new EditScript();
-        for (Action a: actions) {
+    @Override
+    public void computeActions(MappingStore ms, ActionSink sink) {
+        new SimplifiedChawatheScriptGenerator().computeActions(ms, a -> {
             if (a instanceof Update) {
                 Tree src = a.getNode();
-                Tree dst = origMappings.getDstForSrc(src);
-                actionsCpy.add(new Insert(
+                Tree dst = ms.getDstForSrc(src);
+                sink.actionComputed(new Insert(
                         dst,
                         dst.getParent(),
-                        dst.positionInParent()));
-                actionsCpy.add(new Delete(a.getNode()));
+                        dst.isRoot() ? 0 : dst.positionInParent()));
+                sink.actionComputed(new Delete(a.getNode()));
             }
             else if (a instanceof Move) {
                 Move m = (Move) a;
                 Tree src = a.getNode();
-                Tree dst = origMappings.getDstForSrc(src);
-                actionsCpy.add(new TreeInsert(
+                Tree dst = ms.getDstForSrc(src);
+                sink.actionComputed(new TreeInsert(
                         dst,
                         dst.getParent(),
                         m.getPosition()));
-                actionsCpy.add(new TreeDelete(a.getNode()));
+                sink.actionComputed(new TreeDelete(a.getNode()));
             }
             else
-                actionsCpy.add(a);
-        }
-
-        return actionsCpy;
+                sink.actionComputed(a);
+        });
     }
 }
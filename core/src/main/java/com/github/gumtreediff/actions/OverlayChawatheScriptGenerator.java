@@ -0,0 +1,284 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.actions;
+
+import com.github.gumtreediff.actions.model.*;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.tree.FakeTree;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.utils.SequenceAlgorithms;
+
+import java.util.*;
+
+/**
+ * An edit script generator based upon Chawathe algorithm, that computes the same edit
+ * scripts than {@link ChawatheScriptGenerator} without copying the source tree. The
+ * insertions and moves performed by the algorithm are simulated on an overlay that only
+ * records the parents and the children lists that differ from the ones of the original
+ * trees. An inserted node is represented in the overlay by the destination node it comes
+ * from. Neither the source nor the destination tree is modified.
+ *
+ * @see ChawatheScriptGenerator
+ */
+public class OverlayChawatheScriptGenerator implements EditScriptGenerator {
+    private Tree src;
+
+    private Tree dst;
+
+    private MappingStore mappings;
+
+    private Tree srcFakeRoot;
+
+    private Tree dstFakeRoot;
+
+    private Map<Tree, Tree> parents;
+
+    private Map<Tree, List<Tree>> children;
+
+    private Set<Tree> inserted;
+
+    private Set<Tree> dstInOrder;
+
+    private Set<Tree> srcInOrder;
+
+    private Map<Tree, Integer> dstPositions;
+
+    private Map<Tree, Integer> srcPositions;
+
+    private ActionSink sink;
+
+    @Override
+    public EditScript computeActions(MappingStore ms) {
+        EditScript actions = new EditScript();
+        computeActions(ms, actions::add);
+        return actions;
+    }
+
+    @Override
+    public void computeActions(MappingStore ms, ActionSink sink) {
+        this.src = ms.src;
+        this.dst = ms.dst;
+        this.mappings = ms;
+        this.srcFakeRoot = new FakeTree(src);
+        this.dstFakeRoot = new FakeTree(dst);
+        this.parents = new HashMap<>();
+        this.children = new HashMap<>();
+        this.inserted = new HashSet<>();
+        this.sink = sink;
+        parents.put(src, srcFakeRoot);
+        generate();
+    }
+
+    private void generate() {
+        dstInOrder = new HashSet<>();
+        srcInOrder = new HashSet<>();
+        dstPositions = new HashMap<>();
+        srcPositions = new HashMap<>();
+        dstPositions.put(dst, 0);
+
+        List<Tree> bfsDst = TreeUtils.breadthFirst(dst);
+        for (Tree x: bfsDst) {
+            Tree w;
+            Tree y = dstParent(x);
+            Tree z = srcForDst(y);
+
+            if (!isDstMapped(x)) {
+                int k = findPos(x);
+                // Insertion case : x stands for the inserted node in the overlay.
+                w = x;
+                sink.actionComputed(new Insert(x, original(z), k));
+                inserted.add(w);
+                children.put(w, new ArrayList<>());
+                insertChild(z, w, k);
+            } else {
+                w = srcForDst(x);
+                if (!x.equals(dst)) { // Case of the root
+                    Tree v = parent(w);
+                    if (!w.getLabel().equals(x.getLabel()))
+                        sink.actionComputed(new Update(w, x.getLabel()));
+                    if (!z.equals(v)) {
+                        int k = findPos(x);
+                        sink.actionComputed(new Move(w, original(z), k));
+                        mutableChildren(v).remove(positionInParent(w));
+                        insertChild(z, w, k);
+                    }
+                }
+            }
+
+            srcInOrder.add(w);
+            dstInOrder.add(x);
+            alignChildren(w, x);
+        }
+
+        for (Tree w : postOrder(src))
+            if (!isSrcMapped(w))
+                sink.actionComputed(new Delete(w));
+    }
+
+    private void alignChildren(Tree w, Tree x) {
+        List<Tree> srcChildren = children(w);
+        List<Tree> dstChildren = x.getChildren();
+
+        Map<Tree, Integer> s1 = new HashMap<>();
+        for (int i = 0; i < srcChildren.size(); i++) {
+            Tree c = srcChildren.get(i);
+            srcInOrder.remove(c);
+            srcPositions.put(c, i);
+            if (isSrcMapped(c) && x.equals(dstForSrc(c).getParent()))
+                s1.put(c, s1.size());
+        }
+
+        List<Tree> s2 = new ArrayList<>();
+        int[] s1Positions = new int[dstChildren.size()];
+        for (int i = 0; i < dstChildren.size(); i++) {
+            Tree c = dstChildren.get(i);
+            dstInOrder.remove(c);
+            dstPositions.put(c, i);
+            if (isDstMapped(c)) {
+                Integer position = s1.get(srcForDst(c));
+                if (position != null) {
+                    s1Positions[s2.size()] = position;
+                    s2.add(c);
+                }
+            }
+        }
+
+        int[] lis = SequenceAlgorithms.longestIncreasingSubsequence(Arrays.copyOf(s1Positions, s2.size()));
+        boolean[] inOrder = new boolean[s2.size()];
+        for (int i : lis) {
+            inOrder[i] = true;
+            srcInOrder.add(srcForDst(s2.get(i)));
+            dstInOrder.add(s2.get(i));
+        }
+
+        for (int i = 0; i < s2.size(); i++) { // iterate through s2, to ensure left-to-right insertions
+            if (!inOrder[i]) {
+                Tree b = s2.get(i);
+                Tree a = srcForDst(b);
+                mutableChildren(parent(a)).remove(positionInParent(a)); // remove this node directly.
+                int k = findPos(b); // find insert position AFTER removing node from old place.
+                sink.actionComputed(new Move(a, original(w), k));
+                insertChild(w, a, k);
+                srcInOrder.add(a);
+                dstInOrder.add(b);
+            }
+        }
+    }
+
+    private int findPos(Tree x) {
+        List<Tree> siblings = dstParent(x).getChildren();
+
+        // The rightmost sibling in order on the left of x, if x is the leftmost one there is none.
+        Tree v = null;
+        for (int i = dstPositions.get(x) - 1; i >= 0 && v == null; i--)
+            if (dstInOrder.contains(siblings.get(i)))
+                v = siblings.get(i);
+
+        if (v == null) return 0;
+
+        Tree u = srcForDst(v);
+        return positionInParent(u) + 1;
+    }
+
+    private Tree parent(Tree t) {
+        Tree p = parents.get(t);
+        return (p != null) ? p : t.getParent();
+    }
+
+    private List<Tree> children(Tree t) {
+        List<Tree> c = children.get(t);
+        return (c != null) ? c : t.getChildren();
+    }
+
+    private List<Tree> mutableChildren(Tree t) {
+        return children.computeIfAbsent(t, p -> new ArrayList<>(p.getChildren()));
+    }
+
+    private void insertChild(Tree parent, Tree child, int position) {
+        mutableChildren(parent).add(position, child);
+        parents.put(child, parent);
+        srcPositions.put(child, position);
+    }
+
+    // The last known position of t is checked first, most lookups follow the insertion of a sibling.
+    private int positionInParent(Tree t) {
+        List<Tree> siblings = children(parent(t));
+        Integer hint = srcPositions.get(t);
+        if (hint != null && hint < siblings.size() && siblings.get(hint).equals(t))
+            return hint;
+        for (int i = 0; i < siblings.size(); i++) {
+            if (siblings.get(i).equals(t)) {
+                srcPositions.put(t, i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Tree dstParent(Tree x) {
+        return x.equals(dst) ? dstFakeRoot : x.getParent();
+    }
+
+    // The node given to the actions for a node of the overlay.
+    private Tree original(Tree t) {
+        return (t == srcFakeRoot) ? null : t;
+    }
+
+    private boolean isSrcMapped(Tree t) {
+        return inserted.contains(t) || mappings.isSrcMapped(t);
+    }
+
+    private boolean isDstMapped(Tree x) {
+        return inserted.contains(x) || mappings.isDstMapped(x);
+    }
+
+    private Tree srcForDst(Tree x) {
+        if (x == dstFakeRoot)
+            return srcFakeRoot;
+        Tree t = mappings.getSrcForDst(x);
+        return (t == null && inserted.contains(x)) ? x : t;
+    }
+
+    private Tree dstForSrc(Tree t) {
+        return inserted.contains(t) ? t : mappings.getDstForSrc(t);
+    }
+
+    private List<Tree> postOrder(Tree root) {
+        List<Tree> trees = new ArrayList<>();
+        Deque<Iterator<Tree>> iterators = new ArrayDeque<>();
+        Deque<Tree> stack = new ArrayDeque<>();
+        stack.push(root);
+        iterators.push(children(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Tree> it = iterators.peek();
+            if (it.hasNext()) {
+                Tree child = it.next();
+                stack.push(child);
+                iterators.push(children(child).iterator());
+            } else {
+                trees.add(stack.pop());
+                iterators.pop();
+            }
+        }
+        return trees;
+    }
+}
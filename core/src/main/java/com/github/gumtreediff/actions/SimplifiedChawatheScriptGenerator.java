@@ -23,8 +23,9 @@ import com.github.gumtreediff.actions.model.*;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.tree.Tree;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * A script generator, based upon the Chawathe algorithm,
@@ -35,52 +36,58 @@ import java.util.Map;
 public class SimplifiedChawatheScriptGenerator implements EditScriptGenerator {
     @Override
     public EditScript computeActions(MappingStore ms) {
-        EditScript actions = new ChawatheScriptGenerator().computeActions(ms);
-        return simplify(actions);
+        EditScript actions = new EditScript();
+        computeActions(ms, actions::add);
+        return actions;
     }
 
-    private static EditScript simplify(EditScript actions) {
-        Map<Tree, Action> addedTrees = new HashMap<>();
-        Map<Tree, Action> deletedTrees = new HashMap<>();
-
-        for (Action a: actions)
-            if (a instanceof Insert)
-                addedTrees.put(a.getNode(), a);
-            else if (a instanceof Delete)
-                deletedTrees.put(a.getNode(), a);
-
+    /**
+     * Compute the simplified edit script, handing each action to the provided sink as soon as
+     * it is computed. The subtrees that are entirely inserted or deleted are known from the
+     * mappings beforehand, hence each action of the Chawathe script is simplified on the fly.
+     */
+    @Override
+    public void computeActions(MappingStore ms, ActionSink sink) {
+        Set<Tree> addedTrees = unmappedSubtrees(ms.dst, ms::isDstMapped);
+        Set<Tree> deletedTrees = unmappedSubtrees(ms.src, ms::isSrcMapped);
+        new OverlayChawatheScriptGenerator().computeActions(ms, action -> {
+            if (action instanceof Insert)
+                simplifyInsert((Insert) action, addedTrees, sink);
+            else if (action instanceof Delete)
+                simplifyDelete((Delete) action, deletedTrees, sink);
+            else
+                sink.actionComputed(action);
+        });
+    }
 
-        for (Tree t : addedTrees.keySet()) {
-            if (addedTrees.keySet().contains(t.getParent())
-                    && addedTrees.keySet().containsAll(t.getParent().getDescendants()))
-                actions.remove(addedTrees.get(t));
-            else {
-                if (t.getChildren().size() > 0 && addedTrees.keySet().containsAll(t.getDescendants())) {
-                    Insert originalAction = (Insert) addedTrees.get(t);
-                    TreeInsert ti = new TreeInsert(originalAction.getNode(),
-                            originalAction.getParent(), originalAction.getPosition());
-                    int index = actions.lastIndexOf(originalAction);
-                    actions.add(index, ti);
-                    actions.remove(index +  1);
-                }
-            }
-        }
+    private static void simplifyInsert(Insert action, Set<Tree> addedTrees, ActionSink sink) {
+        Tree t = action.getNode();
+        if (addedTrees.contains(t.getParent()))
+            return; // Part of the subtree inserted with its parent.
+        if (!t.isLeaf() && addedTrees.contains(t))
+            sink.actionComputed(new TreeInsert(t, action.getParent(), action.getPosition()));
+        else
+            sink.actionComputed(action);
+    }
 
-        for (Tree t : deletedTrees.keySet()) {
-            if (deletedTrees.keySet().contains(t.getParent())
-                    && deletedTrees.keySet().containsAll(t.getParent().getDescendants()))
-                actions.remove(deletedTrees.get(t));
-            else {
-                if (t.getChildren().size() > 0 && deletedTrees.keySet().containsAll(t.getDescendants())) {
-                    Delete originalAction = (Delete) deletedTrees.get(t);
-                    TreeDelete ti = new TreeDelete(originalAction.getNode());
-                    int index = actions.lastIndexOf(originalAction);
-                    actions.add(index, ti);
-                    actions.remove(index +  1);
-                }
-            }
-        }
+    private static void simplifyDelete(Delete action, Set<Tree> deletedTrees, ActionSink sink) {
+        Tree t = action.getNode();
+        if (deletedTrees.contains(t.getParent()))
+            return; // Part of the subtree deleted with its parent.
+        if (!t.isLeaf() && deletedTrees.contains(t))
+            sink.actionComputed(new TreeDelete(t));
+        else
+            sink.actionComputed(action);
+    }
 
-        return actions;
+    /**
+     * Returns the nodes of the given tree whose whole subtree is unmapped.
+     */
+    private static Set<Tree> unmappedSubtrees(Tree root, Predicate<Tree> isMapped) {
+        Set<Tree> unmapped = new HashSet<>();
+        for (Tree t : root.postOrder())
+            if (!isMapped.test(t) && unmapped.containsAll(t.getChildren()))
+                unmapped.add(t);
+        return unmapped;
     }
 }
@@ -47,6 +47,6 @@ public abstract class Action {
         if (o.getClass() != this.getClass())
             return false;
 
-        return node == ((Action) o).node;
+        return node.equals(((Action) o).node);
     }
 }
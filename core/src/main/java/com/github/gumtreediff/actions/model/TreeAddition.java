@@ -21,6 +21,8 @@ package com.github.gumtreediff.actions.model;
 
 import com.github.gumtreediff.tree.Tree;
 
+import java.util.Objects;
+
 public abstract class TreeAddition extends TreeAction {
     protected Tree parent;
 
@@ -54,6 +56,6 @@ public abstract class TreeAddition extends TreeAction {
             return false;
 
         TreeAddition a = (TreeAddition) o;
-        return parent == a.parent && pos == a.pos;
+        return Objects.equals(parent, a.parent) && pos == a.pos;
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen;
+
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.nio.file.Path;
+
+/**
+ * A receiver of the trees produced by the batch mode of a tree generator, which
+ * generates the trees of many files at once. The trees are given to the sink as
+ * soon as they are produced, and the files whose tree cannot be produced are
+ * reported to the sink.
+ */
+public interface BatchSink {
+    void treeGenerated(Path file, TreeContext context);
+
+    default void treeFailed(Path file, Exception e) {
+    }
+}
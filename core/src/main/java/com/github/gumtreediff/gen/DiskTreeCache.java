@@ -0,0 +1,390 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeContext.MetadataUnserializers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache of the trees produced by the tree generators, stored in a directory.
+ * Each tree is stored in the binary format of {@link TreeIoUtils#toBinary(TreeContext)}, in a
+ * file named after the digest of the parsed content, the id of the generator, its version
+ * (see {@link TreeGenerator#getVersion()}) and the digest of the code of the generator and
+ * of GumTree (the jar or class directory they are loaded from). Therefore a rebuilt generator
+ * never reuses the trees of a previous build, even when its version does not change. When
+ * the code of the generator cannot be located and it has no release version, its trees are
+ * not cached at all. The files are loaded through memory-mapped buffers.
+ *
+ * <p>The type, label, position and length of the nodes are restored, as well as the metadata
+ * of the nodes and of the context whose values are strings. <b>The other metadata are lost</b>:
+ * a tree loaded from the cache does not have them, unlike a freshly generated one. Each call
+ * returns a new tree that can be freely modified. Several processes can safely share the same
+ * directory since the files are written atomically. Unreadable files are considered as cache
+ * misses and overwritten.
+ *
+ * @see ParseCache
+ */
+public class DiskTreeCache {
+    private static final int MAGIC = 0x47544332; // GTC2
+    private static final String EXTENSION = ".tree";
+
+    // The digests of the jars and class directories, computed once per process.
+    private static final Map<String, Optional<String>> CODE_DIGESTS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DiskTreeCache(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    public DiskTreeCache(String directory) throws IOException {
+        this(Paths.get(directory));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Return the tree of the provided file, using the tree generator
+     * selected by the file extension. Only the metadata whose values are strings
+     * are kept when the tree comes from the cache.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeContext getTree(String file) throws UnsupportedOperationException, IOException {
+        return getTree(file, null);
+    }
+
+    /**
+     * Return the tree of the provided file, using the tree generator with the provided
+     * id, or the one selected by the file extension if the id is null.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeContext getTree(String file, String generator) throws UnsupportedOperationException, IOException {
+        TreeGenerators.Entry entry = (generator == null)
+                ? TreeGenerators.getInstance().find(file) : TreeGenerators.getInstance().findById(generator);
+        if (entry == null) {
+            if (generator == null)
+                throw new UnsupportedOperationException("No generator found for file: " + file);
+            else
+                throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
+        }
+        return getTree(entry, Files.readAllBytes(Paths.get(file)));
+    }
+
+    /**
+     * Return the tree of the provided UTF-8 encoded content, using the tree generator
+     * with the provided id.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeContext getTree(byte[] content, String generator) throws UnsupportedOperationException, IOException {
+        TreeGenerators.Entry entry = TreeGenerators.getInstance().findById(generator);
+        if (entry == null)
+            throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
+        return getTree(entry, content);
+    }
+
+    private TreeContext getTree(TreeGenerators.Entry entry, byte[] content) throws IOException {
+        TreeGenerator generator = entry.instantiate(null);
+        String version = version(entry.id, generator);
+        if (version == null) {
+            misses.incrementAndGet();
+            return generator.generateFrom().stream(new ByteArrayInputStream(content));
+        }
+
+        Path file = directory.resolve(key(version, content) + EXTENSION);
+        if (Files.exists(file)) {
+            TreeContext cached = read(file, version);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        misses.incrementAndGet();
+        TreeContext context = generator.generateFrom().stream(new ByteArrayInputStream(content));
+        write(file, version, context);
+        return context;
+    }
+
+    /**
+     * Remove all the trees from the cache directory. The statistics are kept.
+     */
+    public void clear() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files)
+                Files.deleteIfExists(file);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Return the version of the trees of the provided generator, or null if they must
+     * not be cached because neither the code of the generator nor its version are known.
+     */
+    private static String version(String id, TreeGenerator generator) {
+        String version = generator.getVersion();
+        String code = codeDigest(generator.getClass());
+        if (code == null && ("unknown".equals(version) || version.endsWith("-SNAPSHOT")))
+            return null;
+        return id + "@" + version + "#" + code + "#" + codeDigest(DiskTreeCache.class);
+    }
+
+    /**
+     * Return the digest of the jar or class directory the provided class is loaded from,
+     * or null if it cannot be located or read.
+     */
+    private static String codeDigest(Class<?> type) {
+        CodeSource source = type.getProtectionDomain().getCodeSource();
+        URL location = (source == null) ? null : source.getLocation();
+        if (location == null)
+            return null;
+        return CODE_DIGESTS.computeIfAbsent(location.toString(), k -> Optional.ofNullable(codeDigest(location)))
+                .orElse(null);
+    }
+
+    private static String codeDigest(URL location) {
+        try {
+            Path root = Paths.get(location.toURI());
+            MessageDigest digest = newDigest();
+            if (Files.isDirectory(root)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(root)) {
+                    files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    digest.update(Files.readAllBytes(file));
+                }
+            }
+            else
+                digest.update(Files.readAllBytes(root));
+            return toHex(digest.digest());
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String key(String version, byte[] content) {
+        MessageDigest digest = newDigest();
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the platform.", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder b = new StringBuilder();
+        for (byte value : bytes)
+            b.append(String.format("%02x", value));
+        return b.toString();
+    }
+
+    /**
+     * Return the keys of the metadata of the context and of its nodes that can be stored,
+     * i.e. whose values are all strings.
+     */
+    private static Set<String> stringMetadata(TreeContext context) {
+        Set<String> keys = new TreeSet<>();
+        Set<String> others = new TreeSet<>();
+        collectMetadata(context.getMetadata(), keys, others);
+        for (Tree t : context.getRoot().preOrder())
+            collectMetadata(t.getMetadata(), keys, others);
+        keys.removeAll(others);
+        keys.removeIf(key -> key.equals("pos") || key.equals("length")
+                || !TreeContext.Marshallers.valid_id.matcher(key).matches());
+        return keys;
+    }
+
+    private static void collectMetadata(Iterator<Map.Entry<String, Object>> metadata,
+                                        Set<String> keys, Set<String> others) {
+        while (metadata.hasNext()) {
+            Map.Entry<String, Object> entry = metadata.next();
+            if (entry.getValue() instanceof String)
+                keys.add(entry.getKey());
+            else
+                others.add(entry.getKey());
+        }
+    }
+
+    /*
+     * The file layout is: magic, version, the number of stored metadata keys, these keys, and
+     * then the tree in the binary format of TreeIoUtils, exporting these metadata. The version
+     * and the keys are stored as their length followed by their UTF-8 bytes.
+     */
+
+    private static void write(Path file, String version, TreeContext context) throws IOException {
+        List<byte[]> strings = new ArrayList<>();
+        strings.add(version.getBytes(StandardCharsets.UTF_8));
+        Set<String> keys = stringMetadata(context);
+        for (String key : keys)
+            strings.add(key.getBytes(StandardCharsets.UTF_8));
+        int size = 8;
+        for (byte[] string : strings)
+            size += 4 + string.length;
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC);
+        header.putInt(strings.get(0).length);
+        header.put(strings.get(0));
+        header.putInt(keys.size());
+        for (byte[] string : strings.subList(1, strings.size())) {
+            header.putInt(string.length);
+            header.put(string);
+        }
+
+        Path tmp = Files.createTempFile(file.getParent(), "tree", ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(tmp)) {
+                stream.write(header.array());
+                TreeIoUtils.BinaryTreeSerializer serializer = TreeIoUtils.toBinary(context);
+                for (String key : keys)
+                    serializer.export(key, value -> (String) value);
+                serializer.writeTo(stream);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Read the tree stored in the given file, or return null if the file is not a valid
+     * tree file for the given version.
+     */
+    private static TreeContext read(Path file, String version) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC)
+                return null;
+            String stored = readString(buffer);
+            if (stored == null || !version.equals(stored))
+                return null;
+            int keys = buffer.getInt();
+            if (keys < 0 || keys > buffer.remaining())
+                return null;
+            MetadataUnserializers unserializers = new MetadataUnserializers();
+            for (int i = 0; i < keys; i++) {
+                String key = readString(buffer);
+                if (key == null)
+                    return null;
+                unserializers.add(key, value -> value);
+            }
+            return TreeIoUtils.fromBinary(new ByteBufferInputStream(buffer), unserializers);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining())
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining())
+                return -1;
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+    }
+}
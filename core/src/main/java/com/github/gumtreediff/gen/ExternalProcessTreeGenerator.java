@@ -28,23 +28,44 @@ import java.util.Arrays;
 public abstract class ExternalProcessTreeGenerator extends TreeGenerator {
 
     public String readStandardOutput(Reader r) throws IOException {
+        return processStandardOutput(r, output -> {
+            BufferedReader br = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8));
+            StringBuilder buf = new StringBuilder();
+            String line = null;
+            while ((line = br.readLine()) != null)
+                buf.append(line + System.lineSeparator());
+            return buf.toString();
+        });
+    }
+
+    /**
+     * Run the external process on the content of the provided reader, and give its standard
+     * output to the provided handler as it is produced, which avoids buffering it when the
+     * handler can consume a stream. A syntax exception is thrown if the process fails.
+     */
+    protected <T> T processStandardOutput(Reader r, OutputHandler<T> handler) throws IOException {
         // TODO avoid recreating file if supplied reader is already a file
         File f = dumpReaderInTempFile(r);
         ProcessBuilder b = new ProcessBuilder(getCommandLine(f.getAbsolutePath()));
         b.directory(f.getParentFile());
         Process p = b.start();
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder buf = new StringBuilder();
-            String line = null;
-            while ((line = br.readLine()) != null)
-                buf.append(line + System.lineSeparator());
+        try (InputStream output = p.getInputStream()) {
+            T result;
+            try {
+                result = handler.handle(output);
+            } catch (IOException | RuntimeException e) {
+                // An output that cannot be handled is usually the output of a failed process.
+                output.transferTo(OutputStream.nullOutputStream());
+                if (p.waitFor() != 0)
+                    throw new SyntaxException(this, r, e);
+                throw e;
+            }
             p.waitFor();
             if (p.exitValue() != 0)
                 throw new SyntaxException(this, r, null);
             r.close();
             p.destroy();
-            return buf.toString();
+            return result;
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         } finally {
@@ -69,4 +90,12 @@ public abstract class ExternalProcessTreeGenerator extends TreeGenerator {
     }
 
     protected abstract String[] getCommandLine(String file);
+
+    /**
+     * A consumer of the standard output of an external process.
+     */
+    @FunctionalInterface
+    public interface OutputHandler<T> {
+        T handle(InputStream output) throws IOException;
+    }
 }
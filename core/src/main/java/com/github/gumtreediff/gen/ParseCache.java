@@ -0,0 +1,263 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen;
+
+import com.github.gumtreediff.tree.ImmutableTree;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded and thread-safe cache of the trees produced by the tree generators, keyed by
+ * the id of the generator and the SHA-256 digest of the parsed content. Therefore, the same
+ * content is parsed only once, whatever the file it comes from.
+ *
+ * <p>The cached trees are shared between all the callers, and are therefore made of
+ * {@link ImmutableTree}. Callers that need to modify a tree must work on a deep copy.
+ * Each request returns a new context wrapping the shared tree and a copy of the context
+ * metadata, therefore the metadata of the returned contexts can be modified freely.
+ * When either the maximum number of entries or the maximum number of nodes is exceeded,
+ * the least recently used entries are evicted.
+ *
+ * @see TreeGenerators
+ */
+public class ParseCache {
+    private final int maxEntries;
+    private final long maxNodes;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long nodes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Instantiate a cache holding at most the given number of trees, and at most
+     * the given number of nodes in total.
+     */
+    public ParseCache(int maxEntries, long maxNodes) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("The maximum number of entries must be strictly positive.");
+        if (maxNodes < 1)
+            throw new IllegalArgumentException("The maximum number of nodes must be strictly positive.");
+        this.maxEntries = maxEntries;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Instantiate a cache holding at most the given number of trees.
+     */
+    public ParseCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Return the tree of the provided file, using the tree generator
+     * selected by the file extension.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeContext getTree(String file) throws UnsupportedOperationException, IOException {
+        return getTree(file, null);
+    }
+
+    /**
+     * Return the tree of the provided file, using the tree generator with the provided
+     * id, or the one selected by the file extension if the id is null.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeContext getTree(String file, String generator) throws UnsupportedOperationException, IOException {
+        TreeGenerators.Entry entry = (generator == null)
+                ? TreeGenerators.getInstance().find(file) : TreeGenerators.getInstance().findById(generator);
+        if (entry == null) {
+            if (generator == null)
+                throw new UnsupportedOperationException("No generator found for file: " + file);
+            else
+                throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
+        }
+        return getTree(entry, Files.readAllBytes(Paths.get(file)));
+    }
+
+    /**
+     * Return the tree of the provided UTF-8 encoded content, using the tree generator
+     * with the provided id.
+     *
+     * @throws UnsupportedOperationException if no suitable generator is found
+     */
+    public TreeContext getTree(byte[] content, String generator) throws UnsupportedOperationException, IOException {
+        TreeGenerators.Entry entry = TreeGenerators.getInstance().findById(generator);
+        if (entry == null)
+            throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
+        return getTree(entry, content);
+    }
+
+    private TreeContext getTree(TreeGenerators.Entry entry, byte[] content) throws IOException {
+        Key key = new Key(entry.id, digest(content));
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached.newContext();
+            }
+            misses++;
+        }
+
+        // The content is parsed outside the lock, so that the cache does not serialize parsing.
+        TreeContext parsed = entry.instantiate(null).generateFrom().stream(new ByteArrayInputStream(content));
+        Entry parsedEntry = new Entry(parsed);
+        synchronized (this) {
+            Entry concurrent = entries.putIfAbsent(key, parsedEntry);
+            if (concurrent != null)
+                return concurrent.newContext();
+            nodes += parsedEntry.size;
+            evict();
+            return parsedEntry.newContext();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && (entries.size() > maxEntries || nodes > maxNodes)) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            nodes -= eldest.getValue().size;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the platform.", e);
+        }
+    }
+
+    /**
+     * Remove all the trees from the cache. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        nodes = 0;
+    }
+
+    /**
+     * Return the number of trees in the cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Return the total number of nodes of the trees in the cache.
+     */
+    public synchronized long getNodeCount() {
+        return nodes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Return the ratio of requests served from the cache, or 0 if no request has been made.
+     */
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return (requests == 0) ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ParseCache[entries=%d, nodes=%d, hits=%d, misses=%d, evictions=%d]",
+                entries.size(), nodes, hits, misses, evictions);
+    }
+
+    /**
+     * A cached tree: its immutable root and a snapshot of the metadata of its context.
+     */
+    private static final class Entry {
+        private final ImmutableTree root;
+        private final Map<String, Object> metadata = new LinkedHashMap<>();
+        private final int size;
+
+        private Entry(TreeContext context) {
+            this.root = new ImmutableTree(context.getRoot());
+            for (Iterator<Map.Entry<String, Object>> it = context.getMetadata(); it.hasNext(); ) {
+                Map.Entry<String, Object> e = it.next();
+                metadata.put(e.getKey(), e.getValue());
+            }
+            this.size = root.getMetrics().size;
+        }
+
+        private TreeContext newContext() {
+            TreeContext context = new TreeContext();
+            context.setRoot(root);
+            metadata.forEach(context::setMetadata);
+            return context;
+        }
+    }
+
+    private static final class Key {
+        private final String generator;
+        private final byte[] digest;
+        private final int hash;
+
+        private Key(String generator, byte[] digest) {
+            this.generator = generator;
+            this.digest = digest;
+            this.hash = 31 * generator.hashCode() + Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return generator.equals(other.generator) && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
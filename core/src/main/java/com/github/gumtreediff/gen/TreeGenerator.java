@@ -41,6 +41,28 @@ public abstract class TreeGenerator {
         return generate(r);
     }
 
+    /**
+     * Generate the tree of the provided file, decoded using the provided charset. By default
+     * the file is read through a reader, generators that can load a file faster than through
+     * a reader can override this method.
+     */
+    protected TreeContext generateTree(Path path, Charset charset) throws IOException {
+        return generateTree(Files.newBufferedReader(path, charset));
+    }
+
+    /**
+     * Return the version of the tree generator. Trees produced by different versions
+     * of a generator might differ, for instance when persisted in a cache. By default, the
+     * implementation version of the generator package is used, or <code>unknown</code> when the
+     * generator is not loaded from a packaged jar.
+     *
+     * @see DiskTreeCache
+     */
+    public String getVersion() {
+        String version = getClass().getPackage().getImplementationVersion();
+        return (version == null) ? "unknown" : version;
+    }
+
     /**
      * Return a ReaderConfigurator that will allow the client to
      * configure and run the TreeGenerator.
@@ -87,7 +109,7 @@ public abstract class TreeGenerator {
          * @see Path
          */
         public TreeContext file(Path path) throws IOException {
-            return reader(Files.newBufferedReader(path, charset()));
+            return generateTree(path, charset());
         }
 
         /**
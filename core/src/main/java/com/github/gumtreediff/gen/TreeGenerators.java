@@ -26,7 +26,8 @@ import com.github.gumtreediff.utils.Registry;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Arrays;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -36,6 +37,11 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
 
     private static TreeGenerators registry;
 
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("\\\\\\.[\\w()|?*+\\[\\]]+\\$");
+
+    // Built lazily after each modification of the entries.
+    private volatile FileIndex fileIndex;
+
     /**
      * Return the tree generators registry instance (singleton pattern).
      */
@@ -69,9 +75,9 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
         if (generator == null)
             return getTree(file);
 
-        for (Entry e : entries)
-            if (e.id.equals(generator))
-                return e.instantiate(null).generateFrom().file(file);
+        Entry e = findById(generator);
+        if (e != null)
+            return e.instantiate(null).generateFrom().file(file);
 
         throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
     }
@@ -84,9 +90,9 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
      * @throws UnsupportedOperationException if no suitable generator is found
      */
     public TreeContext getTree(Reader stream, String generator) throws UnsupportedOperationException, IOException {
-        for (Entry e : entries)
-            if (e.id.equals(generator))
-                return e.instantiate(null).generateFrom().reader(stream);
+        Entry e = findById(generator);
+        if (e != null)
+            return e.instantiate(null).generateFrom().reader(stream);
 
         throw new UnsupportedOperationException("No generator \"" + generator + "\" found.");
     }
@@ -123,29 +129,146 @@ public class TreeGenerators extends Registry<String, TreeGenerator, Register> {
     }
 
     @Override
-    protected Entry newEntry(Class<? extends TreeGenerator> clazz, Register annotation) {
-        return new Entry(annotation.id(), clazz, defaultFactory(clazz), annotation.priority()) {
-            final Pattern[] accept;
-
-            {
-                String[] accept = annotation.accept();
-                this.accept = new Pattern[accept.length];
-                for (int i = 0; i < accept.length; i++)
-                    this.accept[i] = Pattern.compile(accept[i]);
-            }
+    public void install(Class<? extends TreeGenerator> clazz, Register annotation,
+                        Factory<? extends TreeGenerator> factory) {
+        super.install(clazz, annotation, factory);
+        fileIndex = null;
+    }
 
-            @Override
-            protected boolean handle(String key) {
-                for (Pattern pattern : accept)
-                    if (pattern.matcher(key).find())
-                        return true;
+    @Override
+    public void clear() {
+        super.clear();
+        fileIndex = null;
+    }
+
+    /**
+     * Return the generator of highest priority accepting the provided file path. The generators
+     * whose patterns only depend on the file extension are looked up in a cache indexed by
+     * extension, the other ones are matched against the path.
+     */
+    @Override
+    protected Entry findEntry(String file) {
+        FileIndex index = fileIndex;
+        if (index == null)
+            fileIndex = index = new FileIndex();
+        return index.find(file);
+    }
+
+    @Override
+    protected Entry newEntry(Class<? extends TreeGenerator> clazz, Register annotation,
+                             Factory<? extends TreeGenerator> factory) {
+        return new GeneratorEntry(clazz, annotation, factory);
+    }
+
+    /**
+     * Indicate whether the provided pattern is of the form \.X$ where X can only match letters,
+     * digits and underscores. Such a pattern matches a path if and only if it matches its extension.
+     */
+    static boolean isExtensionPattern(String regex) {
+        if (!EXTENSION_PATTERN.matcher(regex).matches() || "*?+".indexOf(regex.charAt(2)) >= 0)
+            return false;
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 2; i < regex.length() - 1; i++) {
+            char c = regex.charAt(i);
+            if (inClass) {
+                if (c == ']')
+                    inClass = false;
+                else if (c != '_' && !Character.isLetterOrDigit(c))
+                    return false;
+            } else if (c == '[')
+                inClass = true;
+            else if (c == '(')
+                depth++;
+            else if (c == ')' && --depth < 0)
                 return false;
+            else if (c == '|' && depth == 0)
+                return false; // An alternative would not be anchored.
+        }
+        return depth == 0 && !inClass;
+    }
+
+    private class GeneratorEntry extends Entry {
+        final Class<? extends TreeGenerator> generatorClass;
+        final Pattern[] accept;
+        final List<Pattern> extensionPatterns = new ArrayList<>();
+        final List<Pattern> pathPatterns = new ArrayList<>();
+
+        GeneratorEntry(Class<? extends TreeGenerator> clazz, Register annotation,
+                       Factory<? extends TreeGenerator> factory) {
+            super(annotation.id(), clazz, factory, annotation.priority());
+            this.generatorClass = clazz;
+            String[] accept = annotation.accept();
+            this.accept = new Pattern[accept.length];
+            for (int i = 0; i < accept.length; i++) {
+                this.accept[i] = Pattern.compile(accept[i]);
+                if (isExtensionPattern(accept[i]))
+                    extensionPatterns.add(this.accept[i]);
+                else
+                    pathPatterns.add(this.accept[i]);
             }
+        }
 
-            @Override
-            public String toString() {
-                return String.format("%d\t%s\t%s: %s", priority, id, Arrays.toString(accept), clazz.getCanonicalName());
+        @Override
+        protected boolean handle(String key) {
+            for (Pattern pattern : accept)
+                if (pattern.matcher(key).find())
+                    return true;
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d\t%s\t%s: %s", priority, id, Arrays.toString(accept),
+                    generatorClass.getCanonicalName());
+        }
+    }
+
+    /**
+     * A snapshot of the entries, caching the generator to use for each file extension.
+     */
+    private class FileIndex {
+        final List<GeneratorEntry> entries = new ArrayList<>();
+        final List<GeneratorEntry> pathEntries = new ArrayList<>();
+        final Map<String, Optional<GeneratorEntry>> byExtension = new ConcurrentHashMap<>();
+
+        FileIndex() {
+            for (Entry e : TreeGenerators.this.entries) {
+                GeneratorEntry entry = (GeneratorEntry) e;
+                entries.add(entry);
+                if (!entry.pathPatterns.isEmpty())
+                    pathEntries.add(entry);
             }
-        };
+        }
+
+        Entry find(String file) {
+            GeneratorEntry candidate = byExtension.computeIfAbsent(extension(file), this::findByExtension)
+                    .orElse(null);
+            for (GeneratorEntry entry : pathEntries) {
+                if (candidate != null && order.compare(entry, candidate) >= 0)
+                    break;
+                for (Pattern pattern : entry.pathPatterns)
+                    if (pattern.matcher(file).find())
+                        return entry;
+            }
+            return candidate;
+        }
+
+        Optional<GeneratorEntry> findByExtension(String extension) {
+            if (!extension.isEmpty())
+                for (GeneratorEntry entry : entries)
+                    for (Pattern pattern : entry.extensionPatterns)
+                        if (pattern.matcher(extension).find())
+                            return Optional.of(entry);
+            return Optional.empty();
+        }
+
+        // The extension with its dot, or the empty string if the file name has no dot.
+        String extension(String file) {
+            int dot = file.lastIndexOf('.');
+            if (dot < 0 || dot < file.lastIndexOf('/') || dot < file.lastIndexOf('\\'))
+                return "";
+            return file.substring(dot);
+        }
     }
 }
@@ -20,7 +20,9 @@
 
 package com.github.gumtreediff.io;
 
+import com.github.gumtreediff.actions.ActionSink;
 import com.github.gumtreediff.actions.EditScript;
+import com.github.gumtreediff.actions.EditScriptGenerator;
 import com.github.gumtreediff.actions.model.*;
 import com.github.gumtreediff.io.TreeIoUtils.AbstractSerializer;
 import com.github.gumtreediff.matchers.Mapping;
@@ -42,7 +44,18 @@ public final class ActionsIoUtils {
 
     public static ActionSerializer toText(TreeContext sctx, EditScript actions,
                                           MappingStore mappings) throws IOException {
-        return new ActionSerializer(sctx, mappings, actions) {
+        return toText(sctx, ms -> actions, mappings);
+    }
+
+    /**
+     * Returns a serializer writing the actions computed by the provided generator
+     * in a textual format, as soon as they are computed.
+     *
+     * @see EditScriptGenerator#computeActions(MappingStore, ActionSink)
+     */
+    public static ActionSerializer toText(TreeContext sctx, EditScriptGenerator generator,
+                                          MappingStore mappings) throws IOException {
+        return new ActionSerializer(sctx, mappings, generator) {
 
             @Override
             protected ActionFormatter newFormatter(TreeContext ctx, Writer writer) throws Exception {
@@ -53,7 +66,18 @@ public final class ActionsIoUtils {
 
     public static ActionSerializer toXml(TreeContext sctx, EditScript actions,
                                          MappingStore mappings) throws IOException {
-        return new ActionSerializer(sctx, mappings, actions) {
+        return toXml(sctx, ms -> actions, mappings);
+    }
+
+    /**
+     * Returns a serializer writing the actions computed by the provided generator
+     * in XML, as soon as they are computed.
+     *
+     * @see EditScriptGenerator#computeActions(MappingStore, ActionSink)
+     */
+    public static ActionSerializer toXml(TreeContext sctx, EditScriptGenerator generator,
+                                         MappingStore mappings) throws IOException {
+        return new ActionSerializer(sctx, mappings, generator) {
 
             @Override
             protected ActionFormatter newFormatter(TreeContext ctx, Writer writer) throws Exception {
@@ -64,7 +88,18 @@ public final class ActionsIoUtils {
 
     public static ActionSerializer toJson(TreeContext sctx, EditScript actions,
                                               MappingStore mappings) throws IOException {
-        return new ActionSerializer(sctx, mappings, actions) {
+        return toJson(sctx, ms -> actions, mappings);
+    }
+
+    /**
+     * Returns a serializer writing the actions computed by the provided generator
+     * in JSON, as soon as they are computed.
+     *
+     * @see EditScriptGenerator#computeActions(MappingStore, ActionSink)
+     */
+    public static ActionSerializer toJson(TreeContext sctx, EditScriptGenerator generator,
+                                          MappingStore mappings) throws IOException {
+        return new ActionSerializer(sctx, mappings, generator) {
 
             @Override
             protected ActionFormatter newFormatter(TreeContext ctx, Writer writer) throws Exception {
@@ -76,12 +111,12 @@ public final class ActionsIoUtils {
     public abstract static class ActionSerializer extends AbstractSerializer {
         final TreeContext context;
         final MappingStore mappings;
-        final EditScript actions;
+        final EditScriptGenerator generator;
 
-        ActionSerializer(TreeContext context, MappingStore mappings, EditScript actions) {
+        ActionSerializer(TreeContext context, MappingStore mappings, EditScriptGenerator generator) {
             this.context = context;
             this.mappings = mappings;
-            this.actions = actions;
+            this.generator = generator;
         }
 
         protected abstract ActionFormatter newFormatter(TreeContext ctx, Writer writer) throws Exception;
@@ -99,40 +134,60 @@ public final class ActionsIoUtils {
             }
             fmt.endMatches();
 
-            // Write the actions
+            // Write the actions, as soon as they are computed
             fmt.startActions();
-            for (Action a : actions) {
-                if (a instanceof Move) {
-                    Move m = (Move) a;
-                    fmt.moveAction(m, m.getNode(), m.getParent(), m.getPosition());
-                } else if (a instanceof Update) {
-                    Update u = (Update) a;
-                    Tree dst = mappings.getDstForSrc(u.getNode());
-                    fmt.updateAction(u, u.getNode(), dst);
-                } else if (a instanceof Insert) {
-                    Insert ins = (Insert) a;
-                    Tree dst = a.getNode();
-                    if (dst.isRoot())
-                        fmt.insertRoot(ins, ins.getNode());
-                    else
-                        fmt.insertAction(ins, ins.getNode(), ins.getParent(), ins.getPosition());
-                } else if (a instanceof Delete) {
-                    Delete del = (Delete) a;
-                    fmt.deleteAction(del, del.getNode());
-                } else if (a instanceof TreeInsert) {
-                    TreeInsert ins = (TreeInsert) a;
-                    fmt.insertTreeAction(ins, ins.getNode(), ins.getParent(), ins.getPosition());
-                } else if (a instanceof  TreeDelete) {
-                    TreeDelete del = (TreeDelete) a;
-                    fmt.deleteTreeAction(del, del.getNode());
-                }
-
+            try {
+                generator.computeActions(mappings, a -> {
+                    try {
+                        writeAction(fmt, a);
+                    } catch (Exception e) {
+                        throw new FormatterException(e);
+                    }
+                });
+            } catch (FormatterException e) {
+                throw (Exception) e.getCause();
             }
             fmt.endActions();
 
             // Finish up
             fmt.endOutput();
         }
+
+        private void writeAction(ActionFormatter fmt, Action a) throws Exception {
+            if (a instanceof Move) {
+                Move m = (Move) a;
+                fmt.moveAction(m, m.getNode(), m.getParent(), m.getPosition());
+            } else if (a instanceof Update) {
+                Update u = (Update) a;
+                Tree dst = mappings.getDstForSrc(u.getNode());
+                fmt.updateAction(u, u.getNode(), dst);
+            } else if (a instanceof Insert) {
+                Insert ins = (Insert) a;
+                Tree dst = a.getNode();
+                if (dst.isRoot())
+                    fmt.insertRoot(ins, ins.getNode());
+                else
+                    fmt.insertAction(ins, ins.getNode(), ins.getParent(), ins.getPosition());
+            } else if (a instanceof Delete) {
+                Delete del = (Delete) a;
+                fmt.deleteAction(del, del.getNode());
+            } else if (a instanceof TreeInsert) {
+                TreeInsert ins = (TreeInsert) a;
+                fmt.insertTreeAction(ins, ins.getNode(), ins.getParent(), ins.getPosition());
+            } else if (a instanceof  TreeDelete) {
+                TreeDelete del = (TreeDelete) a;
+                fmt.deleteTreeAction(del, del.getNode());
+            }
+        }
+    }
+
+    /**
+     * Carries the exceptions raised by a formatter through the action sink.
+     */
+    private static class FormatterException extends RuntimeException {
+        FormatterException(Exception cause) {
+            super(cause);
+        }
     }
 
     interface ActionFormatter {
@@ -0,0 +1,224 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the SHA-256 digests of file contents. A digest is reused as long as the size
+ * and the modification time of its file are unchanged, and recomputed otherwise. The files are
+ * read through memory-mapped buffers. The cache is thread-safe, and can be persisted in a file
+ * to be reused across runs.
+ *
+ * <p>The file is binary: a magic number, the number of entries, and then for each entry the
+ * size, the modification time, the digest and the path of the file. The path is written as
+ * its length followed by its UTF-8 bytes, so that any path (e.g. containing a line break) is
+ * stored unchanged.
+ *
+ * @see DirectoryComparator#setDigestCache(DigestCache)
+ */
+public class DigestCache {
+    // Mapping small files costs more than reading them.
+    static final int MAPPING_THRESHOLD = 64 * 1024;
+    static final long MAX_MAPPING = Integer.MAX_VALUE;
+
+    private static final int MAGIC = 0x47544443; // GTDC
+    private static final int DIGEST_LENGTH = 32;
+
+    private final Path file;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiate an in-memory cache.
+     */
+    public DigestCache() {
+        this.file = null;
+    }
+
+    /**
+     * Instantiate a cache persisted in the provided file, which is loaded if it exists.
+     * A malformed or truncated file is ignored, as if the cache was empty.
+     *
+     * @see #save()
+     */
+    public DigestCache(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file))
+            load();
+    }
+
+    public DigestCache(String file) throws IOException {
+        this(Paths.get(file));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Return the digest of the content of the provided file.
+     */
+    public byte[] getDigest(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        return getDigest(file, attrs.size(), attrs.lastModifiedTime().toMillis());
+    }
+
+    byte[] getDigest(Path file, long size, long lastModified) throws IOException {
+        String key = file.toAbsolutePath().normalize().toString();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.size == size && entry.lastModified == lastModified)
+            return entry.digest;
+
+        byte[] digest = digest(file, size);
+        entries.put(key, new Entry(size, lastModified, digest));
+        return digest;
+    }
+
+    /**
+     * Write the cache in its file, atomically when the file system allows it.
+     *
+     * @throws IllegalStateException if the cache is in-memory
+     */
+    public void save() throws IOException {
+        if (file == null)
+            throw new IllegalStateException("The cache is not persisted in a file.");
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                // A snapshot, since the entries might change while being written.
+                Map<String, Entry> snapshot = new HashMap<>(entries);
+                out.writeInt(MAGIC);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> e : snapshot.entrySet()) {
+                    Entry entry = e.getValue();
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.lastModified);
+                    out.write(entry.digest);
+                    byte[] path = e.getKey().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(path.length);
+                    out.write(path);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void load() throws IOException {
+        long length = Files.size(file);
+        Map<String, Entry> loaded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (length < 8 || in.readInt() != MAGIC)
+                return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final long size = in.readLong();
+                final long lastModified = in.readLong();
+                byte[] digest = new byte[DIGEST_LENGTH];
+                in.readFully(digest);
+                int pathLength = in.readInt();
+                if (pathLength < 0 || pathLength > length)
+                    return;
+                byte[] path = new byte[pathLength];
+                in.readFully(path);
+                loaded.put(new String(path, StandardCharsets.UTF_8), new Entry(size, lastModified, digest));
+            }
+        } catch (EOFException e) {
+            return; // A truncated file.
+        }
+        entries.putAll(loaded);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DigestCache[file=%s, entries=%d]", file, entries.size());
+    }
+
+    private static byte[] digest(Path file, long size) throws IOException {
+        MessageDigest md = newDigest();
+        if (size < MAPPING_THRESHOLD)
+            md.update(Files.readAllBytes(file));
+        else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                for (long position = 0; position < size; position += MAX_MAPPING)
+                    md.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(MAX_MAPPING, size - position)));
+            }
+        }
+        return md.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-256 is available on every JVM.
+        }
+    }
+
+    private static final class Entry {
+        final long size;
+        final long lastModified;
+        final byte[] digest;
+
+        Entry(long size, long lastModified, byte[] digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+}
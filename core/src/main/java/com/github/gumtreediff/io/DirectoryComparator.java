@@ -23,13 +23,23 @@ package com.github.gumtreediff.io;
 import com.github.gumtreediff.utils.Pair;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compare two folders (or two files) to find the added, deleted and modified files.
+ * Common files of different sizes are considered as modified without reading them,
+ * other ones are compared through memory-mapped buffers, or through their digests
+ * when a {@link DigestCache} is provided. By default, both folders are walked in parallel
+ * and the common files are compared in parallel.
+ */
 public class DirectoryComparator {
 
     private Path src;
@@ -44,6 +54,12 @@ public class DirectoryComparator {
 
     private boolean dirMode = true;
 
+    private boolean parallel = true;
+
+    private boolean trustModificationTimes = false;
+
+    private DigestCache digestCache;
+
     public DirectoryComparator(String src, String dst) {
         this.src = Paths.get(src);
         this.dst = Paths.get(dst);
@@ -77,33 +93,103 @@ public class DirectoryComparator {
         AllFilesVisitor vSrc = new AllFilesVisitor(src);
         AllFilesVisitor vDst = new AllFilesVisitor(dst);
         try {
-            Files.walkFileTree(src, vSrc);
-            Files.walkFileTree(dst, vDst);
+            walk(vSrc, vDst);
 
             Set<String> addedFiles = new HashSet<>();
-            addedFiles.addAll(vDst.files);
-            addedFiles.removeAll(vSrc.files);
+            addedFiles.addAll(vDst.files.keySet());
+            addedFiles.removeAll(vSrc.files.keySet());
             for (String file : addedFiles)
                 this.addedFiles.add(toDstFile(file));
 
             Set<String> deletedFiles = new HashSet<>();
-            deletedFiles.addAll(vSrc.files);
-            deletedFiles.removeAll(vDst.files);
+            deletedFiles.addAll(vSrc.files.keySet());
+            deletedFiles.removeAll(vDst.files.keySet());
             for (String file : deletedFiles)
                 this.deletedFiles.add(toSrcFile(file));
 
-            Set<String> commonFiles = new HashSet<>();
-            commonFiles.addAll(vSrc.files);
-            commonFiles.retainAll(vDst.files);
-
-            for (String file : commonFiles)
-                if (hasChanged(file, file))
-                    modifiedFiles.add(new Pair<>(toSrcFile(file), toDstFile(file)));
+            List<String> commonFiles = new ArrayList<>(vSrc.files.keySet());
+            commonFiles.retainAll(vDst.files.keySet());
+            Collections.sort(commonFiles);
+
+            Stream<String> commonStream = parallel ? commonFiles.parallelStream() : commonFiles.stream();
+            List<String> changedFiles = commonStream.filter(file -> {
+                try {
+                    return hasChanged(toSrcFile(file).toPath(), vSrc.files.get(file),
+                            toDstFile(file).toPath(), vDst.files.get(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+            for (String file : changedFiles)
+                modifiedFiles.add(new Pair<>(toSrcFile(file), toDstFile(file)));
         } catch (IOException e) {
             e.printStackTrace();
+        } catch (UncheckedIOException e) {
+            e.getCause().printStackTrace();
         }
     }
 
+    private void walk(AllFilesVisitor vSrc, AllFilesVisitor vDst) throws IOException {
+        if (!parallel) {
+            Files.walkFileTree(src, vSrc);
+            Files.walkFileTree(dst, vDst);
+            return;
+        }
+
+        ForkJoinTask<?> dstWalk = ForkJoinPool.commonPool().submit(() -> {
+            Files.walkFileTree(dst, vDst);
+            return null;
+        });
+        try {
+            Files.walkFileTree(src, vSrc);
+            dstWalk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while walking " + dst);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Walk both folders and compare their common files in parallel (the default) or not.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isTrustingModificationTimes() {
+        return trustModificationTimes;
+    }
+
+    /**
+     * Consider files with the same size and the same modification time as unchanged
+     * without reading them. Disabled by default since copying a folder might not
+     * preserve modification times, and modification times might be too coarse.
+     */
+    public void setTrustModificationTimes(boolean trustModificationTimes) {
+        this.trustModificationTimes = trustModificationTimes;
+    }
+
+    public DigestCache getDigestCache() {
+        return digestCache;
+    }
+
+    /**
+     * Compare files of the same size through their digests, retrieved from the provided
+     * cache, rather than through their contents. It pays off when the same folders are
+     * compared many times, for instance with a cache persisted across runs.
+     */
+    public void setDigestCache(DigestCache digestCache) {
+        this.digestCache = digestCache;
+    }
+
     public Path getSrc() {
         return src;
     }
@@ -153,29 +239,54 @@ public class DirectoryComparator {
     }
 
     public boolean hasChanged(String s1, String s2) throws IOException {
-        File f1 = toSrcFile(s1);
-        File f2 = toDstFile(s2);
-        long l1 = Files.size(f1.toPath());
-        long l2 = Files.size(f2.toPath());
-        if (l1 != l2)
+        Path f1 = toSrcFile(s1).toPath();
+        Path f2 = toDstFile(s2).toPath();
+        return hasChanged(f1, new FileStamp(Files.readAttributes(f1, BasicFileAttributes.class)),
+                f2, new FileStamp(Files.readAttributes(f2, BasicFileAttributes.class)));
+    }
+
+    private boolean hasChanged(Path f1, FileStamp s1, Path f2, FileStamp s2) throws IOException {
+        if (s1.size != s2.size)
             return true;
-        else {
-            try (InputStream dis1 = new BufferedInputStream(new FileInputStream(f1));
-                    InputStream dis2 = new BufferedInputStream(new FileInputStream(f2))) {
-                int c1, c2;
-                while ((c1 = dis1.read()) != -1) {
-                    c2 = dis2.read();
-                    if (c1 != c2)
-                        return true;
-                }
-                return false;
+        if (s1.size == 0)
+            return false;
+        if (trustModificationTimes && s1.lastModified == s2.lastModified)
+            return false;
+        if (digestCache != null)
+            return !Arrays.equals(digestCache.getDigest(f1, s1.size, s1.lastModified),
+                    digestCache.getDigest(f2, s2.size, s2.lastModified));
+        return !haveSameContent(f1, f2, s1.size);
+    }
+
+    private static boolean haveSameContent(Path f1, Path f2, long size) throws IOException {
+        if (size < DigestCache.MAPPING_THRESHOLD)
+            return Arrays.equals(Files.readAllBytes(f1), Files.readAllBytes(f2));
+
+        try (FileChannel c1 = FileChannel.open(f1, StandardOpenOption.READ);
+                FileChannel c2 = FileChannel.open(f2, StandardOpenOption.READ)) {
+            for (long position = 0; position < size; position += DigestCache.MAX_MAPPING) {
+                long length = Math.min(DigestCache.MAX_MAPPING, size - position);
+                if (!c1.map(FileChannel.MapMode.READ_ONLY, position, length)
+                        .equals(c2.map(FileChannel.MapMode.READ_ONLY, position, length)))
+                    return false;
             }
+            return true;
+        }
+    }
+
+    private static final class FileStamp {
+        final long size;
+        final long lastModified;
+
+        FileStamp(BasicFileAttributes attrs) {
+            this.size = attrs.size();
+            this.lastModified = attrs.lastModifiedTime().toMillis();
         }
     }
 
     public static class AllFilesVisitor extends SimpleFileVisitor<Path> {
 
-        private Set<String> files = new HashSet<>();
+        private Map<String, FileStamp> files = new HashMap<>();
 
         private Path root;
 
@@ -186,7 +297,7 @@ public class DirectoryComparator {
         @Override
         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
             if (!file.getFileName().startsWith("."))
-                files.add(root.relativize(file).toString());
+                files.put(root.relativize(file).toString(), new FileStamp(attrs));
             return FileVisitResult.CONTINUE;
         }
 
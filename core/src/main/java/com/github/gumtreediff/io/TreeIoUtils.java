@@ -27,6 +27,9 @@ import com.github.gumtreediff.tree.*;
 import com.github.gumtreediff.tree.TreeContext.MetadataSerializers;
 import com.github.gumtreediff.tree.TreeContext.MetadataUnserializers;
 import com.google.gson.stream.JsonWriter;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.*;
@@ -40,8 +43,12 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicLong;
@@ -170,6 +177,40 @@ public final class TreeIoUtils {
         };
     }
 
+    /**
+     * Return a serializer to the compact binary format.
+     *
+     * @see BinaryTreeSerializer
+     */
+    public static BinaryTreeSerializer toBinary(TreeContext ctx) {
+        return toBinary(ctx, ctx.getRoot());
+    }
+
+    public static BinaryTreeSerializer toBinary(TreeContext ctx, Tree root) {
+        return new BinaryTreeSerializer(ctx, root);
+    }
+
+    /**
+     * Read a tree context serialized in the compact binary format. Only the
+     * metadata having an unserializer in the provided unserializers are loaded.
+     * Exactly the bytes of the tree are consumed and the stream is not closed, so that
+     * several trees can be read from the same stream, which should then be buffered.
+     *
+     * @see BinaryTreeSerializer
+     */
+    public static TreeContext fromBinary(InputStream stream, MetadataUnserializers unserializers)
+            throws IOException {
+        return new BinaryTreeReader(stream, unserializers).read();
+    }
+
+    public static TreeContext fromBinary(InputStream stream) throws IOException {
+        return fromBinary(stream, new MetadataUnserializers());
+    }
+
+    public static TreeContext fromBinary(byte[] content) throws IOException {
+        return fromBinary(new ByteArrayInputStream(content));
+    }
+
     public abstract static class AbstractSerializer {
 
         public abstract void writeTo(Writer writer) throws Exception;
@@ -749,6 +790,306 @@ public final class TreeIoUtils {
         }
     }
 
+    /**
+     * A serializer to a compact binary format, meant to exchange trees between processes.
+     * The trees are written in pre-order while being traversed. Strings (types, labels and
+     * metadata) are written once, and then referenced by their index in the order of their
+     * first occurrence. Integers are written as variable-length quantities.
+     *
+     * <p>The layout is the magic bytes <code>GTB</code>, the format version, the exported
+     * metadata of the context, then for each node: its type, label, position, length, exported
+     * metadata and number of children. Since this format is binary, it can only be written to
+     * byte streams.
+     *
+     * @see #fromBinary(InputStream, MetadataUnserializers)
+     */
+    public static class BinaryTreeSerializer extends TreeSerializer {
+        private final Tree root;
+
+        public BinaryTreeSerializer(TreeContext ctx, Tree root) {
+            super(ctx, root);
+            this.root = root;
+        }
+
+        @Override
+        public BinaryTreeSerializer export(String name, MetadataSerializer serializer) {
+            super.export(name, serializer);
+            return this;
+        }
+
+        @Override
+        public BinaryTreeSerializer export(String... name) {
+            super.export(name);
+            return this;
+        }
+
+        @Override
+        protected TreeFormatter newFormatter(TreeContext ctx, MetadataSerializers serializers, Writer writer) {
+            throw new UnsupportedOperationException("The binary format can only be written to an output stream.");
+        }
+
+        @Override
+        public void writeTo(Writer writer) {
+            throw new UnsupportedOperationException("The binary format can only be written to an output stream.");
+        }
+
+        /**
+         * Write the tree to the provided stream, which is flushed but not closed.
+         */
+        @Override
+        public void writeTo(OutputStream stream) throws Exception {
+            BinaryFormatter formatter = new BinaryFormatter(stream);
+            writeTree(formatter, root);
+            formatter.close();
+        }
+
+        @Override
+        public void writeTo(String file) throws Exception {
+            try (OutputStream stream = Files.newOutputStream(Paths.get(file))) {
+                writeTo(stream);
+            }
+        }
+
+        @Override
+        public void writeTo(File file) throws Exception {
+            try (OutputStream stream = Files.newOutputStream(file.toPath())) {
+                writeTo(stream);
+            }
+        }
+
+        public byte[] toByteArray() {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            try {
+                writeTo(stream);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return stream.toByteArray();
+        }
+
+        @Override
+        public String toString() {
+            return Base64.getEncoder().encodeToString(toByteArray());
+        }
+    }
+
+    static final byte[] BINARY_MAGIC = {'G', 'T', 'B'};
+    static final int BINARY_VERSION = 1;
+
+    static class BinaryFormatter extends TreeFormatterAdapter {
+        private final OutputStream stream;
+        private final byte[] buffer = new byte[8192];
+        private int count = 0;
+
+        private final Object2IntMap<String> strings = new Object2IntOpenHashMap<>();
+        // The metadata of the current node (or of the context), written with the node.
+        private final List<String> attributes = new ArrayList<>();
+
+        BinaryFormatter(OutputStream stream) {
+            super(null);
+            this.stream = stream;
+        }
+
+        @Override
+        public void startSerialization() throws IOException {
+            for (byte b : BINARY_MAGIC)
+                writeByte(b);
+            writeVarInt(BINARY_VERSION);
+        }
+
+        @Override
+        public void endProlog() throws IOException {
+            writeAttributes();
+        }
+
+        @Override
+        public void startTree(Tree tree) {
+            attributes.clear();
+        }
+
+        @Override
+        public void serializeAttribute(String name, String value) {
+            attributes.add(name);
+            attributes.add(value);
+        }
+
+        @Override
+        public void endTreeProlog(Tree tree) throws IOException {
+            writeString(tree.getType().name);
+            writeString(tree.getLabel());
+            writeVarInt(zigzag(tree.getPos()));
+            writeVarInt(zigzag(tree.getLength()));
+            writeAttributes();
+            writeVarInt(tree.getChildren().size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.write(buffer, 0, count);
+            count = 0;
+            stream.flush();
+        }
+
+        private void writeAttributes() throws IOException {
+            writeVarInt(attributes.size() / 2);
+            for (String s : attributes)
+                writeString(s);
+            attributes.clear();
+        }
+
+        private void writeString(String s) throws IOException {
+            int index = strings.getOrDefault(s, -1);
+            if (index == -1) {
+                strings.put(s, strings.size());
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(0);
+                writeVarInt(bytes.length);
+                for (byte b : bytes)
+                    writeByte(b);
+            }
+            else
+                writeVarInt(index + 1);
+        }
+
+        private static int zigzag(int value) {
+            return (value << 1) ^ (value >> 31);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        private void writeByte(int b) throws IOException {
+            if (count == buffer.length) {
+                stream.write(buffer, 0, count);
+                count = 0;
+            }
+            buffer[count++] = (byte) b;
+        }
+    }
+
+    static class BinaryTreeReader {
+        private static final int CHUNK_SIZE = 8192;
+
+        private final InputStream stream;
+        private final MetadataUnserializers unserializers;
+
+        private final List<String> strings = new ArrayList<>();
+
+        BinaryTreeReader(InputStream stream, MetadataUnserializers unserializers) {
+            this.stream = stream;
+            this.unserializers = unserializers;
+        }
+
+        TreeContext read() throws IOException {
+            for (byte b : BINARY_MAGIC)
+                if (readByte() != b)
+                    throw new IOException("Not a binary tree stream.");
+            int version = readVarInt();
+            if (version != BINARY_VERSION)
+                throw new IOException("Unsupported binary tree version: " + version);
+
+            TreeContext context = new TreeContext();
+            int attributes = readVarInt();
+            for (int i = 0; i < attributes; i++) {
+                String key = readString();
+                String value = readString();
+                MetadataUnserializer unserializer = unserializers.get(key);
+                if (unserializer != null)
+                    context.setMetadata(key, unserializer.fromString(value));
+            }
+
+            // The nodes still expecting children, with their number of missing children.
+            ArrayDeque<Tree> parents = new ArrayDeque<>();
+            IntArrayList remaining = new IntArrayList();
+            while (true) {
+                Tree t = context.createTree(type(readString()), readString());
+                t.setPos(unzigzag(readVarInt()));
+                t.setLength(unzigzag(readVarInt()));
+                attributes = readVarInt();
+                for (int i = 0; i < attributes; i++)
+                    loadAttribute(t, readString(), readString());
+                int children = readVarInt();
+
+                if (parents.isEmpty())
+                    context.setRoot(t);
+                else {
+                    t.setParentAndUpdateChildren(parents.peek());
+                    int last = remaining.size() - 1;
+                    int missing = remaining.getInt(last) - 1;
+                    if (missing == 0) {
+                        parents.pop();
+                        remaining.removeInt(last);
+                    }
+                    else
+                        remaining.set(last, missing);
+                }
+                if (children > 0) {
+                    parents.push(t);
+                    remaining.add(children);
+                }
+                if (parents.isEmpty())
+                    return context; // The last node of the tree has been read.
+            }
+        }
+
+        private void loadAttribute(Tree t, String key, String value) throws IOException {
+            try {
+                unserializers.load(t, key, value);
+            } catch (Exception e) {
+                throw new IOException("Unable to load metadata: " + key, e);
+            }
+        }
+
+        private String readString() throws IOException {
+            int index = readVarInt();
+            if (index > 0) {
+                if (index > strings.size())
+                    throw new IOException("Invalid string reference: " + index);
+                return strings.get(index - 1);
+            }
+            int length = readVarInt();
+            if (length < 0)
+                throw new IOException("Invalid string length: " + length);
+            // The array grows progressively, so that a corrupted length cannot exhaust the memory.
+            byte[] bytes = new byte[Math.min(length, CHUNK_SIZE)];
+            for (int i = 0; i < length; i++) {
+                if (i == bytes.length)
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+                bytes[i] = (byte) readByte();
+            }
+            String s = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(s);
+            return s;
+        }
+
+        private static int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IOException("Malformed variable-length integer.");
+        }
+
+        private int readByte() throws IOException {
+            int b = stream.read();
+            if (b == -1)
+                throw new EOFException("Unexpected end of binary tree stream.");
+            return b;
+        }
+    }
+
     @Register(id = "xml", accept = "\\.gxml$")
     // TODO Since it is not in the right package, I'm not even sure it is visible in the registry
     // TODO should we move this class elsewhere (another package)
@@ -21,6 +21,7 @@
 package com.github.gumtreediff.matchers;
 
 import java.util.*;
+import java.util.function.BiFunction;
 
 import com.github.gumtreediff.utils.Registry;
 import com.github.gumtreediff.matchers.heuristic.IdMatcher;
@@ -37,6 +38,8 @@ import com.github.gumtreediff.matchers.optimizations.LcsOptMatcherThetaB;
 import com.github.gumtreediff.matchers.optimizations.LeafMoveMatcherThetaE;
 import com.github.gumtreediff.matchers.optimizations.UnmappedLeavesMatcherThetaC;
 import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.utils.PhaseListener;
+import com.github.gumtreediff.utils.PhaseStatistics;
 
 /**
  * A class defining the CompositeMatcher class, which is a pipeline of matchers.
@@ -46,14 +49,47 @@ public class CompositeMatchers {
     public static class CompositeMatcher implements ConfigurableMatcher {
         protected final Matcher[] matchers;
 
+        private BiFunction<Tree, Tree, MappingStore> mappingStoreFactory = MappingStore::new;
+
         public CompositeMatcher(Matcher... matchers) {
             this.matchers = matchers;
         }
 
+        /**
+         * Set the function used to create the mapping store when no mapping store
+         * is provided, such as <code>IndexedMappingStore::new</code>.
+         *
+         * @see #match(Tree, Tree)
+         */
+        public void setMappingStoreFactory(BiFunction<Tree, Tree, MappingStore> mappingStoreFactory) {
+            this.mappingStoreFactory = mappingStoreFactory;
+        }
+
+        @Override
+        public MappingStore newMappingStore(Tree src, Tree dst) {
+            return mappingStoreFactory.apply(src, dst);
+        }
+
         @Override
         public MappingStore match(Tree src, Tree dst, MappingStore mappings) {
-            for (Matcher matcher : matchers)
+            return match(src, dst, mappings, PhaseListener.NONE);
+        }
+
+        /**
+         * Match the given trees, reporting to the given listener the resources consumed
+         * by each sub-matcher, in a phase named after the sub-matcher class. No resource
+         * is measured for {@link PhaseListener#NONE}.
+         */
+        public MappingStore match(Tree src, Tree dst, MappingStore mappings, PhaseListener listener) {
+            for (Matcher matcher : matchers) {
+                if (listener == PhaseListener.NONE) {
+                    mappings = matcher.match(src, dst, mappings);
+                    continue;
+                }
+                PhaseStatistics.Probe probe = PhaseStatistics.start(matcher.getClass().getSimpleName());
                 mappings = matcher.match(src, dst, mappings);
+                listener.phaseCompleted(probe.stop());
+            }
 
             return mappings;
         }
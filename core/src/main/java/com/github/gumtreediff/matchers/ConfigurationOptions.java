@@ -50,6 +50,20 @@ public enum ConfigurationOptions {
      */
     st_priocalc,
 
+    /**
+     * Property defining whether subtree matchers group identical subtrees using
+     * their 64-bit hashcodes rather than the 32-bit ones. It has a boolean value.
+     * @see com.github.gumtreediff.matchers.heuristic.gt.AbstractSubtreeMatcher
+     */
+    st_longhash,
+
+    /**
+     * Property defining whether subtree matchers verify that subtrees sharing
+     * the same hashcode are isomorphic before mapping them. It has a boolean value.
+     * @see com.github.gumtreediff.matchers.heuristic.gt.AbstractSubtreeMatcher
+     */
+    st_verifyiso,
+
     /**
      * Property defining the minimum label similarity threshold in change distiller
      * matcher to have a match between two nodes. It has a double value.
@@ -82,6 +82,23 @@ public class GumtreeProperties {
         return value;
     }
 
+    public boolean tryConfigure(ConfigurationOptions propertyName, boolean value) {
+        return tryConfigure(propertyName.name(), value);
+    }
+
+    private boolean tryConfigure(String propertyName, boolean value) {
+        Object property = setIfNotPresent(propertyName, value);
+        if (property != null) {
+            if (property.toString().equalsIgnoreCase("true"))
+                return true;
+            else if (property.toString().equalsIgnoreCase("false"))
+                return false;
+            else
+                throw new IllegalArgumentException("Not a boolean value: " + property);
+        }
+        return value;
+    }
+
     public double tryConfigure(ConfigurationOptions propertyName, double value) {
         return tryConfigure(propertyName.name(), value);
     }
@@ -0,0 +1,219 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers;
+
+import java.util.*;
+
+import com.github.gumtreediff.tree.Tree;
+
+/**
+ * Mapping store that identifies the nodes of the source and destination ASTs
+ * using their dense post-order position (as computed in their metrics).
+ * Internally, the mappings are stored via two arrays of integers, making
+ * lookups free of any hashing.
+ * The nodes given to this mapping store must belong to its source and destination ASTs,
+ * and these ASTs must not be modified while the mapping store is in use.
+ *
+ * @see com.github.gumtreediff.tree.TreeMetrics#position
+ */
+public class IndexedMappingStore extends MappingStore {
+    private static final int NO_MAPPING = -1;
+
+    private final Tree[] srcNodes;
+    private final Tree[] dstNodes;
+
+    private final int srcOffset;
+    private final int dstOffset;
+
+    private final int[] srcToDst;
+    private final int[] dstToSrc;
+
+    private int size;
+
+    /**
+     * Instantiate a mapping store using the mappings of the provided
+     * mapping store.
+     * The references to the source and destination AST are also copied
+     * from the provided mapping store.
+     */
+    public IndexedMappingStore(IndexedMappingStore ms) {
+        super(ms.src, ms.dst);
+        srcNodes = ms.srcNodes;
+        dstNodes = ms.dstNodes;
+        srcOffset = ms.srcOffset;
+        dstOffset = ms.dstOffset;
+        srcToDst = ms.srcToDst.clone();
+        dstToSrc = ms.dstToSrc.clone();
+        size = ms.size;
+    }
+
+    /**
+     * Instantiate a new empty mapping store between the provided
+     * source and destination AST.
+     */
+    public IndexedMappingStore(Tree src, Tree dst) {
+        super(src, dst);
+        srcNodes = indexNodes(src);
+        dstNodes = indexNodes(dst);
+        srcOffset = firstPosition(src);
+        dstOffset = firstPosition(dst);
+        srcToDst = new int[srcNodes.length];
+        dstToSrc = new int[dstNodes.length];
+        Arrays.fill(srcToDst, NO_MAPPING);
+        Arrays.fill(dstToSrc, NO_MAPPING);
+    }
+
+    private static int firstPosition(Tree root) {
+        return root.getMetrics().position - root.getMetrics().size + 1;
+    }
+
+    private static Tree[] indexNodes(Tree root) {
+        Tree[] nodes = new Tree[root.getMetrics().size];
+        int offset = firstPosition(root);
+        for (Tree t : root.postOrder())
+            nodes[t.getMetrics().position - offset] = t;
+        return nodes;
+    }
+
+    private int srcIndex(Tree t) {
+        int i = t.getMetrics().position - srcOffset;
+        if (i >= 0 && i < srcNodes.length && t.equals(srcNodes[i]))
+            return i;
+        return NO_MAPPING;
+    }
+
+    private int dstIndex(Tree t) {
+        int i = t.getMetrics().position - dstOffset;
+        if (i >= 0 && i < dstNodes.length && t.equals(dstNodes[i]))
+            return i;
+        return NO_MAPPING;
+    }
+
+    private int checkedSrcIndex(Tree t) {
+        int i = srcIndex(t);
+        if (i == NO_MAPPING)
+            throw new IllegalArgumentException("Node is not part of the source AST: " + t);
+        return i;
+    }
+
+    private int checkedDstIndex(Tree t) {
+        int i = dstIndex(t);
+        if (i == NO_MAPPING)
+            throw new IllegalArgumentException("Node is not part of the destination AST: " + t);
+        return i;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Mapping> asSet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Mapping> iterator() {
+                return new Iterator<>() {
+                    int next = nextMapped(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < srcToDst.length;
+                    }
+
+                    @Override
+                    public Mapping next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        Mapping m = new Mapping(srcNodes[next], dstNodes[srcToDst[next]]);
+                        next = nextMapped(next + 1);
+                        return m;
+                    }
+
+                    private int nextMapped(int from) {
+                        while (from < srcToDst.length && srcToDst[from] == NO_MAPPING)
+                            from++;
+                        return from;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public void addMapping(Tree src, Tree dst) {
+        int s = checkedSrcIndex(src);
+        int d = checkedDstIndex(dst);
+        if (srcToDst[s] == NO_MAPPING)
+            size++;
+        srcToDst[s] = d;
+        dstToSrc[d] = s;
+    }
+
+    @Override
+    public void removeMapping(Tree src, Tree dst) {
+        int s = srcIndex(src);
+        if (s != NO_MAPPING && srcToDst[s] != NO_MAPPING) {
+            srcToDst[s] = NO_MAPPING;
+            size--;
+        }
+        int d = dstIndex(dst);
+        if (d != NO_MAPPING)
+            dstToSrc[d] = NO_MAPPING;
+    }
+
+    @Override
+    public Tree getDstForSrc(Tree src) {
+        int s = srcIndex(src);
+        if (s == NO_MAPPING || srcToDst[s] == NO_MAPPING)
+            return null;
+        return dstNodes[srcToDst[s]];
+    }
+
+    @Override
+    public Tree getSrcForDst(Tree dst) {
+        int d = dstIndex(dst);
+        if (d == NO_MAPPING || dstToSrc[d] == NO_MAPPING)
+            return null;
+        return srcNodes[dstToSrc[d]];
+    }
+
+    @Override
+    public boolean isSrcMapped(Tree src) {
+        int s = srcIndex(src);
+        return s != NO_MAPPING && srcToDst[s] != NO_MAPPING;
+    }
+
+    @Override
+    public boolean isDstMapped(Tree dst) {
+        int d = dstIndex(dst);
+        return d != NO_MAPPING && dstToSrc[d] != NO_MAPPING;
+    }
+
+    @Override
+    public boolean has(Tree src, Tree dst) {
+        return dst.equals(getDstForSrc(src));
+    }
+}
@@ -29,6 +29,7 @@ import com.github.gumtreediff.tree.Tree;
  * Internally, the mappings are stored via two hashmaps.
  *
  * @see Tree
+ * @see IndexedMappingStore
  */
 public class MappingStore implements Iterable<Mapping> {
     /**
@@ -220,7 +221,7 @@ public class MappingStore implements Iterable<Mapping> {
      * destination nodes.
      */
     public boolean has(Tree src, Tree dst) {
-        return srcToDst.get(src) == dst;
+        return dst.equals(srcToDst.get(src));
     }
 
     @Override
@@ -47,6 +47,17 @@ public interface Matcher extends Configurable {
      * @see #match(Tree, Tree, MappingStore) 
      */
     default MappingStore match(Tree src, Tree dst) {
-        return match(src, dst, new MappingStore(src, dst));
+        return match(src, dst, newMappingStore(src, dst));
+    }
+
+    /**
+     * Return a new empty mapping store between the provided src and dst AST,
+     * used by {@link #match(Tree, Tree)}. Matchers can override this method
+     * to select another mapping store implementation.
+     *
+     * @see IndexedMappingStore
+     */
+    default MappingStore newMappingStore(Tree src, Tree dst) {
+        return new MappingStore(src, dst);
     }
 }
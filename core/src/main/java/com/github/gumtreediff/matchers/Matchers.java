@@ -77,19 +77,19 @@ public class Matchers extends Registry<String, Matcher, Register> {
     }
 
     @Override
-    public void install(Class<? extends Matcher> clazz, Register a) {
+    public void install(Class<? extends Matcher> clazz, Register a, Factory<? extends Matcher> factory) {
         if (a == null)
             throw new IllegalArgumentException("Expecting @Register annotation on " + clazz.getName());
         if (defaultMatcherFactory == null) {
-            defaultMatcherFactory = defaultFactory(clazz);
+            defaultMatcherFactory = factory;
             lowestPriority = a.priority();
         }
         else if (a.priority() < lowestPriority) {
-            defaultMatcherFactory = defaultFactory(clazz);
+            defaultMatcherFactory = factory;
             lowestPriority = a.priority();
         }
 
-        super.install(clazz, a);
+        super.install(clazz, a, factory);
     }
 
     @Override
@@ -98,14 +98,20 @@ public class Matchers extends Registry<String, Matcher, Register> {
         defaultMatcherFactory = null;
     }
 
+    @Override
+    protected Entry findEntry(String id) {
+        return findById(id);
+    }
+
     protected String getName(Register annotation, Class<? extends Matcher> clazz) {
         return annotation.id();
     }
 
     @Override
-    protected Entry newEntry(Class<? extends Matcher> clazz, Register annotation) {
+    protected Entry newEntry(Class<? extends Matcher> clazz, Register annotation,
+                             Factory<? extends Matcher> factory) {
         return new Entry(annotation.id(), clazz,
-                defaultFactory(clazz), annotation.priority()) {
+                factory, annotation.priority()) {
 
             @Override
             protected boolean handle(String key) {
@@ -21,30 +21,27 @@ package com.github.gumtreediff.matchers;
 
 import com.github.gumtreediff.tree.Tree;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class SimilarityMetrics {
     private SimilarityMetrics() {}
 
     public static double chawatheSimilarity(Tree src, Tree dst, MappingStore mappings) {
-        int max = Math.max(src.getDescendants().size(), dst.getDescendants().size());
+        int max = Math.max(numberOfDescendants(src), numberOfDescendants(dst));
         return (double) numberOfMappedDescendants(src, dst, mappings) / (double) max;
     }
 
     public static double overlapSimilarity(Tree src, Tree dst, MappingStore mappings) {
-        int min = Math.min(src.getDescendants().size(), dst.getDescendants().size());
+        int min = Math.min(numberOfDescendants(src), numberOfDescendants(dst));
         return (double) numberOfMappedDescendants(src, dst, mappings) / (double) min;
     }
 
     public static double diceSimilarity(Tree src, Tree dst, MappingStore mappings) {
         return diceCoefficient(numberOfMappedDescendants(src, dst, mappings),
-                src.getDescendants().size(), dst.getDescendants().size());
+                numberOfDescendants(src), numberOfDescendants(dst));
     }
 
     public static double jaccardSimilarity(Tree src, Tree dst, MappingStore mappings) {
         return jaccardIndex(numberOfMappedDescendants(src, dst, mappings),
-                src.getDescendants().size(), dst.getDescendants().size());
+                numberOfDescendants(src), numberOfDescendants(dst));
     }
 
     public static double diceCoefficient(int commonElementsNb, int leftElementsNb, int rightElementsNb) {
@@ -57,16 +54,26 @@ public class SimilarityMetrics {
         return res;
     }
 
-    private static int numberOfMappedDescendants(Tree src, Tree dst, MappingStore mappings) {
-        Set<Tree> dstDescendants = new HashSet<>(dst.getDescendants());
+    /**
+     * Return the number of descendants of the given node, computed from its metrics.
+     */
+    public static int numberOfDescendants(Tree t) {
+        return t.getMetrics().size - 1;
+    }
+
+    /**
+     * Return the number of descendants of the given source node that are mapped
+     * to a descendant of the given destination node.
+     */
+    public static int numberOfMappedDescendants(Tree src, Tree dst, MappingStore mappings) {
         int mappedDescendants = 0;
 
-        for (var srcDescendant : src.getDescendants()) {
-            if (mappings.isSrcMapped(srcDescendant)) {
-                var dstForSrcDescendant = mappings.getDstForSrc(srcDescendant);
-                if (dstDescendants.contains(dstForSrcDescendant))
-                    mappedDescendants++;
-            }
+        for (var srcDescendant : src.preOrder()) {
+            if (srcDescendant.equals(src))
+                continue;
+            var dstForSrcDescendant = mappings.getDstForSrc(srcDescendant);
+            if (dstForSrcDescendant != null && dstForSrcDescendant.isDescendantOf(dst))
+                mappedDescendants++;
         }
 
         return mappedDescendants;
@@ -36,6 +36,9 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
     protected Function<Tree, Integer> priorityCalculator = PriorityTreeQueue
             .getPriorityCalculator(DEFAULT_PRIORITY_CALCULATOR);
 
+    protected boolean useLongHashes = false;
+    protected boolean verifyIsomorphism = false;
+
     protected Tree src;
     protected Tree dst;
     protected MappingStore mappings;
@@ -48,6 +51,8 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
         this.minPriority = properties.tryConfigure(ConfigurationOptions.st_minprio, minPriority);
         this.priorityCalculator = PriorityTreeQueue.getPriorityCalculator(
                 properties.tryConfigure(ConfigurationOptions.st_priocalc, DEFAULT_PRIORITY_CALCULATOR));
+        this.useLongHashes = properties.tryConfigure(ConfigurationOptions.st_longhash, useLongHashes);
+        this.verifyIsomorphism = properties.tryConfigure(ConfigurationOptions.st_verifyiso, verifyIsomorphism);
     }
 
     @Override
@@ -62,16 +67,39 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
         PriorityTreeQueue dstTrees = new DefaultPriorityTreeQueue(dst, this.minPriority, this.priorityCalculator);
 
         while (PriorityTreeQueue.synchronize(srcTrees, dstTrees)) {
-            var localHashMappings = new HashBasedMapper();
+            var localHashMappings = new HashBasedMapper(useLongHashes);
             localHashMappings.addSrcs(srcTrees.pop());
             localHashMappings.addDsts(dstTrees.pop());
 
-            localHashMappings.unique().forEach(
-                    (pair) -> mappings.addMappingRecursively(
-                            pair.first.stream().findAny().get(), pair.second.stream().findAny().get()));
+            localHashMappings.unique().forEach((pair) -> {
+                Tree srcTree = pair.first.iterator().next();
+                Tree dstTree = pair.second.iterator().next();
+                if (areIsomorphic(srcTree, dstTree))
+                    mappings.addMappingRecursively(srcTree, dstTree);
+                else {
+                    srcTrees.open(srcTree);
+                    dstTrees.open(dstTree);
+                }
+            });
 
-            localHashMappings.ambiguous().forEach(
-                    (pair) -> ambiguousMappings.add(pair));
+            localHashMappings.ambiguous().forEach((pair) -> {
+                if (!verifyIsomorphism) {
+                    ambiguousMappings.add(pair);
+                    return;
+                }
+                // A hashcode collision is split into groups of isomorphic subtrees, the subtrees
+                // isomorphic to none of the other side are opened like the unmapped ones.
+                for (Pair<Set<Tree>, Set<Tree>> group : splitIsomorphic(pair)) {
+                    if (group.first.isEmpty() || group.second.isEmpty()) {
+                        group.first.forEach(tree -> srcTrees.open(tree));
+                        group.second.forEach(tree -> dstTrees.open(tree));
+                    } else if (group.first.size() == 1 && group.second.size() == 1)
+                        mappings.addMappingRecursively(group.first.iterator().next(),
+                                group.second.iterator().next());
+                    else
+                        ambiguousMappings.add(group);
+                }
+            });
 
             localHashMappings.unmapped().forEach((pair) -> {
                 pair.first.forEach(tree -> srcTrees.open(tree));
@@ -83,8 +111,64 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
         return this.mappings;
     }
 
+    /**
+     * Map the groups of subtrees sharing the same hashcode. When the isomorphism is verified,
+     * the subtrees of a group are known to be isomorphic.
+     */
     public abstract void handleAmbiguousMappings(List<Pair<Set<Tree>, Set<Tree>>> ambiguousMappings);
 
+    /**
+     * Check that two trees sharing the same hashcode are indeed isomorphic. When the
+     * verification is disabled, hashcode equality is trusted and the check always succeeds.
+     */
+    protected boolean areIsomorphic(Tree src, Tree dst) {
+        return !verifyIsomorphism || src.isIsomorphicTo(dst);
+    }
+
+    private static List<Pair<Set<Tree>, Set<Tree>>> splitIsomorphic(Pair<Set<Tree>, Set<Tree>> pair) {
+        List<Pair<Set<Tree>, Set<Tree>>> groups = new ArrayList<>();
+        for (Tree src : pair.first)
+            groupOf(groups, src).first.add(src);
+        for (Tree dst : pair.second)
+            groupOf(groups, dst).second.add(dst);
+        return groups;
+    }
+
+    private static Pair<Set<Tree>, Set<Tree>> groupOf(List<Pair<Set<Tree>, Set<Tree>>> groups, Tree tree) {
+        for (Pair<Set<Tree>, Set<Tree>> group : groups) {
+            Tree member = group.first.isEmpty() ? group.second.iterator().next() : group.first.iterator().next();
+            if (member.isIsomorphicTo(tree))
+                return group;
+        }
+        Pair<Set<Tree>, Set<Tree>> group = new Pair<>(new HashSet<>(), new HashSet<>());
+        groups.add(group);
+        return group;
+    }
+
+    public boolean isUsingLongHashes() {
+        return useLongHashes;
+    }
+
+    /**
+     * Use the 64-bit subtree hashcodes rather than the 32-bit ones to group
+     * identical subtrees, which makes collisions unlikely on large ASTs.
+     */
+    public void setUseLongHashes(boolean useLongHashes) {
+        this.useLongHashes = useLongHashes;
+    }
+
+    public boolean isVerifyingIsomorphism() {
+        return verifyIsomorphism;
+    }
+
+    /**
+     * Verify that subtrees sharing the same hashcode are isomorphic before
+     * mapping them, so that hashcode collisions never produce wrong mappings.
+     */
+    public void setVerifyIsomorphism(boolean verifyIsomorphism) {
+        this.verifyIsomorphism = verifyIsomorphism;
+    }
+
     public int getMinPriority() {
         return minPriority;
     }
@@ -95,6 +179,7 @@ public abstract class AbstractSubtreeMatcher implements Matcher {
 
     @Override
     public Set<ConfigurationOptions> getApplicableOptions() {
-        return Sets.newHashSet(ConfigurationOptions.st_priocalc, ConfigurationOptions.st_minprio);
+        return Sets.newHashSet(ConfigurationOptions.st_priocalc, ConfigurationOptions.st_minprio,
+                ConfigurationOptions.st_longhash, ConfigurationOptions.st_verifyiso);
     }
 }
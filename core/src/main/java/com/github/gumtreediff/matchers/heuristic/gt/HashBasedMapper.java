@@ -27,13 +27,29 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
 public class HashBasedMapper {
     private final Long2ObjectMap<Pair<Set<Tree>, Set<Tree>>> mappings;
 
+    private final ToLongFunction<Tree> hashFunction;
+
     public HashBasedMapper() {
+        this(false);
+    }
+
+    /**
+     * Instantiate a mapper grouping the trees using either their 32-bit
+     * or their 64-bit hashcode.
+     * @see com.github.gumtreediff.tree.TreeMetrics#longHash
+     */
+    public HashBasedMapper(boolean useLongHashes) {
         mappings = new Long2ObjectOpenHashMap<>();
+        if (useLongHashes)
+            hashFunction = t -> t.getMetrics().longHash;
+        else
+            hashFunction = t -> t.getMetrics().hash;
     }
 
     public void addSrcs(Collection<Tree> srcs) {
@@ -47,13 +63,15 @@ public class HashBasedMapper {
     }
 
     public void addSrc(Tree src) {
-        mappings.putIfAbsent(src.getMetrics().hash, new Pair<>(new HashSet<>(), new HashSet<>()));
-        mappings.get(src.getMetrics().hash).first.add(src);
+        long hash = hashFunction.applyAsLong(src);
+        mappings.putIfAbsent(hash, new Pair<>(new HashSet<>(), new HashSet<>()));
+        mappings.get(hash).first.add(src);
     }
 
     public void addDst(Tree dst) {
-        mappings.putIfAbsent(dst.getMetrics().hash, new Pair<>(new HashSet<>(), new HashSet<>()));
-        mappings.get(dst.getMetrics().hash).second.add(dst);
+        long hash = hashFunction.applyAsLong(dst);
+        mappings.putIfAbsent(hash, new Pair<>(new HashSet<>(), new HashSet<>()));
+        mappings.get(hash).second.add(dst);
     }
 
     public Stream<Pair<Set<Tree>, Set<Tree>>> unique() {
@@ -73,10 +91,10 @@ public class HashBasedMapper {
     }
 
     public boolean isSrcMapped(Tree src) {
-        return mappings.get(src.getMetrics().hash).second.size() > 0;
+        return mappings.get(hashFunction.applyAsLong(src)).second.size() > 0;
     }
 
     public boolean isDstMapped(Tree dst) {
-        return mappings.get(dst.getMetrics().hash).first.size() > 0;
+        return mappings.get(hashFunction.applyAsLong(dst)).first.size() > 0;
     }
 }
@@ -76,8 +76,6 @@ public class MappingComparators {
     public static class SiblingsSimilarityMappingComparator implements Comparator<Mapping> {
         private final MappingStore ms;
 
-        private final Map<Tree, Set<Tree>> srcDescendants = new HashMap<>();
-        private final Map<Tree, Set<Tree>> dstDescendants = new HashMap<>();
         private final Map<Mapping, Double> cachedSimilarities = new HashMap<>();
 
         public SiblingsSimilarityMappingComparator(MappingStore ms) {
@@ -86,39 +84,20 @@ public class MappingComparators {
 
         @Override
         public int compare(Mapping m1, Mapping m2) {
-            if (m1.first.getParent() == m2.first.getParent()
-                    && m1.second.getParent() == m2.second.getParent())
+            if (Objects.equals(m1.first.getParent(), m2.first.getParent())
+                    && Objects.equals(m1.second.getParent(), m2.second.getParent()))
                 return 0;
 
             if (!cachedSimilarities.containsKey(m1))
-                cachedSimilarities.put(m1, SimilarityMetrics.diceCoefficient(commonDescendantsNb(m1.first.getParent(),
-                        m1.second.getParent()),
-                        srcDescendants.get(m1.first.getParent()).size(),
-                        dstDescendants.get(m1.second.getParent()).size()));
+                cachedSimilarities.put(m1, SimilarityMetrics.diceSimilarity(
+                        m1.first.getParent(), m1.second.getParent(), ms));
 
             if (!cachedSimilarities.containsKey(m2))
-                cachedSimilarities.put(m2, SimilarityMetrics.diceCoefficient(commonDescendantsNb(m2.first.getParent(),
-                        m2.second.getParent()),
-                        srcDescendants.get(m2.first.getParent()).size(),
-                        dstDescendants.get(m2.second.getParent()).size()));
+                cachedSimilarities.put(m2, SimilarityMetrics.diceSimilarity(
+                        m2.first.getParent(), m2.second.getParent(), ms));
 
             return Double.compare(cachedSimilarities.get(m2), cachedSimilarities.get(m1));
         }
-
-        private int commonDescendantsNb(Tree src, Tree dst) {
-            srcDescendants.putIfAbsent(src, new HashSet<>(src.getDescendants()));
-            dstDescendants.putIfAbsent(dst, new HashSet<>(dst.getDescendants()));
-
-            int common = 0;
-
-            for (Tree t: srcDescendants.get(src)) {
-                Tree m = ms.getDstForSrc(t);
-                if (m != null && dstDescendants.get(dst).contains(m))
-                    common++;
-            }
-
-            return common;
-        }
     }
 
     public static class ParentsSimilarityMappingComparator implements Comparator<Mapping> {
@@ -128,8 +107,8 @@ public class MappingComparators {
 
         @Override
         public int compare(Mapping m1, Mapping m2) {
-            if (m1.first.getParent() == m2.first.getParent()
-                    && m1.second.getParent() == m2.second.getParent())
+            if (Objects.equals(m1.first.getParent(), m2.first.getParent())
+                    && Objects.equals(m1.second.getParent(), m2.second.getParent()))
                 return 0;
 
             srcAncestors.putIfAbsent(m1.first, m1.first.getParents());
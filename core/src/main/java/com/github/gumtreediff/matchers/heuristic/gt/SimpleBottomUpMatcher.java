@@ -58,11 +58,11 @@ public class SimpleBottomUpMatcher implements Matcher {
                 List<Tree> candidates = getDstCandidates(mappings, t);
                 Tree best = null;
                 var max = -1D;
-                var tSize = t.getDescendants().size();
+                var tSize = SimilarityMetrics.numberOfDescendants(t);
 
                 for (var candidate : candidates) {
                     var threshold = Double.isNaN(simThreshold)
-                            ? 1D / (1D + Math.log(candidate.getDescendants().size() + tSize))
+                            ? 1D / (1D + Math.log(SimilarityMetrics.numberOfDescendants(candidate) + tSize))
                             : simThreshold;
                     var sim = SimilarityMetrics.chawatheSimilarity(t, candidate, mappings);
                     if (sim > max && sim >= threshold) {
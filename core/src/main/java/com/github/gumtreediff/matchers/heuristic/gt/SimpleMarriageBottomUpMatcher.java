@@ -67,11 +67,11 @@ public class SimpleMarriageBottomUpMatcher implements Matcher {
         List<Tree> candidates = getDstCandidates(mappings, src);
         Tree dst = null;
         var maxSim = -1D;
-        var tSize = src.getDescendants().size();
+        var tSize = SimilarityMetrics.numberOfDescendants(src);
 
         for (var candidate : candidates) {
             var threshold = Double.isNaN(simThreshold)
-                    ? 1D / (1D + Math.log(candidate.getDescendants().size() + tSize))
+                    ? 1D / (1D + Math.log(SimilarityMetrics.numberOfDescendants(candidate) + tSize))
                     : simThreshold;
             var sim = SimilarityMetrics.chawatheSimilarity(src, candidate, mappings);
             if (sim > maxSim && sim >= threshold) {
@@ -87,11 +87,11 @@ public class SimpleMarriageBottomUpMatcher implements Matcher {
         List<Tree> candidates = getSrcCandidates(mappings, dst);
         Tree src = null;
         var maxSim = -1D;
-        var tSize = dst.getDescendants().size();
+        var tSize = SimilarityMetrics.numberOfDescendants(dst);
 
         for (var candidate : candidates) {
             var threshold = Double.isNaN(simThreshold)
-                    ? 1D / (1D + Math.log(candidate.getDescendants().size() + tSize))
+                    ? 1D / (1D + Math.log(SimilarityMetrics.numberOfDescendants(candidate) + tSize))
                     : simThreshold;
             // swap candidate and dst as chawatheSimilarity is not symmetric
             var sim = SimilarityMetrics.chawatheSimilarity(candidate, dst, mappings);
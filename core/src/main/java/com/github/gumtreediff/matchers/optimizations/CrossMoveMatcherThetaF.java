@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Objects;
 
 import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
@@ -55,8 +56,8 @@ public class CrossMoveMatcherThetaF implements Matcher {
         for (Mapping pair : workList) {
             Tree parentOld = pair.first.getParent();
             Tree parentNew = pair.second.getParent();
-            if (mappings.isSrcMapped(parentOld) && mappings.getDstForSrc(parentOld) != parentNew) {
-                if (mappings.isDstMapped(parentNew) && mappings.getSrcForDst(parentNew) != parentOld) {
+            if (mappings.isSrcMapped(parentOld) && !Objects.equals(mappings.getDstForSrc(parentOld), parentNew)) {
+                if (mappings.isDstMapped(parentNew) && !Objects.equals(mappings.getSrcForDst(parentNew), parentOld)) {
                     Tree parentOldOther = mappings.getSrcForDst(parentNew);
                     Tree parentNewOther = mappings.getDstForSrc(parentOld);
                     if (parentOld.getLabel().equals(parentNewOther.getLabel())
@@ -69,7 +70,7 @@ public class CrossMoveMatcherThetaF implements Matcher {
                                         && childOldOther.getLabel().equals(pair.second.getLabel())
                                         || !(pair.first.getLabel().equals(pair.second.getLabel())
                                         || childOldOther.getLabel().equals(childNewOther.getLabel()))) {
-                                    if (childNewOther.getParent() == parentNewOther) {
+                                    if (Objects.equals(childNewOther.getParent(), parentNewOther)) {
                                         if (childOldOther.getType() == pair.first.getType()) {
                                             mappings.removeMapping(pair.first, pair.second);
                                             mappings.removeMapping(childOldOther, childNewOther);
@@ -85,7 +86,7 @@ public class CrossMoveMatcherThetaF implements Matcher {
                             for (Tree childNewOther : parentNewOther.getChildren()) {
                                 if (mappings.isDstMapped(childNewOther)) {
                                     Tree childOldOther = mappings.getSrcForDst(childNewOther);
-                                    if (childOldOther.getParent() == parentOldOther) {
+                                    if (Objects.equals(childOldOther.getParent(), parentOldOther)) {
                                         if (childNewOther.getType() == pair.second.getType()) {
                                             if (pair.first.getLabel().equals(childNewOther.getLabel())
                                                     && childOldOther.getLabel().equals(pair.second.getLabel())
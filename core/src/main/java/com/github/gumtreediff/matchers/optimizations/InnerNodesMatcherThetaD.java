@@ -21,7 +21,7 @@ package com.github.gumtreediff.matchers.optimizations;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.IdentityHashMap;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map.Entry;
 
@@ -49,11 +49,11 @@ public class InnerNodesMatcherThetaD implements Matcher {
         return mappings;
     }
 
-    private class ChangeMapComparator implements Comparator<Entry<Tree, IdentityHashMap<Tree, Integer>>> {
+    private class ChangeMapComparator implements Comparator<Entry<Tree, HashMap<Tree, Integer>>> {
 
         @Override
-        public int compare(Entry<Tree, IdentityHashMap<Tree, Integer>> o1,
-                           Entry<Tree, IdentityHashMap<Tree, Integer>> o2) {
+        public int compare(Entry<Tree, HashMap<Tree, Integer>> o1,
+                           Entry<Tree, HashMap<Tree, Integer>> o2) {
 
             return Integer.compare(o1.getKey().getMetrics().position, o2.getKey().getMetrics().position);
         }
@@ -62,7 +62,7 @@ public class InnerNodesMatcherThetaD implements Matcher {
 
     private boolean allowedMatching(Tree key, Tree maxNodePartner) {
         while (key != null) {
-            if (key == maxNodePartner) {
+            if (key.equals(maxNodePartner)) {
                 return false;
             }
             key = key.getParent();
@@ -71,14 +71,14 @@ public class InnerNodesMatcherThetaD implements Matcher {
     }
     
     private void thetaD() {
-        IdentityHashMap<Tree, IdentityHashMap<Tree, Integer>> parentCount = new IdentityHashMap<>();
+        HashMap<Tree, HashMap<Tree, Integer>> parentCount = new HashMap<>();
         for (Mapping pair : mappings.asSet()) {
             Tree parent = pair.first.getParent();
             Tree parentPartner = pair.second.getParent();
             if (parent != null && parentPartner != null) {
-                IdentityHashMap<Tree, Integer> countMap = parentCount.get(parent);
+                HashMap<Tree, Integer> countMap = parentCount.get(parent);
                 if (countMap == null) {
-                    countMap = new IdentityHashMap<>();
+                    countMap = new HashMap<>();
                     parentCount.put(parent, countMap);
                 }
                 Integer count = countMap.get(parentPartner);
@@ -89,10 +89,10 @@ public class InnerNodesMatcherThetaD implements Matcher {
             }
         }
 
-        LinkedList<Entry<Tree, IdentityHashMap<Tree, Integer>>> list = new LinkedList<>(parentCount.entrySet());
+        LinkedList<Entry<Tree, HashMap<Tree, Integer>>> list = new LinkedList<>(parentCount.entrySet());
         Collections.sort(list, new ChangeMapComparator());
 
-        for (Entry<Tree, IdentityHashMap<Tree, Integer>> countEntry : list) {
+        for (Entry<Tree, HashMap<Tree, Integer>> countEntry : list) {
             int max = Integer.MIN_VALUE;
             int maxCount = 0;
             Tree maxNode = null;
@@ -109,12 +109,12 @@ public class InnerNodesMatcherThetaD implements Matcher {
                 if (mappings.getDstForSrc(countEntry.getKey()) != null && mappings.getSrcForDst(maxNode) != null) {
                     Tree partner = mappings.getDstForSrc(countEntry.getKey());
                     Tree maxNodePartner = mappings.getSrcForDst(maxNode);
-                    if (partner != maxNode) {
+                    if (!partner.equals(maxNode)) {
                         if (max > countEntry.getKey().getChildren().size() / 2
                                 || countEntry.getKey().getChildren().size() == 1) {
                             Tree parentPartner = mappings.getDstForSrc(countEntry.getKey().getParent());
 
-                            if (parentPartner != null && parentPartner == partner.getParent()) {
+                            if (parentPartner != null && parentPartner.equals(partner.getParent())) {
                                 continue;
                             }
                             if (allowedMatching(countEntry.getKey(), maxNodePartner)) {
@@ -80,7 +80,7 @@ public class LcsOptMatcherThetaB implements Matcher {
                 }
 
                 Tree partner = null;
-                if (parent == src) {
+                if (parent.equals(src)) {
                     partner = dst;
                 } else {
                     partner = mappings.getDstForSrc(parent);
@@ -181,7 +181,7 @@ public class LcsOptMatcherThetaB implements Matcher {
         if (node1.getType() != node2.getType()) {
             return false;
         }
-        if (mappings.isSrcMapped(node1) && mappings.getDstForSrc(node1) == node2) {
+        if (mappings.isSrcMapped(node1) && node2.equals(mappings.getDstForSrc(node1))) {
             return true;
         }
         return unmatchedNodes1.contains(node1) && unmatchedNodes2.contains(node2);
@@ -168,7 +168,7 @@ public class LeafMoveMatcherThetaE implements Matcher {
                     mappings.removeMapping(foundSrc, foundDstNode);
                     changeMap.add(new Mapping(pair.first, foundDstNode));
                     addedMappingKey = new Mapping(foundSrc, foundDstNode);
-                    if (foundDstNode != pair.second && foundSrc != pair.first) {
+                    if (!foundDstNode.equals(pair.second) && !foundSrc.equals(pair.first)) {
                         changeMap.add(new Mapping(foundSrc, pair.second));
                     }
                 }
@@ -178,11 +178,11 @@ public class LeafMoveMatcherThetaE implements Matcher {
                 if (pair.first.getLabel().equals(foundDstNode.getLabel())) {
                     LinkedList<Mapping> toRemove = new LinkedList<>();
                     for (Mapping mapPair : changeMap) {
-                        if (mapPair.first == pair.first) {
+                        if (mapPair.first.equals(pair.first)) {
                             if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
                                 toRemove.add(mapPair);
                             }
-                        } else if (mapPair.second == foundDstNode) {
+                        } else if (mapPair.second.equals(foundDstNode)) {
                             if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
                                 toRemove.add(mapPair);
                             }
@@ -235,7 +235,7 @@ public class LeafMoveMatcherThetaE implements Matcher {
                     mappings.removeMapping(foundSrcNode, foundDst);
                     changeMap.add(new Mapping(foundSrcNode, pair.second));
                     if (addedMappingKey == null && foundDst != null) {
-                        if (foundSrcNode != pair.first && foundDst != pair.second) {
+                        if (!foundSrcNode.equals(pair.first) && !foundDst.equals(pair.second)) {
                             changeMap.add(new Mapping(pair.first, foundDst));
                         }
                     }
@@ -245,11 +245,11 @@ public class LeafMoveMatcherThetaE implements Matcher {
                 if (foundSrcNode.getLabel().equals(pair.second.getLabel())) {
                     LinkedList<Mapping> toRemove = new LinkedList<>();
                     for (Mapping mapPair : changeMap) {
-                        if (mapPair.first == foundSrcNode) {
+                        if (mapPair.first.equals(foundSrcNode)) {
                             if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
                                 toRemove.add(mapPair);
                             }
-                        } else if (mapPair.second == pair.second) {
+                        } else if (mapPair.second.equals(pair.second)) {
                             if (!mapPair.first.getLabel().equals(mapPair.second.getLabel())) {
                                 toRemove.add(mapPair);
                             }
@@ -0,0 +1,253 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.tree;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * A lightweight view over a node of a {@link CompactTreeContext}. All the data
+ * of the node is stored in the arrays of the context, the view only holds
+ * the id of the node. The structure of a compact tree cannot be modified through
+ * its views.
+ *
+ * <p>Views are created on demand, hence a node can be represented by several views,
+ * which are equal. Compact trees must therefore be compared using
+ * {@link #equals(Object)} rather than by identity.
+ *
+ * @see CompactTreeContext#getTree(int)
+ */
+public final class CompactTree implements Tree {
+    private final CompactTreeContext context;
+
+    private final int id;
+
+    CompactTree(CompactTreeContext context, int id) {
+        this.context = context;
+        this.id = id;
+    }
+
+    /**
+     * Returns the id of the node in its context, which is its index in pre-order.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the context storing the data of the node.
+     */
+    public CompactTreeContext getContext() {
+        return context;
+    }
+
+    private RuntimeException unsupportedOperation() {
+        return new UnsupportedOperationException("The structure of a compact tree cannot be modified");
+    }
+
+    @Override
+    public void addChild(Tree t) {
+        throw unsupportedOperation();
+    }
+
+    @Override
+    public void insertChild(Tree t, int position) {
+        throw unsupportedOperation();
+    }
+
+    @Override
+    public void setChildren(List<Tree> children) {
+        throw unsupportedOperation();
+    }
+
+    @Override
+    public Tree getChild(int position) {
+        return context.getTree(context.getChild(id, position));
+    }
+
+    @Override
+    public List<Tree> getChildren() {
+        return new ChildrenView();
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return context.getFirstChild(id) == CompactTreeContext.NO_NODE;
+    }
+
+    @Override
+    public void setParent(Tree parent) {
+        throw unsupportedOperation();
+    }
+
+    @Override
+    public void setParentAndUpdateChildren(Tree parent) {
+        throw unsupportedOperation();
+    }
+
+    @Override
+    public boolean isRoot() {
+        return context.getParent(id) == CompactTreeContext.NO_NODE;
+    }
+
+    @Override
+    public Tree getParent() {
+        int parent = context.getParent(id);
+        return parent == CompactTreeContext.NO_NODE ? null : context.getTree(parent);
+    }
+
+    @Override
+    public Tree deepCopy() {
+        Tree copy = new DefaultTree(this);
+        for (Tree child : getChildren())
+            copy.addChild(child.deepCopy());
+        return copy;
+    }
+
+    @Override
+    public String getLabel() {
+        return context.getLabel(id);
+    }
+
+    @Override
+    public void setLabel(String label) {
+        context.setLabel(id, label);
+    }
+
+    @Override
+    public int getPos() {
+        return context.getPos(id);
+    }
+
+    @Override
+    public void setPos(int pos) {
+        context.setPos(id, pos);
+    }
+
+    @Override
+    public int getLength() {
+        return context.getLength(id);
+    }
+
+    @Override
+    public void setLength(int length) {
+        context.setLength(id, length);
+    }
+
+    @Override
+    public Type getType() {
+        return context.getType(id);
+    }
+
+    @Override
+    public void setType(Type type) {
+        context.setType(id, type);
+    }
+
+    @Override
+    public TreeMetrics getMetrics() {
+        return context.getMetrics(id);
+    }
+
+    @Override
+    public void setMetrics(TreeMetrics metrics) {
+        context.setMetrics(id, metrics);
+    }
+
+    @Override
+    public Object getMetadata(String key) {
+        return context.getMetadata(id, key);
+    }
+
+    @Override
+    public Object setMetadata(String key, Object value) {
+        return context.setMetadata(id, key, value);
+    }
+
+    @Override
+    public Iterator<Entry<String, Object>> getMetadata() {
+        return context.getMetadataIterator(id);
+    }
+
+    @Override
+    public String toTreeString() {
+        return TreeIoUtils.toShortText(this).toString();
+    }
+
+    @Override
+    public String toString() {
+        if (hasLabel())
+            return String.format("%s: %s [%d,%d]",
+                    getType(), getLabel(), getPos(), getEndPos());
+        else
+            return String.format("%s [%d,%d]",
+                    getType(), getPos(), getEndPos());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CompactTree))
+            return false;
+        CompactTree other = (CompactTree) o;
+        return id == other.id && context == other.context;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(context) + id;
+    }
+
+    private class ChildrenView extends AbstractList<Tree> implements RandomAccess {
+        @Override
+        public Tree get(int index) {
+            return getChild(index);
+        }
+
+        @Override
+        public int size() {
+            return context.getChildrenCount(id);
+        }
+
+        @Override
+        public Iterator<Tree> iterator() {
+            return new Iterator<>() {
+                int next = context.getFirstChild(id);
+
+                @Override
+                public boolean hasNext() {
+                    return next != CompactTreeContext.NO_NODE;
+                }
+
+                @Override
+                public Tree next() {
+                    if (next == CompactTreeContext.NO_NODE)
+                        throw new NoSuchElementException();
+                    Tree t = context.getTree(next);
+                    next = context.getNextSibling(next);
+                    return t;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.tree;
+
+import com.github.gumtreediff.utils.Pair;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.*;
+import java.util.Map.Entry;
+
+/**
+ * A tree context that stores its AST in parallel primitive arrays instead of
+ * using one object per node. Nodes are identified by their index in pre-order,
+ * and are exposed to the rest of GumTree through {@link CompactTree} views,
+ * so that matchers and edit script generators can run unchanged on very large ASTs.
+ * Types and labels are stored in tables and referenced by their ids.
+ *
+ * <p>The structure of a compact AST is append-only: nodes are added in pre-order
+ * using {@link #addNode(int, Type, String, int, int)} and cannot be moved or removed
+ * afterwards. The attributes of the nodes (type, label, positions, metadata) remain mutable.
+ *
+ * @see CompactTree
+ */
+public class CompactTreeContext extends TreeContext {
+    /**
+     * The id used to represent the absence of a node (e.g. the parent of the root).
+     */
+    public static final int NO_NODE = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int size;
+
+    private int[] types;
+    private int[] labels;
+    private int[] positions;
+    private int[] lengths;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] lastChildren;
+    private int[] childrenCounts;
+
+    private final List<Type> typeTable = new ArrayList<>();
+    private final Object2IntMap<Type> typeIds = new Object2IntOpenHashMap<>();
+
+    private final List<String> labelTable = new ArrayList<>();
+    private final Object2IntMap<String> labelIds = new Object2IntOpenHashMap<>();
+
+    private int[] childrenOffsets;
+    private int[] childrenIds;
+
+    private int[] metricSizes;
+    private int[] metricHeights;
+    private int[] metricHashes;
+    private long[] metricLongHashes;
+    private int[] metricStructureHashes;
+    private int[] metricDepths;
+    private int[] metricPositions;
+
+    private Int2ObjectMap<AssociationMap> nodesMetadata;
+
+    /**
+     * Instantiate an empty compact tree context.
+     */
+    public CompactTreeContext() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Instantiate an empty compact tree context, with room for the given number of nodes.
+     */
+    public CompactTreeContext(int expectedSize) {
+        typeIds.defaultReturnValue(NO_NODE);
+        labelIds.defaultReturnValue(NO_NODE);
+        allocate(Math.max(expectedSize, 1));
+    }
+
+    /**
+     * Build a compact tree context from the given tree context. The AST, the
+     * metadata of its nodes, the context metadata and the metadata serializers
+     * are copied over.
+     */
+    public static CompactTreeContext fromTreeContext(TreeContext context) {
+        CompactTreeContext compact = new CompactTreeContext();
+        compact.setRoot(context.getRoot());
+        for (Iterator<Entry<String, Object>> it = context.getMetadata(); it.hasNext(); ) {
+            Entry<String, Object> e = it.next();
+            compact.setMetadata(e.getKey(), e.getValue());
+        }
+        compact.getSerializers().addAll(context.getSerializers());
+        return compact;
+    }
+
+    /**
+     * Return the root of the AST, or null if the context contains no node.
+     */
+    @Override
+    public Tree getRoot() {
+        return size == 0 ? null : getTree(0);
+    }
+
+    /**
+     * Replace the AST of this context by a compact copy of the given tree.
+     * Note that the root returned by {@link #getRoot()} is therefore not the given tree.
+     */
+    @Override
+    public void setRoot(Tree root) {
+        clear();
+        if (root == null)
+            return;
+
+        Deque<Pair<Tree, Integer>> stack = new ArrayDeque<>();
+        stack.push(new Pair<>(root, NO_NODE));
+        while (!stack.isEmpty()) {
+            Pair<Tree, Integer> current = stack.pop();
+            Tree t = current.first;
+            int id = addNode(current.second, t.getType(), t.getLabel(), t.getPos(), t.getLength());
+            for (Iterator<Entry<String, Object>> it = t.getMetadata(); it.hasNext(); ) {
+                Entry<String, Object> e = it.next();
+                setMetadata(id, e.getKey(), e.getValue());
+            }
+            List<Tree> children = t.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--)
+                stack.push(new Pair<>(children.get(i), id));
+        }
+    }
+
+    /**
+     * Add a new node as the last child of the given parent node, and return its id.
+     * Nodes have to be added in pre-order, the first one being the root which uses
+     * {@link #NO_NODE} as parent.
+     */
+    public int addNode(int parent, Type type, String label, int pos, int length) {
+        if (parent == NO_NODE && size > 0)
+            throw new IllegalArgumentException("The AST already has a root.");
+        if (parent != NO_NODE && (parent < 0 || parent >= size))
+            throw new IllegalArgumentException("Unknown parent node: " + parent);
+
+        if (size == types.length)
+            grow();
+
+        int id = size++;
+        types[id] = typeId(type);
+        labels[id] = labelId(label);
+        positions[id] = pos;
+        lengths[id] = length;
+        parents[id] = parent;
+        firstChildren[id] = NO_NODE;
+        nextSiblings[id] = NO_NODE;
+        lastChildren[id] = NO_NODE;
+        childrenCounts[id] = 0;
+        if (parent != NO_NODE) {
+            if (lastChildren[parent] == NO_NODE)
+                firstChildren[parent] = id;
+            else
+                nextSiblings[lastChildren[parent]] = id;
+            lastChildren[parent] = id;
+            childrenCounts[parent]++;
+        }
+
+        childrenOffsets = null;
+        childrenIds = null;
+        clearMetrics();
+        return id;
+    }
+
+    /**
+     * Return the number of nodes of the AST.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return a view of the node with the given id. Views are created on demand and
+     * are not retained by the context, two views of the same node are equal.
+     */
+    public CompactTree getTree(int id) {
+        checkId(id);
+        return new CompactTree(this, id);
+    }
+
+    public Type getType(int id) {
+        return typeTable.get(types[id]);
+    }
+
+    public void setType(int id, Type type) {
+        types[id] = typeId(type);
+    }
+
+    /**
+     * Return the id of the type of the given node in the type table.
+     */
+    public int getTypeId(int id) {
+        return types[id];
+    }
+
+    public String getLabel(int id) {
+        return labelTable.get(labels[id]);
+    }
+
+    public void setLabel(int id, String label) {
+        labels[id] = labelId(label);
+    }
+
+    /**
+     * Return the id of the label of the given node in the label table.
+     */
+    public int getLabelId(int id) {
+        return labels[id];
+    }
+
+    public int getPos(int id) {
+        return positions[id];
+    }
+
+    public void setPos(int id, int pos) {
+        positions[id] = pos;
+    }
+
+    public int getLength(int id) {
+        return lengths[id];
+    }
+
+    public void setLength(int id, int length) {
+        lengths[id] = length;
+    }
+
+    /**
+     * Return the id of the parent of the given node, or {@link #NO_NODE} for the root.
+     */
+    public int getParent(int id) {
+        return parents[id];
+    }
+
+    /**
+     * Return the id of the first child of the given node, or {@link #NO_NODE} for a leaf.
+     */
+    public int getFirstChild(int id) {
+        return firstChildren[id];
+    }
+
+    /**
+     * Return the id of the next sibling of the given node, or {@link #NO_NODE} for a last child.
+     */
+    public int getNextSibling(int id) {
+        return nextSiblings[id];
+    }
+
+    public int getChildrenCount(int id) {
+        return childrenCounts[id];
+    }
+
+    /**
+     * Return the id of the position-th child of the given node.
+     */
+    public int getChild(int id, int position) {
+        if (position < 0 || position >= childrenCounts[id])
+            throw new IndexOutOfBoundsException("Child position: " + position + ", children: " + childrenCounts[id]);
+        if (childrenOffsets == null)
+            indexChildren();
+        return childrenIds[childrenOffsets[id] + position];
+    }
+
+    /**
+     * Return the metrics of the given node, computing the metrics of the whole AST if needed.
+     * The metrics are stored in arrays, therefore a new metrics object is returned at each call.
+     */
+    public TreeMetrics getMetrics(int id) {
+        if (metricSizes == null || metricSizes[id] == 0)
+            TreeVisitor.visitTree(getRoot(), new TreeMetricComputer());
+
+        return new TreeMetrics(metricSizes[id], metricHeights[id], metricHashes[id], metricLongHashes[id],
+                metricStructureHashes[id], metricDepths[id], metricPositions[id]);
+    }
+
+    public void setMetrics(int id, TreeMetrics metrics) {
+        if (metricSizes == null) {
+            metricSizes = new int[types.length];
+            metricHeights = new int[types.length];
+            metricHashes = new int[types.length];
+            metricLongHashes = new long[types.length];
+            metricStructureHashes = new int[types.length];
+            metricDepths = new int[types.length];
+            metricPositions = new int[types.length];
+        }
+        metricSizes[id] = metrics.size;
+        metricHeights[id] = metrics.height;
+        metricHashes[id] = metrics.hash;
+        metricLongHashes[id] = metrics.longHash;
+        metricStructureHashes[id] = metrics.structureHash;
+        metricDepths[id] = metrics.depth;
+        metricPositions[id] = metrics.position;
+    }
+
+    public Object getMetadata(int id, String key) {
+        if (nodesMetadata == null)
+            return null;
+        AssociationMap metadata = nodesMetadata.get(id);
+        return metadata == null ? null : metadata.get(key);
+    }
+
+    public Object setMetadata(int id, String key, Object value) {
+        if (value == null) {
+            if (nodesMetadata == null || !nodesMetadata.containsKey(id))
+                return null;
+            return nodesMetadata.get(id).remove(key);
+        }
+        if (nodesMetadata == null)
+            nodesMetadata = new Int2ObjectOpenHashMap<>();
+        AssociationMap metadata = nodesMetadata.get(id);
+        if (metadata == null) {
+            metadata = new AssociationMap();
+            nodesMetadata.put(id, metadata);
+        }
+        return metadata.set(key, value);
+    }
+
+    Iterator<Entry<String, Object>> getMetadataIterator(int id) {
+        if (nodesMetadata == null || !nodesMetadata.containsKey(id))
+            return Collections.emptyIterator();
+        return nodesMetadata.get(id).iterator();
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("Node id: " + id + ", size: " + size);
+    }
+
+    private int typeId(Type type) {
+        if (type == null)
+            type = Type.NO_TYPE;
+        int id = typeIds.getInt(type);
+        if (id == NO_NODE) {
+            id = typeTable.size();
+            typeTable.add(type);
+            typeIds.put(type, id);
+        }
+        return id;
+    }
+
+    private int labelId(String label) {
+        if (label == null)
+            label = Tree.NO_LABEL;
+        int id = labelIds.getInt(label);
+        if (id == NO_NODE) {
+            id = labelTable.size();
+            labelTable.add(label);
+            labelIds.put(label, id);
+        }
+        return id;
+    }
+
+    private void indexChildren() {
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++)
+            offsets[i + 1] = offsets[i] + childrenCounts[i];
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            int offset = offsets[i];
+            for (int c = firstChildren[i]; c != NO_NODE; c = nextSiblings[c])
+                ids[offset++] = c;
+        }
+        childrenOffsets = offsets;
+        childrenIds = ids;
+    }
+
+    private void allocate(int capacity) {
+        types = new int[capacity];
+        labels = new int[capacity];
+        positions = new int[capacity];
+        lengths = new int[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        lastChildren = new int[capacity];
+        childrenCounts = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = types.length + (types.length >> 1) + 1;
+        types = Arrays.copyOf(types, capacity);
+        labels = Arrays.copyOf(labels, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        childrenCounts = Arrays.copyOf(childrenCounts, capacity);
+    }
+
+    private void clearMetrics() {
+        metricSizes = null;
+        metricHeights = null;
+        metricHashes = null;
+        metricLongHashes = null;
+        metricStructureHashes = null;
+        metricDepths = null;
+        metricPositions = null;
+    }
+
+    private void clear() {
+        size = 0;
+        nodesMetadata = null;
+        childrenOffsets = null;
+        childrenIds = null;
+        clearMetrics();
+    }
+}
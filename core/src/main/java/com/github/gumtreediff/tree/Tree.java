@@ -137,7 +137,7 @@ public interface Tree {
     default List<Tree> searchSubtree(Tree subtree) {
         List<Tree> results = new ArrayList<>();
         for (Tree candidate : this.preOrder()) {
-            if (candidate.getMetrics().hash == subtree.getMetrics().hash)
+            if (candidate.getMetrics().longHash == subtree.getMetrics().longHash)
                 if (candidate.isIsomorphicTo(subtree))
                     results.add(candidate);
         }
@@ -154,6 +154,20 @@ public interface Tree {
         return trees;
     }
 
+    /**
+     * Indicates whether or not this node is a descendant of the given node (which must not be null).
+     * Both nodes must belong to the same AST. Since the descendants of a node form an interval
+     * in post-order, this test is a constant time range check on the metrics of the nodes.
+     * @see TreeMetrics#position
+     * @see TreeMetrics#size
+     */
+    default boolean isDescendantOf(Tree tree) {
+        TreeMetrics ancestorMetrics = tree.getMetrics();
+        int position = getMetrics().position;
+        return position < ancestorMetrics.position
+                && position > ancestorMetrics.position - ancestorMetrics.size;
+    }
+
     /**
      * Set the parent of this node. Be careful that the parent node won't have this node in its
      * children list.
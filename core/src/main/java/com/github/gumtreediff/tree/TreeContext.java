@@ -156,6 +156,10 @@ public class TreeContext {
             serializers.remove(key);
         }
 
+        public E get(String key) {
+            return serializers.get(key);
+        }
+
         public Set<String> exports() {
             return serializers.keySet();
         }
@@ -26,6 +26,11 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
     public static final String ENTER = "enter";
     public static final String LEAVE = "leave";
     public static final int BASE = 33;
+    public static final long LONG_BASE = 0x9E3779B97F4A7C15L;
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long LEAVE_SEED = 0x632BE59BD9B4E019L;
 
     int currentDepth = 0;
     int currentPosition = 0;
@@ -37,7 +42,8 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
 
     @Override
     public void visitLeaf(Tree tree) {
-        tree.setMetrics(new TreeMetrics(1, 0, leafHash(tree), leafStructureHash(tree), currentDepth, currentPosition));
+        tree.setMetrics(new TreeMetrics(1, 0, leafHash(tree), leafLongHash(tree), leafStructureHash(tree),
+                currentDepth, currentPosition));
         currentPosition++;
     }
 
@@ -47,11 +53,13 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
         int sumSize = 0;
         int maxHeight = 0;
         int currentHash = 0;
+        long currentLongHash = 0;
         int currentStructureHash = 0;
         for (Tree child : tree.getChildren()) {
             TreeMetrics metrics = child.getMetrics();
             int exponent = 2 * sumSize + 1;
             currentHash += metrics.hash * hashFactor(exponent);
+            currentLongHash += metrics.longHash * longHashFactor(exponent);
             currentStructureHash += metrics.structureHash * hashFactor(exponent);
             sumSize += metrics.size;
             if (metrics.height > maxHeight)
@@ -61,6 +69,7 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
                 sumSize + 1,
                 maxHeight + 1,
                 innerNodeHash(tree, 2 * sumSize + 1, currentHash),
+                innerNodeLongHash(tree, 2 * sumSize + 1, currentLongHash),
                 innerNodeStructureHash(tree, 2 * sumSize + 1, currentStructureHash),
                 currentDepth, currentPosition));
         currentPosition++;
@@ -85,6 +94,56 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
         return result;
     }
 
+    private static long longHashFactor(int exponent) {
+        long base = LONG_BASE;
+        long result = 1;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0)
+                result *= base;
+            exponent >>= 1;
+            base *= base;
+        }
+        return result;
+    }
+
+    private static long innerNodeLongHash(Tree tree, int size, long middleHash) {
+        long nodeHash = nodeLongHash(tree);
+        return mix(nodeHash)
+                + middleHash
+                + mix(nodeHash ^ LEAVE_SEED) * longHashFactor(size);
+    }
+
+    /**
+     * Compute a FNV-1a hash of the type and label of the node. The length of each
+     * string is hashed as well so that distinct (type, label) pairs cannot produce the
+     * same sequence of hashed values.
+     */
+    private static long nodeLongHash(Tree tree) {
+        return fnv(fnv(FNV_OFFSET_BASIS, tree.getType().name), tree.getLabel());
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= value.length();
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    /**
+     * The murmur3 64-bit finalizer, used to spread the bits of the node hashes.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
     private static int innerNodeHash(Tree tree, int size, int middleHash) {
         return Objects.hash(tree.getType(), tree.getLabel(), ENTER)
                 + middleHash
@@ -101,6 +160,10 @@ public class TreeMetricComputer extends TreeVisitor.InnerNodesAndLeavesVisitor {
         return innerNodeHash(tree, 1, 0);
     }
 
+    private static long leafLongHash(Tree tree) {
+        return innerNodeLongHash(tree, 1, 0);
+    }
+
     private static int leafStructureHash(Tree tree) {
         return innerNodeStructureHash(tree, 1, 0);
     }
@@ -42,6 +42,12 @@ public class TreeMetrics {
      */
     public final int hash;
 
+    /**
+     * The 64-bit hashcode of the subtree rooted at the node. It is far less
+     * prone to collisions than {@link #hash} on large ASTs.
+     */
+    public final long longHash;
+
     /**
      * The hashcode of the subtree rooted at the node, excluding labels.
      */
@@ -57,10 +63,19 @@ public class TreeMetrics {
      */
     public final int position;
 
+    /**
+     * Instantiate metrics without a dedicated 64-bit hashcode, the 32-bit
+     * hashcode is then used as 64-bit hashcode.
+     */
     public TreeMetrics(int size, int height, int hash, int structureHash, int depth, int position) {
+        this(size, height, hash, hash, structureHash, depth, position);
+    }
+
+    public TreeMetrics(int size, int height, int hash, long longHash, int structureHash, int depth, int position) {
         this.size = size;
         this.height = height;
         this.hash = hash;
+        this.longHash = longHash;
         this.structureHash = structureHash;
         this.depth = depth;
         this.position = position;
@@ -0,0 +1,67 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A phase listener emitting a JFR event for each completed phase, so that
+ * the phases appear in the flight recordings of the application.
+ */
+public class JfrPhaseListener implements PhaseListener {
+    @Override
+    public void phaseCompleted(PhaseStatistics statistics) {
+        PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled())
+            return;
+        event.phase = statistics.name;
+        event.wallTime = statistics.wallTime;
+        event.cpuTime = statistics.cpuTime;
+        event.allocatedBytes = statistics.allocatedBytes;
+        event.commit();
+    }
+
+    @Name("com.github.gumtreediff.Phase")
+    @Label("GumTree Phase")
+    @Category("GumTree")
+    @Description("A completed phase of a diff computation")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Wall Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long wallTime;
+
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+
+        @Label("Allocated")
+        @DataAmount(DataAmount.BYTES)
+        long allocatedBytes;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.utils;
+
+/**
+ * A listener notified of the resources consumed by each phase of a diff computation.
+ * The phases of {@link com.github.gumtreediff.actions.Diff#compute} are `parse-src`,
+ * `parse-dst`, `match` and `edit-script`. The phases of a
+ * {@link com.github.gumtreediff.matchers.CompositeMatchers.CompositeMatcher} are named
+ * after the class of each of its sub-matchers, and are reported before the enclosing `match` phase.
+ *
+ * @see PhaseRecorder
+ * @see JfrPhaseListener
+ */
+@FunctionalInterface
+public interface PhaseListener {
+    /**
+     * A listener ignoring all the phases.
+     */
+    PhaseListener NONE = statistics -> { };
+
+    void phaseCompleted(PhaseStatistics statistics);
+
+    /**
+     * Return a listener notifying this listener, then the given one.
+     */
+    default PhaseListener andThen(PhaseListener other) {
+        return statistics -> {
+            phaseCompleted(statistics);
+            other.phaseCompleted(statistics);
+        };
+    }
+}
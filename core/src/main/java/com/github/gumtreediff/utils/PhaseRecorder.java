@@ -0,0 +1,59 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A phase listener recording the statistics of the phases in their order of completion.
+ */
+public class PhaseRecorder implements PhaseListener {
+    private final List<PhaseStatistics> phases = new ArrayList<>();
+
+    @Override
+    public synchronized void phaseCompleted(PhaseStatistics statistics) {
+        phases.add(statistics);
+    }
+
+    public synchronized List<PhaseStatistics> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    /**
+     * Return the statistics of the first completed phase with the given name, or null
+     * if there is no such phase.
+     */
+    public synchronized PhaseStatistics getPhase(String name) {
+        for (PhaseStatistics phase : phases)
+            if (phase.name.equals(name))
+                return phase;
+        return null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder b = new StringBuilder();
+        for (PhaseStatistics phase : phases)
+            b.append(phase).append('\n');
+        return b.toString();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The resources consumed by a phase of a diff computation (parsing, matching, etc.).
+ * The times are in nanoseconds. The CPU time and the allocated bytes are those of the
+ * thread executing the phase, and are equal to -1 when the JVM cannot provide them.
+ *
+ * @see PhaseListener
+ */
+public final class PhaseStatistics {
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The name of the phase.
+     */
+    public final String name;
+
+    /**
+     * The elapsed wall time, in nanoseconds.
+     */
+    public final long wallTime;
+
+    /**
+     * The CPU time of the thread executing the phase, in nanoseconds.
+     */
+    public final long cpuTime;
+
+    /**
+     * The number of bytes allocated by the thread executing the phase.
+     */
+    public final long allocatedBytes;
+
+    public PhaseStatistics(String name, long wallTime, long cpuTime, long allocatedBytes) {
+        this.name = name;
+        this.wallTime = wallTime;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Start measuring a phase with the given name.
+     * @see Probe#stop()
+     */
+    public static Probe start(String name) {
+        return new Probe(name);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: wall=%.3fms cpu=%.3fms allocated=%dB",
+                name, wallTime / 1e6, cpuTime / 1e6, allocatedBytes);
+    }
+
+    private static long currentCpuTime() {
+        if (THREAD_BEAN.isCurrentThreadCpuTimeSupported())
+            return THREAD_BEAN.getCurrentThreadCpuTime();
+        return -1;
+    }
+
+    private static long currentAllocatedBytes() {
+        if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getCurrentThreadAllocatedBytes();
+        return -1;
+    }
+
+    private static long difference(long start, long end) {
+        return (start == -1 || end == -1) ? -1 : end - start;
+    }
+
+    /**
+     * An ongoing measure of a phase, that must be stopped in the thread that started it.
+     */
+    public static final class Probe {
+        private final String name;
+        private final long startWallTime;
+        private final long startCpuTime;
+        private final long startAllocatedBytes;
+
+        private Probe(String name) {
+            this.name = name;
+            this.startAllocatedBytes = currentAllocatedBytes();
+            this.startCpuTime = currentCpuTime();
+            this.startWallTime = System.nanoTime();
+        }
+
+        /**
+         * Stop the measure and return the statistics of the phase.
+         */
+        public PhaseStatistics stop() {
+            long wallTime = System.nanoTime() - startWallTime;
+            long cpuTime = difference(startCpuTime, currentCpuTime());
+            long allocatedBytes = difference(startAllocatedBytes, currentAllocatedBytes());
+            return new PhaseStatistics(name, wallTime, cpuTime, allocatedBytes);
+        }
+    }
+}
@@ -25,12 +25,18 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 
 public abstract class Registry<K, C, A> {
-    protected Set<Entry> entries = new TreeSet<>((o1, o2) -> {
+    protected final Comparator<Entry> order = (o1, o2) -> {
         int cmp = o1.priority - o2.priority;
         if (cmp == 0)
             cmp = o1.id.compareToIgnoreCase(o2.id); // FIXME or not ... is id a good unique stuff
         return cmp;
-    });
+    };
+
+    protected Set<Entry> entries = new TreeSet<>(order);
+
+    // Indexes of the entries, keeping the entry of highest priority for each key.
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final Map<Class<?>, Entry> entriesByClass = new HashMap<>();
 
     public static class Priority {
         public static final int MAXIMUM = 0;
@@ -59,22 +65,45 @@ public abstract class Registry<K, C, A> {
     }
 
     public Entry findById(String id) {
-        for (Entry e: entries)
-            if (e.id.equals(id))
-                return e;
-        return null;
+        return entriesById.get(id);
     }
 
     public void install(Class<? extends C> clazz, A annotation) {
-        Entry entry = newEntry(clazz, annotation);
-        entries.add(entry);
+        install(clazz, annotation, newFactory(clazz));
+    }
+
+    /**
+     * Install the provided class, instantiated by the provided factory rather than
+     * through reflection.
+     *
+     * @see RegistryIndex
+     */
+    public void install(Class<? extends C> clazz, A annotation, Factory<? extends C> factory) {
+        Entry entry = newEntry(clazz, annotation, factory);
+        if (entries.add(entry)) {
+            entriesById.merge(entry.id, entry, this::first);
+            entriesByClass.merge(entry.clazz, entry, this::first);
+        }
+    }
+
+    private Entry first(Entry e1, Entry e2) {
+        return order.compare(e1, e2) <= 0 ? e1 : e2;
     }
 
     public void clear() {
         entries.clear();
+        entriesById.clear();
+        entriesByClass.clear();
     }
 
-    protected abstract Entry newEntry(Class<? extends C> clazz, A annotation);
+    protected abstract Entry newEntry(Class<? extends C> clazz, A annotation, Factory<? extends C> factory);
+
+    /**
+     * Return the factory of the classes installed without factory.
+     */
+    protected Factory<? extends C> newFactory(Class<? extends C> clazz) {
+        return defaultFactory(clazz);
+    }
 
     protected Entry findEntry(K key) {
         for (Entry e: entries)
@@ -84,10 +113,7 @@ public abstract class Registry<K, C, A> {
     }
 
     public Entry findByClass(Class<? extends C> aClass) {
-        for (Entry e: entries)
-            if (e.clazz.equals(aClass))
-                return e;
-        return null;
+        return entriesByClass.get(aClass);
     }
 
     public Set<Entry> getEntries() {
@@ -0,0 +1,48 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.utils;
+
+import java.util.ServiceLoader;
+
+/**
+ * An index of the tree generators, matchers and clients of a module, generated at build time
+ * by the registry annotation processor from their <code>@Register</code> annotations. Installing
+ * an index neither scans the classpath nor uses reflection.
+ */
+public interface RegistryIndex {
+    /**
+     * Install the classes of the index in their registries.
+     */
+    void install();
+
+    /**
+     * Install all the indexes found by the {@link ServiceLoader} of the current thread,
+     * and return whether at least one index has been found.
+     */
+    static boolean installAll() {
+        boolean found = false;
+        for (RegistryIndex index : ServiceLoader.load(RegistryIndex.class)) {
+            index.install();
+            found = true;
+        }
+        return found;
+    }
+}
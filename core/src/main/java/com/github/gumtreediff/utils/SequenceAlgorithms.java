@@ -180,6 +180,41 @@ public final class SequenceAlgorithms {
         return extractIndexes(lengths, s0.size(), s1.size());
     }
 
+    /**
+     * Returns the longest strictly increasing subsequence of the given values, computed in
+     * O(n log n). Among the longest subsequences, the one using the smallest indexes first is
+     * returned, which is the one that the dynamic programming longest common subsequence picks
+     * when the values are the positions of the elements of a sequence in a permutation of it.
+     *
+     * @return the indexes of the values belonging to the subsequence, in increasing order.
+     */
+    public static int[] longestIncreasingSubsequence(int[] values) {
+        // lengths[i] is the length of the longest increasing subsequence starting at i.
+        int[] lengths = new int[values.length];
+        int[] tails = new int[values.length];
+        int size = 0;
+        for (int i = values.length - 1; i >= 0; i--) {
+            int value = -values[i];
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (tails[middle] < value) low = middle + 1;
+                else high = middle;
+            }
+            tails[low] = value;
+            if (low == size) size++;
+            lengths[i] = low + 1;
+        }
+
+        int[] indexes = new int[size];
+        int count = 0;
+        for (int i = 0; i < values.length && count < size; i++)
+            if (lengths[i] == size - count && (count == 0 || values[i] > values[indexes[count - 1]]))
+                indexes[count++] = i;
+        return indexes;
+    }
+
     private static List<int[]> extractIndexes(int[][] lengths, int length1, int length2) {
         List<int[]> indexes = new ArrayList<>();
 
@@ -0,0 +1,108 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.ActionClusterFinder;
+import com.github.gumtreediff.actions.ChawatheScriptGenerator;
+import com.github.gumtreediff.actions.EditScript;
+import com.github.gumtreediff.actions.model.*;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.tree.DefaultTree;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TypeSet;
+import com.github.gumtreediff.utils.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+
+public class TestActionClusterFinder {
+    @Test
+    public void testWithActionExample() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getActionPair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore ms = new MappingStore(src, dst);
+        ms.addMapping(src, dst);
+        ms.addMapping(src.getChild(1), dst.getChild(0));
+        ms.addMapping(src.getChild("1.0"), dst.getChild("0.0"));
+        ms.addMapping(src.getChild("1.1"), dst.getChild("0.1"));
+        ms.addMapping(src.getChild(0), dst.getChild(1).getChild(0));
+        ms.addMapping(src.getChild("0.0"), dst.getChild("1.0.0"));
+        ms.addMapping(src.getChild(4), dst.getChild(3));
+        ms.addMapping(src.getChild("4.0"), dst.getChild("3.0.0.0"));
+        EditScript actions = new ChawatheScriptGenerator().computeActions(ms);
+
+        ActionClusterFinder finder = new ActionClusterFinder(actions);
+        List<Set<Action>> clusters = finder.getClusters();
+        assertEquals(8, clusters.size());
+
+        // Insertion of x and of its child w.
+        Set<Action> inserts = clusters.get(1);
+        assertIterableEquals(List.of(new Insert(dst.getChild(2), src, 3),
+                new Insert(dst.getChild("2.0"), dst.getChild(2), 0)), inserts);
+        assertEquals(new Insert(dst.getChild(2), src, 3).toString(), finder.getClusterLabel(inserts));
+
+        // Deletion of g and of its child h, the child being deleted first.
+        Set<Action> deletes = clusters.get(6);
+        assertIterableEquals(List.of(new Delete(src.getChild("2.0")), new Delete(src.getChild(2))), deletes);
+        assertEquals(new Delete(src.getChild(2)).toString(), finder.getClusterLabel(deletes));
+
+        assertEquals("UPDATE from f to y", finder.getClusterLabel(clusters.get(4)));
+    }
+
+    @Test
+    public void testMovesAndUpdates() {
+        Tree root = new DefaultTree(TypeSet.type("root"));
+        List<Tree> children = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Tree child = new DefaultTree(TypeSet.type("child"), "l" + i);
+            root.addChild(child);
+            children.add(child);
+        }
+        Tree other = new DefaultTree(TypeSet.type("other"));
+        Tree inserted = new DefaultTree(TypeSet.type("inserted"));
+
+        EditScript actions = new EditScript();
+        actions.add(new Insert(inserted, null, 0));
+        actions.add(new Move(children.get(0), other, 0));
+        actions.add(new Update(children.get(1), "foo"));
+        actions.add(new Move(other, children.get(3), 0));
+        actions.add(new Move(children.get(2), other, 1));
+        actions.add(new Update(children.get(3), "foo"));
+
+        ActionClusterFinder finder = new ActionClusterFinder(actions);
+        List<Set<Action>> clusters = finder.getClusters();
+        assertEquals(4, clusters.size());
+        assertIterableEquals(List.of(actions.get(0)), clusters.get(0));
+        assertEquals(actions.get(0).toString(), finder.getClusterLabel(clusters.get(0)));
+        assertIterableEquals(List.of(actions.get(1), actions.get(4)), clusters.get(1));
+        assertEquals("MOVE from " + other, finder.getClusterLabel(clusters.get(1)));
+        assertIterableEquals(List.of(actions.get(2), actions.get(5)), clusters.get(2));
+        assertEquals("UPDATE from l1 to foo", finder.getClusterLabel(clusters.get(2)));
+        assertIterableEquals(List.of(actions.get(3)), clusters.get(3));
+    }
+}
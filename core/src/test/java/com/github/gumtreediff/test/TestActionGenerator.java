@@ -22,15 +22,24 @@ package com.github.gumtreediff.test;
 
 import com.github.gumtreediff.actions.*;
 import com.github.gumtreediff.actions.model.*;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TypeSet;
 import com.github.gumtreediff.tree.DefaultTree;
 import com.github.gumtreediff.utils.Pair;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -219,4 +228,108 @@ public class TestActionGenerator {
 
         assertEquals(1, actions.size());
     }
+
+    @Test
+    public void testAlignChildrenOfWideNode() {
+        Tree src = new DefaultTree(TypeSet.type("root"));
+        for (int i = 0; i < 1000; i++)
+            src.addChild(new DefaultTree(TypeSet.type("a"), Integer.toString(i)));
+        Tree dst = src.deepCopy();
+        // Move every tenth child to the end.
+        for (int i = 0; i < 100; i++)
+            dst.addChild(dst.getChildren().remove(9 * i));
+
+        MappingStore mp = new MappingStore(src, dst);
+        mp.addMapping(src, dst);
+        for (Tree t : dst.getChildren())
+            mp.addMapping(src.getChild(Integer.parseInt(t.getLabel())), t);
+
+        EditScript actions = new ChawatheScriptGenerator().computeActions(mp);
+        assertEquals(100, actions.size());
+        for (int i = 0; i < actions.size(); i++)
+            assertEquals(new Move(src.getChild(10 * i), src, 999), actions.get(i));
+        assertEquals(actions.asList(), new OverlayChawatheScriptGenerator().computeActions(mp).asList());
+    }
+
+    @Test
+    public void testOverlayWithZsCustomExample() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getZsCustomPair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore ms = new MappingStore(src, dst);
+        ms.addMapping(src, dst.getChild(0));
+        ms.addMapping(src.getChild(0), dst.getChild("0.0"));
+        ms.addMapping(src.getChild(1), dst.getChild("0.1"));
+        ms.addMapping(src.getChild("1.0"), dst.getChild("0.1.0"));
+        ms.addMapping(src.getChild("1.2"), dst.getChild("0.1.2"));
+        ms.addMapping(src.getChild("1.3"), dst.getChild("0.1.3"));
+
+        String srcBefore = src.toTreeString();
+        EditScript actions = new OverlayChawatheScriptGenerator().computeActions(ms);
+        assertEquals(srcBefore, src.toTreeString());
+        assertSame(null, dst.getParent());
+        assertEquals(new ChawatheScriptGenerator().computeActions(ms).asList(), actions.asList());
+    }
+
+    @Test
+    public void testWithRandomTrees() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Tree src = randomTree(random, 1 + random.nextInt(40));
+            Tree dst = mutate(random, src.deepCopy(), 1 + random.nextInt(10));
+            MappingStore ms = new MappingStore(src, dst);
+            for (Mapping m : new CompositeMatchers.ClassicGumtree().match(src, dst))
+                if (!ms.isSrcMapped(m.first) && !ms.isDstMapped(m.second))
+                    ms.addMapping(m.first, m.second);
+
+            EditScript actions = new OverlayChawatheScriptGenerator().computeActions(ms);
+            EditScript expected = new ChawatheScriptGenerator().computeActions(ms);
+            assertEquals(expected.asList(), actions.asList());
+
+            for (EditScriptGenerator generator : new EditScriptGenerator[] {new ChawatheScriptGenerator(),
+                    new SimplifiedChawatheScriptGenerator(), new InsertDeleteChawatheScriptGenerator()}) {
+                List<Action> streamed = new ArrayList<>();
+                generator.computeActions(ms, streamed::add);
+                assertEquals(generator.computeActions(ms).asList(), streamed);
+            }
+        }
+    }
+
+    private static Tree randomTree(Random random, int size) {
+        List<Tree> trees = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Tree t = new DefaultTree(TypeSet.type("t" + random.nextInt(3)), "l" + random.nextInt(3));
+            if (!trees.isEmpty())
+                trees.get(random.nextInt(trees.size())).addChild(t);
+            trees.add(t);
+        }
+        return trees.get(0);
+    }
+
+    private static Tree mutate(Random random, Tree root, int edits) {
+        for (int i = 0; i < edits; i++) {
+            List<Tree> trees = TreeUtils.preOrder(root);
+            Tree t = trees.get(random.nextInt(trees.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    t.setLabel("l" + random.nextInt(3));
+                    break;
+                case 1:
+                    Tree leaf = new DefaultTree(TypeSet.type("t" + random.nextInt(3)), "l" + random.nextInt(3));
+                    t.insertChild(leaf, random.nextInt(t.getChildren().size() + 1));
+                    break;
+                case 2:
+                    if (!t.isRoot() && t.isLeaf())
+                        t.getParent().getChildren().remove(t);
+                    break;
+                default:
+                    Tree target = trees.get(random.nextInt(trees.size()));
+                    if (!t.isRoot() && !TreeUtils.preOrder(t).contains(target)) {
+                        t.getParent().getChildren().remove(t);
+                        target.insertChild(t, random.nextInt(target.getChildren().size() + 1));
+                    }
+            }
+        }
+        return root;
+    }
 }
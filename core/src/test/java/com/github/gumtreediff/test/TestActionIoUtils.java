@@ -22,6 +22,7 @@ package com.github.gumtreediff.test;
 
 import com.github.gumtreediff.actions.ChawatheScriptGenerator;
 import com.github.gumtreediff.actions.EditScript;
+import com.github.gumtreediff.actions.SimplifiedChawatheScriptGenerator;
 import com.github.gumtreediff.io.ActionsIoUtils;
 import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.matchers.MappingStore;
@@ -167,4 +168,26 @@ public class TestActionIoUtils {
                         "  <update-node tree=\"0: foo [1,11]\" label=\"bar\"/>\n" +
                         "</actions>\n"));
     }
+
+    @Test
+    public void testStreamedActions() throws Exception {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getActionPair();
+        TreeContext tc1 = trees.first;
+        Tree src = tc1.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore ms = new MappingStore(src, dst);
+        ms.addMapping(src, dst);
+        ms.addMapping(src.getChild(1), dst.getChild(0));
+        ms.addMapping(src.getChild("1.0"), dst.getChild("0.0"));
+        ms.addMapping(src.getChild("1.1"), dst.getChild("0.1"));
+        ms.addMapping(src.getChild(0), dst.getChild(1).getChild(0));
+        ms.addMapping(src.getChild("0.0"), dst.getChild("1.0.0"));
+        ms.addMapping(src.getChild(4), dst.getChild(3));
+        ms.addMapping(src.getChild("4.0"), dst.getChild("3.0.0.0"));
+        SimplifiedChawatheScriptGenerator gen = new SimplifiedChawatheScriptGenerator();
+        EditScript es = gen.computeActions(ms);
+        assertEquals(ActionsIoUtils.toText(tc1, es, ms).toString(), ActionsIoUtils.toText(tc1, gen, ms).toString());
+        assertEquals(ActionsIoUtils.toJson(tc1, es, ms).toString(), ActionsIoUtils.toJson(tc1, gen, ms).toString());
+        assertEquals(ActionsIoUtils.toXml(tc1, es, ms).toString(), ActionsIoUtils.toXml(tc1, gen, ms).toString());
+    }
 }
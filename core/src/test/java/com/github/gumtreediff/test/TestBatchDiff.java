@@ -0,0 +1,149 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.BatchDiff;
+import com.github.gumtreediff.actions.Diff;
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.*;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.Reader;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBatchDiff {
+    @BeforeAll
+    public static void prepareMatcher() {
+        Matcher matcher = new CompositeMatchers.SimpleGumtree();
+        Matchers.getInstance().install(matcher.getClass(),
+                matcher.getClass().getAnnotation(com.github.gumtreediff.matchers.Register.class));
+    }
+
+    @BeforeAll
+    public static void prepareTreeGenerator() {
+        Register r = TreeIoUtils.XmlInternalGenerator.class.getAnnotation(Register.class);
+        TreeGenerators.getInstance().install(TreeIoUtils.XmlInternalGenerator.class, r);
+    }
+
+    private static List<Pair<File, File>> pairs() {
+        List<Pair<File, File>> pairs = new ArrayList<>();
+        for (String name : Arrays.asList("action", "Dummy", "zs", "gumtree"))
+            for (int i = 0; i < 3; i++)
+                pairs.add(new Pair<>(new File("src/test/resources/" + name + "_v0.xml"),
+                        new File("src/test/resources/" + name + "_v1.xml")));
+        return pairs;
+    }
+
+    private static BatchDiff batch() {
+        return new BatchDiff("xml", "gumtree-simple", new GumtreeProperties());
+    }
+
+    @Test
+    public void testAllDiffsComputed() throws Exception {
+        List<Pair<File, File>> pairs = pairs();
+        Map<File, Integer> sizes = new HashMap<>();
+        batch().setParallelism(4).run(pairs, (src, dst, diff) -> {
+            sizes.merge(src, 1, Integer::sum);
+            Diff expected = Diff.compute(src.getPath(), dst.getPath(), "xml", "gumtree-simple",
+                    new GumtreeProperties());
+            assertEquals(expected.editScript.size(), diff.editScript.size());
+        });
+        assertEquals(4, sizes.size());
+        for (int count : sizes.values())
+            assertEquals(3, count);
+    }
+
+    @Test
+    public void testSingleDiffInFlight() throws Exception {
+        List<File> sources = new ArrayList<>();
+        batch().setParallelism(2).setMaxInFlight(1).run(pairs(), (src, dst, diff) -> sources.add(src));
+        assertEquals(pairs().size(), sources.size());
+    }
+
+    @Test
+    public void testFailedDiffs() throws Exception {
+        List<Pair<File, File>> pairs = new ArrayList<>(pairs());
+        File missing = new File("src/test/resources/missing_v0.xml");
+        pairs.add(new Pair<>(missing, new File("src/test/resources/action_v1.xml")));
+        List<File> failed = new ArrayList<>();
+        int[] computed = new int[1];
+        batch().run(pairs, new BatchDiff.Sink() {
+            @Override
+            public void diffComputed(File src, File dst, Diff diff) {
+                computed[0]++;
+            }
+
+            @Override
+            public void diffFailed(File src, File dst, Throwable e) {
+                failed.add(src);
+            }
+        });
+        assertEquals(pairs().size(), computed[0]);
+        assertEquals(Collections.singletonList(missing), failed);
+    }
+
+    @Test
+    public void testFailedDiffsOnErrors() throws Exception {
+        TreeGenerators.getInstance().install(OverflowTreeGenerator.class,
+                OverflowTreeGenerator.class.getAnnotation(Register.class));
+        List<Throwable> failures = new ArrayList<>();
+        new BatchDiff("overflow", "gumtree-simple", new GumtreeProperties()).run(pairs(), new BatchDiff.Sink() {
+            @Override
+            public void diffComputed(File src, File dst, Diff diff) {
+                fail("No diff can be computed");
+            }
+
+            @Override
+            public void diffFailed(File src, File dst, Throwable e) {
+                failures.add(e);
+            }
+        });
+        assertEquals(pairs().size(), failures.size());
+        for (Throwable e : failures)
+            assertTrue(e instanceof StackOverflowError);
+    }
+
+    @Test
+    public void testSinkFailure() {
+        Exception e = assertThrows(IllegalStateException.class, () -> batch().setMaxInFlight(2).run(pairs(),
+                (src, dst, diff) -> {
+                    throw new IllegalStateException("sink");
+                }));
+        assertEquals("sink", e.getMessage());
+    }
+
+    @Register(id = "overflow")
+    public static class OverflowTreeGenerator extends TreeGenerator {
+        @Override
+        protected TreeContext generate(Reader r) {
+            throw new StackOverflowError();
+        }
+    }
+}
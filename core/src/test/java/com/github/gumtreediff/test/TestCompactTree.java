@@ -0,0 +1,140 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.EditScriptGenerator;
+import com.github.gumtreediff.actions.OverlayChawatheScriptGenerator;
+import com.github.gumtreediff.actions.SimplifiedChawatheScriptGenerator;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.Mapping;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.*;
+import com.github.gumtreediff.utils.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCompactTree {
+    @Test
+    public void testConversion() {
+        TreeContext context = TreeLoader.load("/action_v0.xml");
+        CompactTreeContext compact = CompactTreeContext.fromTreeContext(context);
+        Tree root = context.getRoot();
+        Tree compactRoot = compact.getRoot();
+        assertEquals(root.getMetrics().size, compact.size());
+        assertTrue(root.isIsomorphicTo(compactRoot));
+        assertTrue(compactRoot.isIsomorphicTo(root));
+
+        List<Tree> nodes = TreeUtils.preOrder(root);
+        List<Tree> compactNodes = TreeUtils.preOrder(compactRoot);
+        for (int i = 0; i < nodes.size(); i++) {
+            Tree t = nodes.get(i);
+            Tree c = compactNodes.get(i);
+            assertEquals(i, ((CompactTree) c).getId());
+            assertEquals(t.getPos(), c.getPos());
+            assertEquals(t.getLength(), c.getLength());
+            assertEquals(t.getChildren().size(), c.getChildren().size());
+            assertEquals(t.positionInParent(), c.positionInParent());
+            assertEquals(t.getMetrics().hash, c.getMetrics().hash);
+            assertEquals(t.getMetrics().size, c.getMetrics().size);
+            assertEquals(t.getMetrics().height, c.getMetrics().height);
+            assertEquals(t.getMetrics().depth, c.getMetrics().depth);
+            assertEquals(t.getMetrics().position, c.getMetrics().position);
+        }
+    }
+
+    @Test
+    public void testNavigation() {
+        CompactTreeContext context = new CompactTreeContext(2);
+        int a = context.addNode(CompactTreeContext.NO_NODE, TypeSet.type("a"), null, 0, 10);
+        int b = context.addNode(a, TypeSet.type("b"), "foo", 0, 3);
+        int c = context.addNode(a, TypeSet.type("c"), null, 4, 6);
+        final int d = context.addNode(c, TypeSet.type("d"), "bar", 4, 6);
+        assertEquals(4, context.size());
+        assertEquals(b, context.getFirstChild(a));
+        assertEquals(c, context.getNextSibling(b));
+        assertEquals(CompactTreeContext.NO_NODE, context.getNextSibling(c));
+        assertEquals(c, context.getChild(a, 1));
+
+        Tree root = context.getRoot();
+        assertEquals(root, context.getTree(a));
+        assertEquals(root.hashCode(), context.getTree(a).hashCode());
+        assertNotEquals(root, context.getTree(b));
+        assertTrue(root.isRoot());
+        assertFalse(root.isLeaf());
+        assertEquals(Tree.NO_LABEL, root.getLabel());
+        assertEquals("foo", root.getChild(0).getLabel());
+        assertEquals(root, root.getChild(1).getParent());
+        assertEquals(context.getTree(d), root.getChild("1.0"));
+        assertTrue(root.getChild("1.0").isLeaf());
+        assertEquals(1, root.getChildPosition(context.getTree(c)));
+        assertEquals(3, root.getDescendants().size());
+        assertEquals(2, root.getChild("1.0").getMetrics().depth);
+        assertEquals(4, root.getMetrics().size);
+
+        root.getChild(0).setLabel("baz");
+        assertEquals("baz", context.getLabel(b));
+        root.setMetadata("key", "value");
+        assertEquals("value", root.getMetadata("key"));
+        assertNull(root.getChild(0).getMetadata("key"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> context.addNode(CompactTreeContext.NO_NODE, TypeSet.type("e"), null, 0, 0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> root.addChild(new DefaultTree(TypeSet.type("e"))));
+        assertThrows(UnsupportedOperationException.class,
+                () -> root.getChild(0).setParent(null));
+
+        Tree copy = root.deepCopy();
+        assertTrue(copy instanceof DefaultTree);
+        assertTrue(copy.isIsomorphicTo(root));
+    }
+
+    @Test
+    public void testMatchersRunUnchanged() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getActionPair();
+        CompactTreeContext src = CompactTreeContext.fromTreeContext(trees.first);
+        CompactTreeContext dst = CompactTreeContext.fromTreeContext(trees.second);
+        for (Matcher matcher : new Matcher[] {new CompositeMatchers.SimpleGumtree(),
+                new CompositeMatchers.ClassicGumtree(), new CompositeMatchers.HybridGumtree(),
+                new CompositeMatchers.Theta()}) {
+            MappingStore expected = matcher.match(trees.first.getRoot(), trees.second.getRoot());
+            MappingStore actual = matcher.match(src.getRoot(), dst.getRoot());
+            assertEquals(toIds(expected), toIds(actual));
+            for (EditScriptGenerator generator : new EditScriptGenerator[] {new SimplifiedChawatheScriptGenerator(),
+                    new OverlayChawatheScriptGenerator()})
+                assertEquals(generator.computeActions(expected).size(), generator.computeActions(actual).size());
+        }
+    }
+
+    private static Set<Pair<Integer, Integer>> toIds(MappingStore ms) {
+        List<Tree> srcs = TreeUtils.preOrder(ms.src);
+        List<Tree> dsts = TreeUtils.preOrder(ms.dst);
+        Set<Pair<Integer, Integer>> ids = new HashSet<>();
+        for (Mapping m : ms)
+            ids.add(new Pair<>(srcs.indexOf(m.first), dsts.indexOf(m.second)));
+        return ids;
+    }
+}
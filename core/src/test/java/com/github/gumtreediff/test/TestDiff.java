@@ -25,14 +25,19 @@ import com.github.gumtreediff.gen.Register;
 import com.github.gumtreediff.gen.TreeGenerators;
 import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.matchers.*;
+import com.github.gumtreediff.utils.PhaseRecorder;
+import com.github.gumtreediff.utils.PhaseStatistics;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestDiff {
 
@@ -71,6 +76,21 @@ public class TestDiff {
         assertNoChanges(resultWithFiles.mappings);
     }
 
+    @Test
+    public void testComputeWithListener() throws IOException {
+        PhaseRecorder recorder = new PhaseRecorder();
+        Diff diff = Diff.compute(PATH_DUMMY_FILE, PATH_DUMMY_FILE, TREE_GENERATOR_ID, MATCHER_ID,
+                new GumtreeProperties(), recorder);
+        assertNoChanges(diff.mappings);
+
+        List<String> phases = recorder.getPhases().stream().map(p -> p.name).collect(Collectors.toList());
+        assertEquals(List.of("parse-src", "parse-dst", "GreedySubtreeMatcher", "SimpleBottomUpMatcher",
+                "match", "edit-script"), phases);
+        for (PhaseStatistics phase : recorder.getPhases())
+            assertTrue(phase.wallTime >= 0);
+        assertTrue(recorder.getPhase("match").wallTime >= recorder.getPhase("GreedySubtreeMatcher").wallTime);
+    }
+
     @AfterAll
     public static void clear() {
         Matchers.getInstance().clear();
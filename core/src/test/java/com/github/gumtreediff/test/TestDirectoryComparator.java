@@ -19,10 +19,24 @@
 
 package com.github.gumtreediff.test;
 
+import com.github.gumtreediff.io.DigestCache;
 import com.github.gumtreediff.io.DirectoryComparator;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -118,4 +132,140 @@ public class TestDirectoryComparator {
         assertThrows(IllegalArgumentException.class, () ->
                 cmp.unpairFiles(999));
     }
+
+    @Test
+    public void testLargeFiles() throws IOException {
+        Path root = createFolders();
+        try {
+            for (boolean parallel : new boolean[] {true, false}) {
+                DirectoryComparator cmp = new DirectoryComparator(root.resolve("left").toString(),
+                        root.resolve("right").toString());
+                cmp.setParallel(parallel);
+                cmp.compare();
+                assertEquals(Set.of("big_modified", "small_modified", "touched_modified", "resized"),
+                        modifiedNames(cmp));
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testTrustModificationTimes() throws IOException {
+        Path root = createFolders();
+        try {
+            DirectoryComparator cmp = new DirectoryComparator(root.resolve("left").toString(),
+                    root.resolve("right").toString());
+            cmp.setTrustModificationTimes(true);
+            cmp.compare();
+            assertEquals(Set.of("big_modified", "small_modified", "resized"), modifiedNames(cmp));
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testDigestCache() throws IOException {
+        Path root = createFolders();
+        try {
+            Path cacheFile = root.resolve("digests");
+            DigestCache cache = new DigestCache(cacheFile);
+            DirectoryComparator cmp = new DirectoryComparator(root.resolve("left").toString(),
+                    root.resolve("right").toString());
+            cmp.setDigestCache(cache);
+            cmp.compare();
+            assertEquals(Set.of("big_modified", "small_modified", "touched_modified", "resized"), modifiedNames(cmp));
+            assertEquals(10, cache.size()); // The files of different sizes are not digested.
+            cache.save();
+
+            DigestCache loaded = new DigestCache(cacheFile);
+            assertEquals(10, loaded.size());
+            Path file = root.resolve("left").resolve("big_same");
+            assertArrayEquals(cache.getDigest(file), loaded.getDigest(file));
+
+            // A modified file is digested again.
+            byte[] content = Files.readAllBytes(file);
+            content[0]++;
+            Files.write(file, content);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            assertFalse(Arrays.equals(cache.getDigest(root.resolve("right").resolve("big_same")),
+                    loaded.getDigest(file)));
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testDigestCacheUnusualPaths() throws IOException {
+        Path root = Files.createTempDirectory("gumtree-digests");
+        try {
+            Path cacheFile = root.resolve("digests");
+            DigestCache cache = new DigestCache(cacheFile);
+            List<Path> files = new ArrayList<>();
+            for (String name : new String[] {"two words", "new\nline", "trailing space ", "été"}) {
+                try {
+                    files.add(Files.write(root.resolve(name), name.getBytes(StandardCharsets.UTF_8)));
+                } catch (IOException | InvalidPathException e) {
+                    // The file system does not support this name.
+                }
+            }
+            for (Path file : files)
+                cache.getDigest(file);
+            cache.save();
+
+            DigestCache loaded = new DigestCache(cacheFile);
+            assertEquals(files.size(), loaded.size());
+            for (Path file : files)
+                assertArrayEquals(cache.getDigest(file), loaded.getDigest(file));
+            assertEquals(files.size(), loaded.size()); // No digest has been recomputed under another key.
+
+            // A truncated file is ignored.
+            byte[] content = Files.readAllBytes(cacheFile);
+            Files.write(cacheFile, Arrays.copyOf(content, content.length - 1));
+            assertEquals(0, new DigestCache(cacheFile).size());
+        } finally {
+            delete(root);
+        }
+    }
+
+    private static Set<String> modifiedNames(DirectoryComparator cmp) {
+        return cmp.getModifiedFiles().stream().map(p -> p.first.getName()).collect(Collectors.toSet());
+    }
+
+    private static Path createFolders() throws IOException {
+        Path root = Files.createTempDirectory("gumtree-dircmp");
+        Path left = Files.createDirectories(root.resolve("left"));
+        Path right = Files.createDirectories(root.resolve("right"));
+        byte[] big = new byte[200 * 1024];
+        for (int i = 0; i < big.length; i++)
+            big[i] = (byte) (i * 31);
+        Files.write(left.resolve("big_same"), big);
+        Files.write(right.resolve("big_same"), big);
+        Files.write(left.resolve("big_modified"), big);
+        big[big.length - 1]++;
+        Files.write(right.resolve("big_modified"), big);
+        Files.write(left.resolve("small_same"), "foo".getBytes());
+        Files.write(right.resolve("small_same"), "foo".getBytes());
+        Files.write(left.resolve("small_modified"), "foo".getBytes());
+        Files.write(right.resolve("small_modified"), "bar".getBytes());
+        Files.write(left.resolve("resized"), "foo".getBytes());
+        Files.write(right.resolve("resized"), "foobar".getBytes());
+        Files.write(left.resolve("touched_modified"), "foo".getBytes());
+        Files.write(right.resolve("touched_modified"), "bar".getBytes());
+        for (String name : new String[] {"big_same", "big_modified", "small_same", "small_modified"}) {
+            Files.setLastModifiedTime(left.resolve(name), FileTime.fromMillis(1000));
+            Files.setLastModifiedTime(right.resolve(name), FileTime.fromMillis(2000));
+        }
+        // Same size and same modification time, but different contents.
+        Files.setLastModifiedTime(left.resolve("touched_modified"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(right.resolve("touched_modified"), FileTime.fromMillis(1000));
+        return root;
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+                Files.delete(path);
+        }
+    }
 }
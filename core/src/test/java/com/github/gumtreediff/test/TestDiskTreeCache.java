@@ -0,0 +1,180 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.gen.DiskTreeCache;
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDiskTreeCache {
+    private static final String GENERATOR_ID = "xml";
+    private static final String DUMMY_V0 = "src/test/resources/Dummy_v0.xml";
+    private static final String DUMMY_V1 = "src/test/resources/Dummy_v1.xml";
+
+    private Path directory;
+
+    @BeforeAll
+    public static void prepareTreeGenerator() {
+        Register r = TreeIoUtils.XmlInternalGenerator.class.getAnnotation(Register.class);
+        TreeGenerators.getInstance().install(TreeIoUtils.XmlInternalGenerator.class, r);
+        TreeGenerators.getInstance().install(MetadataGenerator.class,
+                MetadataGenerator.class.getAnnotation(Register.class));
+    }
+
+    @AfterAll
+    public static void clear() {
+        TreeGenerators.getInstance().clear();
+    }
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("gumtree-cache");
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        new DiskTreeCache(directory).clear();
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testPersistence() throws IOException {
+        DiskTreeCache cache = new DiskTreeCache(directory);
+        final TreeContext parsed = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        DiskTreeCache other = new DiskTreeCache(directory);
+        TreeContext cached = other.getTree(DUMMY_V0, GENERATOR_ID);
+        assertEquals(1, other.getHits());
+        assertEquals(0, other.getMisses());
+        assertNotSame(parsed.getRoot(), cached.getRoot());
+        assertSameTrees(parsed.getRoot(), cached.getRoot());
+
+        other.getTree(DUMMY_V1, GENERATOR_ID);
+        assertEquals(1, other.getMisses());
+        assertEquals(2, countFiles());
+    }
+
+    @Test
+    public void testKeyedByContent() throws IOException {
+        DiskTreeCache cache = new DiskTreeCache(directory);
+        cache.getTree(DUMMY_V0, GENERATOR_ID);
+        TreeContext cached = cache.getTree(Files.readAllBytes(Path.of(DUMMY_V0)), GENERATOR_ID);
+        assertEquals(1, cache.getHits());
+        assertSameTrees(TreeGenerators.getInstance().getTree(DUMMY_V0, GENERATOR_ID).getRoot(), cached.getRoot());
+    }
+
+    @Test
+    public void testCachedTreesAreIndependent() throws IOException {
+        DiskTreeCache cache = new DiskTreeCache(directory);
+        cache.getTree(DUMMY_V0, GENERATOR_ID);
+        TreeContext first = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        first.getRoot().setLabel("foo");
+        TreeContext second = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertNotEquals("foo", second.getRoot().getLabel());
+    }
+
+    @Test
+    public void testCorruptedFile() throws IOException {
+        DiskTreeCache cache = new DiskTreeCache(directory);
+        final TreeContext parsed = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        Path file;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            Iterator<Path> it = files.iterator();
+            file = it.next();
+        }
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length / 2));
+
+        TreeContext reparsed = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertEquals(2, cache.getMisses());
+        assertSameTrees(parsed.getRoot(), reparsed.getRoot());
+        cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testStringMetadata() throws IOException {
+        DiskTreeCache cache = new DiskTreeCache(directory);
+        cache.getTree(DUMMY_V0, "metadata");
+        TreeContext cached = cache.getTree(DUMMY_V0, "metadata");
+        assertEquals(1, cache.getHits());
+        assertEquals("context", cached.getMetadata("name"));
+        assertNull(cached.getMetadata("count"));
+        for (Tree t : cached.getRoot().preOrder()) {
+            assertEquals(t.getLabel(), t.getMetadata("id"));
+            assertNull(t.getMetadata("depth"));
+        }
+    }
+
+    @Register(id = "metadata")
+    public static class MetadataGenerator extends TreeGenerator {
+        @Override
+        protected TreeContext generate(Reader r) throws IOException {
+            TreeContext context = TreeIoUtils.fromXml().generateFrom().reader(r);
+            context.setMetadata("name", "context");
+            context.setMetadata("count", 1);
+            for (Tree t : context.getRoot().preOrder()) {
+                t.setMetadata("id", t.getLabel());
+                t.setMetadata("depth", t.getMetrics().depth);
+            }
+            return context;
+        }
+    }
+
+    private int countFiles() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path ignored : files)
+                count++;
+        }
+        return count;
+    }
+
+    private static void assertSameTrees(Tree expected, Tree actual) {
+        assertTrue(expected.isIsomorphicTo(actual));
+        Iterator<Tree> actualNodes = actual.preOrder().iterator();
+        for (Tree node : expected.preOrder()) {
+            Tree other = actualNodes.next();
+            assertEquals(node.getPos(), other.getPos());
+            assertEquals(node.getLength(), other.getLength());
+        }
+    }
+}
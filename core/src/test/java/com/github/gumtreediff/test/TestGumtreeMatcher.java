@@ -21,6 +21,7 @@
 package com.github.gumtreediff.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.gumtreediff.tree.DefaultTree;
@@ -34,6 +35,7 @@ import com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher;
 import com.github.gumtreediff.matchers.heuristic.gt.GreedySubtreeMatcher;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeMetrics;
 import com.github.gumtreediff.utils.Pair;
 
 public class TestGumtreeMatcher {
@@ -60,6 +62,66 @@ public class TestGumtreeMatcher {
         assertTrue(ms1.has(t1.getChild("1.1"), t2.getChild("0.1")));
     }
 
+    @Test
+    public void testHashCollisionVerification() {
+        Tree src = new DefaultTree(TypeSet.type("r"));
+        Tree srcLeaf = new DefaultTree(TypeSet.type("a"), "foo");
+        src.addChild(srcLeaf);
+        Tree dst = new DefaultTree(TypeSet.type("r"));
+        Tree dstLeaf = new DefaultTree(TypeSet.type("a"), "bar");
+        dst.addChild(dstLeaf);
+        src.getMetrics();
+        dst.getMetrics();
+
+        // Simulate a collision of both the 32-bit and 64-bit hashcodes of the leaves.
+        TreeMetrics m = srcLeaf.getMetrics();
+        dstLeaf.setMetrics(new TreeMetrics(m.size, m.height, m.hash, m.longHash, m.structureHash,
+                dstLeaf.getMetrics().depth, dstLeaf.getMetrics().position));
+
+        GreedySubtreeMatcher matcher = new GreedySubtreeMatcher();
+        matcher.setMinPriority(0);
+        matcher.setUseLongHashes(true);
+        assertTrue(matcher.match(src, dst).has(srcLeaf, dstLeaf));
+
+        matcher.setVerifyIsomorphism(true);
+        MappingStore ms = matcher.match(src, dst);
+        assertFalse(ms.has(srcLeaf, dstLeaf));
+        assertEquals(0, ms.size());
+    }
+
+    @Test
+    public void testAmbiguousHashCollisionVerification() {
+        Tree src = new DefaultTree(TypeSet.type("r"));
+        Tree dst = new DefaultTree(TypeSet.type("r"));
+        for (int i = 0; i < 2; i++) {
+            Tree srcChild = new DefaultTree(TypeSet.type("x"));
+            srcChild.addChild(new DefaultTree(TypeSet.type("a"), "foo"));
+            srcChild.addChild(new DefaultTree(TypeSet.type("b"), "baz"));
+            src.addChild(srcChild);
+            Tree dstChild = new DefaultTree(TypeSet.type("x"));
+            dstChild.addChild(new DefaultTree(TypeSet.type("a"), "bar"));
+            dstChild.addChild(new DefaultTree(TypeSet.type("b"), "baz"));
+            dst.addChild(dstChild);
+        }
+        src.getMetrics();
+        dst.getMetrics();
+
+        // Simulate a collision of the hashcodes of the x subtrees, which are not isomorphic.
+        TreeMetrics m = src.getChild(0).getMetrics();
+        for (Tree dstChild : dst.getChildren())
+            dstChild.setMetrics(new TreeMetrics(m.size, m.height, m.hash, m.longHash, m.structureHash,
+                    dstChild.getMetrics().depth, dstChild.getMetrics().position));
+
+        GreedySubtreeMatcher matcher = new GreedySubtreeMatcher();
+        matcher.setMinPriority(0);
+        matcher.setVerifyIsomorphism(true);
+        MappingStore ms = matcher.match(src, dst);
+        // The colliding subtrees are opened, hence their identical children are still mapped.
+        assertEquals(2, ms.size());
+        assertTrue(ms.has(src.getChild("0.1"), dst.getChild("0.1")));
+        assertTrue(ms.has(src.getChild("1.1"), dst.getChild("1.1")));
+    }
+
     @Test
     public void testMappingComparatorPosInParent() {
         Tree t1 = new DefaultTree(TypeSet.type("root"));
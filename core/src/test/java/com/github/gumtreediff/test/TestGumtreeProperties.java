@@ -147,10 +147,20 @@ class TestGumtreeProperties {
         matcher.configure(properties);
         assertEquals(nl, matcher.getMinPriority());
 
+        assertFalse(matcher.isUsingLongHashes());
+        assertFalse(matcher.isVerifyingIsomorphism());
+        properties.put(ConfigurationOptions.st_longhash, "true");
+        properties.put(ConfigurationOptions.st_verifyiso, true);
+        matcher.configure(properties);
+        assertTrue(matcher.isUsingLongHashes());
+        assertTrue(matcher.isVerifyingIsomorphism());
+
         Set<ConfigurationOptions> options = matcher.getApplicableOptions();
-        assertEquals(2, options.size());
+        assertEquals(4, options.size());
         assertTrue(options.contains(ConfigurationOptions.st_minprio));
         assertTrue(options.contains(ConfigurationOptions.st_priocalc));
+        assertTrue(options.contains(ConfigurationOptions.st_longhash));
+        assertTrue(options.contains(ConfigurationOptions.st_verifyiso));
     }
 
     @Test
@@ -197,7 +207,7 @@ class TestGumtreeProperties {
         assertFalse(composite.getApplicableOptions().isEmpty());
 
         int optionsFromGreedySubMatcher = opGreedySubTree.get().getApplicableOptions().size();
-        assertEquals(2, optionsFromGreedySubMatcher);
+        assertEquals(4, optionsFromGreedySubMatcher);
 
         int optionsFromGreedyBottomUpMatcher = opGreedyBottomUp.get().getApplicableOptions().size();
         assertEquals(2, optionsFromGreedyBottomUpMatcher);
@@ -19,16 +19,21 @@
 
 package com.github.gumtreediff.test;
 
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.IndexedMappingStore;
 import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.MultiMappingStore;
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.DefaultTree;
+import com.github.gumtreediff.tree.TreeContext;
 import com.github.gumtreediff.tree.TypeSet;
+import com.github.gumtreediff.utils.Pair;
 
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,6 +75,61 @@ public class TestMappingStore {
         assertTrue(ms.has(t3, t4));
     }
 
+    @Test
+    public void testIndexedMappingStore() {
+        Tree t1 = new DefaultTree(TypeSet.type("foo"));
+        Tree t2 = new DefaultTree(TypeSet.type("foo"));
+        Tree t3 = new DefaultTree(TypeSet.type("foo"));
+        Tree t4 = new DefaultTree(TypeSet.type("foo"));
+        t3.setParentAndUpdateChildren(t1);
+        t4.setParentAndUpdateChildren(t2);
+        MappingStore ms = new IndexedMappingStore(t1, t2);
+        assertEquals(0, ms.size());
+        assertFalse(ms.isSrcMapped(t1));
+        assertFalse(ms.isDstMapped(t2));
+        assertNull(ms.getDstForSrc(t1));
+        assertNull(ms.getSrcForDst(t2));
+        ms.addMapping(t1, t2);
+        assertEquals(1, ms.size());
+        assertTrue(ms.isSrcMapped(t1));
+        assertTrue(ms.isDstMapped(t2));
+        assertSame(t2, ms.getDstForSrc(t1));
+        assertSame(t1, ms.getSrcForDst(t2));
+        assertFalse(ms.areBothUnmapped(t1, t3));
+        assertTrue(ms.areBothUnmapped(t3, t4));
+        Mapping m = ms.asSet().iterator().next();
+        assertEquals(t1, m.first);
+        assertEquals(t2, m.second);
+        ms.removeMapping(t1, t2);
+        assertEquals(0, ms.size());
+        assertFalse(ms.asSet().iterator().hasNext());
+        ms.addMappingRecursively(t1, t2);
+        assertEquals(2, ms.size());
+        assertTrue(ms.has(t1, t2));
+        assertTrue(ms.has(t3, t4));
+        MappingStore copy = new IndexedMappingStore((IndexedMappingStore) ms);
+        copy.removeMapping(t3, t4);
+        assertEquals(1, copy.size());
+        assertEquals(2, ms.size());
+
+        Tree foreign = new DefaultTree(TypeSet.type("foo"));
+        assertFalse(ms.isSrcMapped(foreign));
+        assertThrows(IllegalArgumentException.class, () -> ms.addMapping(foreign, t4));
+    }
+
+    @Test
+    public void testIndexedMappingStoreInMatcher() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getActionPair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        CompositeMatchers.CompositeMatcher matcher = new CompositeMatchers.SimpleGumtree();
+        MappingStore expected = matcher.match(src, dst);
+        matcher.setMappingStoreFactory(IndexedMappingStore::new);
+        MappingStore actual = matcher.match(src, dst);
+        assertTrue(actual instanceof IndexedMappingStore);
+        assertEquals(new HashSet<>(expected.asSet()), new HashSet<>(actual.asSet()));
+    }
+
     @Test
     public void testMultiMappingStore() {
         MultiMappingStore ms = new MultiMappingStore();
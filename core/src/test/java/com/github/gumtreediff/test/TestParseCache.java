@@ -0,0 +1,171 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.gen.ParseCache;
+import com.github.gumtreediff.gen.Register;
+import com.github.gumtreediff.gen.TreeGenerators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.ImmutableTree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestParseCache {
+    private static final String GENERATOR_ID = "xml";
+    private static final String DUMMY_V0 = "src/test/resources/Dummy_v0.xml";
+    private static final String DUMMY_V1 = "src/test/resources/Dummy_v1.xml";
+
+    @BeforeAll
+    public static void prepareTreeGenerator() {
+        Register r = TreeIoUtils.XmlInternalGenerator.class.getAnnotation(Register.class);
+        TreeGenerators.getInstance().install(TreeIoUtils.XmlInternalGenerator.class, r);
+    }
+
+    @AfterAll
+    public static void clear() {
+        TreeGenerators.getInstance().clear();
+    }
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        ParseCache cache = new ParseCache(10);
+        TreeContext t1 = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        TreeContext t2 = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertNotSame(t1, t2);
+        assertSame(t1.getRoot(), t2.getRoot());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        cache.getTree(DUMMY_V1, GENERATOR_ID);
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        assertEquals(1.0 / 3.0, cache.getHitRate(), 0.0001);
+
+        TreeContext expected = TreeGenerators.getInstance().getTree(DUMMY_V0, GENERATOR_ID);
+        assertTrue(expected.getRoot().isIsomorphicTo(t1.getRoot()));
+        assertEquals(expected.getRoot().getMetrics().size, cache.getNodeCount()
+                - TreeGenerators.getInstance().getTree(DUMMY_V1, GENERATOR_ID).getRoot().getMetrics().size);
+    }
+
+    @Test
+    public void testKeyedByContent() throws IOException {
+        ParseCache cache = new ParseCache(10);
+        TreeContext fromFile = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        TreeContext fromContent = cache.getTree(Files.readAllBytes(Paths.get(DUMMY_V0)), GENERATOR_ID);
+        assertSame(fromFile.getRoot(), fromContent.getRoot());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testImmutableTrees() throws IOException {
+        ParseCache cache = new ParseCache(10);
+        TreeContext context = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertTrue(context.getRoot() instanceof ImmutableTree);
+        assertThrows(UnsupportedOperationException.class, () -> context.getRoot().setLabel("foo"));
+        assertThrows(UnsupportedOperationException.class, () -> context.getRoot().getChildren().clear());
+    }
+
+    @Test
+    public void testIndependentContexts() throws IOException {
+        ParseCache cache = new ParseCache(10);
+        TreeContext context = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        context.setMetadata("foo", "bar");
+        TreeContext other = cache.getTree(DUMMY_V0, GENERATOR_ID);
+        assertNull(other.getMetadata("foo"));
+        assertSame(context.getRoot(), other.getRoot());
+    }
+
+    @Test
+    public void testLruEviction() throws IOException {
+        ParseCache cache = new ParseCache(2);
+        byte[] a = tree("a");
+        byte[] b = tree("b");
+        byte[] c = tree("c");
+        cache.getTree(a, GENERATOR_ID);
+        cache.getTree(b, GENERATOR_ID);
+        cache.getTree(a, GENERATOR_ID); // b is now the least recently used tree
+        cache.getTree(c, GENERATOR_ID);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.getTree(a, GENERATOR_ID);
+        assertEquals(2, cache.getHits());
+        cache.getTree(b, GENERATOR_ID);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testSizeEviction() throws IOException {
+        ParseCache cache = new ParseCache(100, 5);
+        cache.getTree(tree("a"), GENERATOR_ID);
+        cache.getTree(tree("b"), GENERATOR_ID);
+        assertEquals(4, cache.getNodeCount());
+        cache.getTree(tree("c"), GENERATOR_ID);
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.getNodeCount());
+        assertEquals(1, cache.getEvictions());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getNodeCount());
+    }
+
+    @Test
+    public void testUnknownGenerator() {
+        ParseCache cache = new ParseCache(10);
+        assertThrows(UnsupportedOperationException.class, () -> cache.getTree(DUMMY_V0, "unknown"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        ParseCache cache = new ParseCache(10);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TreeContext>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+                results.add(executor.submit(() -> cache.getTree(DUMMY_V0, GENERATOR_ID)));
+            TreeContext first = results.get(0).get();
+            for (Future<TreeContext> result : results)
+                assertSame(first.getRoot(), result.get().getRoot());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.size());
+        assertEquals(32, cache.getHits() + cache.getMisses());
+    }
+
+    private static byte[] tree(String label) {
+        return String.format("<tree type=\"0\" label=\"%s\"><tree type=\"1\" label=\"x\"/></tree>", label)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
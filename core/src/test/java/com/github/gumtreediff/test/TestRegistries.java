@@ -34,6 +34,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -75,6 +76,74 @@ public class TestRegistries {
         assertEquals(BarMatcher.class, matchers.getMatcherWithFallback("baz").getClass());
     }
 
+    @Test
+    public void testInstallWithFactory() {
+        TreeGenerators generators = TreeGenerators.getInstance();
+        int[] instances = new int[1];
+        generators.install(BazTreeGenerator.class,
+                BazTreeGenerator.class.getAnnotation(com.github.gumtreediff.gen.Register.class),
+                args -> {
+                    instances[0]++;
+                    return new BazTreeGenerator();
+                });
+        assertEquals(0, instances[0]);
+        assertTrue(generators.has("baz"));
+        assertEquals(BazTreeGenerator.class, generators.get("foo.baz").getClass());
+        assertEquals(1, instances[0]);
+        assertEquals(BazTreeGenerator.class, generators.findById("baz").instantiate(null).getClass());
+        assertEquals(2, instances[0]);
+    }
+
+    @Test
+    public void testFindGeneratorForFile() {
+        TreeGenerators generators = new TreeGenerators();
+        for (Class<? extends TreeGenerator> c : Arrays.asList(JsonTreeGenerator.class, ScriptTreeGenerator.class,
+                CmakeTreeGenerator.class, TextTreeGenerator.class))
+            generators.install(c, c.getAnnotation(Register.class));
+
+        assertEquals("script", generators.find("a/b.js").id);
+        assertEquals("script", generators.find("b.ts").id);
+        assertEquals("script", generators.find("C:\\a.b\\b.ts").id);
+        assertNull(generators.find("b.JS"));
+        assertNull(generators.find("dir.js/file"));
+        assertNull(generators.find("dir.js\\file"));
+        assertNull(generators.find("file"));
+        assertEquals("json", generators.find("foo.json").id);
+        assertEquals("json", generators.find("foo.json.js").id);
+        assertEquals("json", generators.find("dir.json/foo.js").id);
+        assertEquals("text", generators.find("foo.txt").id);
+        assertEquals("text", generators.find("CMakeLists.txt").id);
+        assertEquals("cmake", generators.find("foo.cmake").id);
+        // The cache is invalidated by installations.
+        assertEquals("script", generators.find("a/b.js").id);
+        generators.install(BarTreeGenerator.class, BarTreeGenerator.class.getAnnotation(Register.class));
+        assertEquals("bar", generators.find("a/b.foo").id);
+        assertEquals("script", generators.find("a/b.js").id);
+        assertEquals(TextTreeGenerator.class, generators.findById("text").instantiate(null).getClass());
+        assertEquals("cmake", generators.findByClass(CmakeTreeGenerator.class).id);
+
+        generators.clear();
+        assertNull(generators.find("a/b.js"));
+        assertNull(generators.findById("text"));
+        assertNull(generators.findByClass(CmakeTreeGenerator.class));
+    }
+
+    @Register(id = "json", accept = "\\.json", priority = Registry.Priority.MAXIMUM)
+    public static class JsonTreeGenerator extends FooTreeGenerator {
+    }
+
+    @Register(id = "script", accept = "\\.(js|ts)$", priority = Registry.Priority.HIGH)
+    public static class ScriptTreeGenerator extends FooTreeGenerator {
+    }
+
+    @Register(id = "cmake", accept = {"\\.cmake$", ".*CMakeLists.txt$"}, priority = Registry.Priority.LOW)
+    public static class CmakeTreeGenerator extends FooTreeGenerator {
+    }
+
+    @Register(id = "text", accept = "\\.[t][x]t$")
+    public static class TextTreeGenerator extends FooTreeGenerator {
+    }
+
     @Register(id = "foo", accept = "\\.foo$", priority = Registry.Priority.HIGH)
     public static class FooTreeGenerator extends TreeGenerator {
         @Override
@@ -95,6 +164,16 @@ public class TestRegistries {
         }
     }
 
+    @Register(id = "baz", accept = "\\.baz$")
+    public static class BazTreeGenerator extends TreeGenerator {
+        @Override
+        protected TreeContext generate(Reader r) throws IOException {
+            TreeContext ctx = new TreeContext();
+            ctx.setRoot(new DefaultTree(TypeSet.type("baz")));
+            return ctx;
+        }
+    }
+
     @com.github.gumtreediff.matchers.Register(id = "foo")
     public static class FooMatcher implements Matcher {
         @Override
@@ -43,6 +43,18 @@ public class TestSequenceAlgorithms {
         assertArrayEquals(new int[][] { {0, 1, 0, 1}, {2, 3, 2, 3}, {4, 6, 3, 5} }, hunks.toArray());
     }
 
+    @Test
+    public void testLongestIncreasingSubsequence() {
+        assertArrayEquals(new int[] {}, SequenceAlgorithms.longestIncreasingSubsequence(new int[] {}));
+        assertArrayEquals(new int[] {0, 1, 2},
+                SequenceAlgorithms.longestIncreasingSubsequence(new int[] {0, 1, 2}));
+        assertArrayEquals(new int[] {0}, SequenceAlgorithms.longestIncreasingSubsequence(new int[] {2, 1, 0}));
+        assertArrayEquals(new int[] {0, 2, 3, 4},
+                SequenceAlgorithms.longestIncreasingSubsequence(new int[] {0, 6, 2, 4, 5, 3, 1}));
+        assertArrayEquals(new int[] {1, 2, 4},
+                SequenceAlgorithms.longestIncreasingSubsequence(new int[] {3, 0, 1, 1, 2}));
+    }
+
     @Test
     public void testITreeLcss() {
         List<Tree> l1 = Arrays.asList(new DefaultTree[] {
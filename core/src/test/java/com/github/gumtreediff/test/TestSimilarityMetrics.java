@@ -53,6 +53,18 @@ public class TestSimilarityMetrics {
         assertEquals(0.75D, SimilarityMetrics.overlapSimilarity(ms.src, ms.dst, ms));
     }
 
+    @Test
+    public void testNumberOfMappedDescendants() {
+        MappingStore ms = getTestData();
+        assertEquals(4, SimilarityMetrics.numberOfDescendants(ms.src));
+        assertEquals(5, SimilarityMetrics.numberOfDescendants(ms.dst));
+        assertEquals(3, SimilarityMetrics.numberOfMappedDescendants(ms.src, ms.dst, ms));
+        assertEquals(2, SimilarityMetrics.numberOfMappedDescendants(
+                ms.src.getChild(0), ms.dst.getChild(0), ms));
+        assertEquals(0, SimilarityMetrics.numberOfMappedDescendants(
+                ms.src.getChild(0), ms.dst.getChild(1), ms));
+    }
+
     private static MappingStore getTestData() {
         Tree t1 = TreeLoader.getDummySrc();
         Tree t2 = TreeLoader.getDummySrc();
@@ -120,6 +120,20 @@ public class TestTree {
         assertEquals("d", descendants.get(1).getLabel());
     }
 
+    @Test
+    public void testIsDescendantOf() {
+        Tree tree = TreeLoader.getDummySrc();
+        Tree b = tree.getChild(0);
+        for (Tree t : tree.getDescendants())
+            assertTrue(t.isDescendantOf(tree));
+        assertFalse(tree.isDescendantOf(tree));
+        assertFalse(tree.isDescendantOf(b));
+        assertTrue(b.getChild(0).isDescendantOf(b));
+        assertTrue(b.getChild(1).isDescendantOf(b));
+        assertFalse(tree.getChild(1).isDescendantOf(b));
+        assertFalse(b.isDescendantOf(tree.getChild(1)));
+    }
+
     @Test
     public void testChildManipulation() {
         Tree t1 = new DefaultTree(TypeSet.type("foo"));
@@ -31,6 +31,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestTreeClassifier {
@@ -107,4 +108,41 @@ public class TestTreeClassifier {
         assertThat(c.getMovedDsts(), hasItems(
                 dst.getChild("1.0"), dst.getChild("3.0.0.0")));
     }
+
+    @Test
+    public void testIndexedClassifierMatchesSetBasedClassifiers() {
+        Pair<TreeContext, TreeContext> trees = TreeLoader.getActionPair();
+        Tree src = trees.first.getRoot();
+        Tree dst = trees.second.getRoot();
+        MappingStore ms = new MappingStore(src, dst);
+        ms.addMapping(src, dst);
+        ms.addMapping(src.getChild(1), dst.getChild(0));
+        ms.addMapping(src.getChild("1.0"), dst.getChild("0.0"));
+        ms.addMapping(src.getChild("1.1"), dst.getChild("0.1"));
+        ms.addMapping(src.getChild(0), dst.getChild(1).getChild(0));
+        ms.addMapping(src.getChild("0.0"), dst.getChild("1.0.0"));
+        ms.addMapping(src.getChild(4), dst.getChild(3));
+        ms.addMapping(src.getChild("4.0"), dst.getChild("3.0.0.0"));
+        for (EditScriptGenerator g : new EditScriptGenerator[] {
+                new ChawatheScriptGenerator(), new SimplifiedChawatheScriptGenerator()}) {
+            Diff diff = new Diff(trees.first, trees.second, ms, g.computeActions(ms));
+            assertSameClassification(new AllNodesClassifier(diff), new IndexedTreeClassifier(diff, false));
+            assertSameClassification(new OnlyRootsClassifier(diff), new IndexedTreeClassifier(diff, true));
+        }
+
+        Diff diff = new Diff(trees.first, trees.second, ms, new ChawatheScriptGenerator().computeActions(ms));
+        TreeClassifier c = new IndexedTreeClassifier(diff, false);
+        assertTrue(c.getDeletedSrcs().contains(src.getChild("2.0")));
+        assertFalse(c.getDeletedSrcs().contains(src.getChild("2.0").deepCopy()));
+        assertFalse(c.getInsertedDsts().contains(src.getChild("2.0")));
+    }
+
+    private static void assertSameClassification(TreeClassifier expected, TreeClassifier actual) {
+        assertEquals(expected.getUpdatedSrcs(), actual.getUpdatedSrcs());
+        assertEquals(expected.getUpdatedDsts(), actual.getUpdatedDsts());
+        assertEquals(expected.getMovedSrcs(), actual.getMovedSrcs());
+        assertEquals(expected.getMovedDsts(), actual.getMovedDsts());
+        assertEquals(expected.getDeletedSrcs(), actual.getDeletedSrcs());
+        assertEquals(expected.getInsertedDsts(), actual.getInsertedDsts());
+    }
 }
@@ -31,7 +31,10 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.io.StringReader;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 public class TestTreeIoUtils {
@@ -124,6 +127,61 @@ public class TestTreeIoUtils {
                      + "}", TreeIoUtils.toDot(tc).toString());
     }
 
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        TreeContext tc = getTreeContext();
+        byte[] bytes = TreeIoUtils.toBinary(tc).toByteArray();
+        TreeContext read = TreeIoUtils.fromBinary(bytes);
+        assertEquals(tc.getRoot().toTreeString(), read.getRoot().toTreeString());
+        assertTrue(tc.getRoot().isIsomorphicTo(read.getRoot()));
+        assertTrue(bytes.length < TreeIoUtils.toCompactXml(tc).toString().length());
+    }
+
+    @Test
+    public void testBinaryMetadata() throws Exception {
+        TreeContext tc = getTreeContext();
+        tc.setMetadata("language", "foo");
+        tc.getRoot().getChild(0).setMetadata("line", 3);
+        tc.getRoot().getChild(1).setMetadata("line", 7);
+        tc.getRoot().getChild(1).setMetadata("ignored", "bar");
+        byte[] bytes = TreeIoUtils.toBinary(tc).export("language", "line").toByteArray();
+
+        TreeContext.MetadataUnserializers unserializers = new TreeContext.MetadataUnserializers();
+        unserializers.add("language", x -> x);
+        unserializers.add("line", Integer::parseInt);
+        TreeContext read = TreeIoUtils.fromBinary(new ByteArrayInputStream(bytes), unserializers);
+        assertEquals("foo", read.getMetadata("language"));
+        assertEquals(3, read.getRoot().getChild(0).getMetadata("line"));
+        assertEquals(7, read.getRoot().getChild(1).getMetadata("line"));
+        assertNull(read.getRoot().getChild(1).getMetadata("ignored"));
+
+        TreeContext withoutMetadata = TreeIoUtils.fromBinary(bytes);
+        assertNull(withoutMetadata.getMetadata("language"));
+        assertNull(withoutMetadata.getRoot().getChild(0).getMetadata("line"));
+    }
+
+    @Test
+    public void testBinaryStreaming() throws Exception {
+        TreeContext tc = getTreeContext();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        TreeIoUtils.toBinary(tc).writeTo(bos);
+        TreeIoUtils.toBinary(tc, tc.getRoot().getChild(0)).writeTo(bos);
+
+        ByteArrayInputStream bis = new ByteArrayInputStream(bos.toByteArray());
+        assertEquals(tc.getRoot().toTreeString(), TreeIoUtils.fromBinary(bis).getRoot().toTreeString());
+        assertEquals(tc.getRoot().getChild(0).toTreeString(), TreeIoUtils.fromBinary(bis).getRoot().toTreeString());
+        assertEquals(-1, bis.read());
+    }
+
+    @Test
+    public void testBinaryInvalidInput() throws Exception {
+        byte[] bytes = TreeIoUtils.toBinary(getTreeContext()).toByteArray();
+        assertThrows(IOException.class, () -> TreeIoUtils.fromBinary(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThrows(IOException.class, () -> TreeIoUtils.fromBinary("foo".getBytes()));
+        assertThrows(UnsupportedOperationException.class,
+                () -> TreeIoUtils.toBinary(getTreeContext()).writeTo(new StringWriter()));
+    }
+
     private static TreeContext getTreeContext() {
         TreeContext tc = new TreeContext();
         Tree a = tc.createTree(TYPE_0);
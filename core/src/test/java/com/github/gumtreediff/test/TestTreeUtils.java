@@ -123,6 +123,23 @@ public class TestTreeUtils {
         assertNotEquals(t0.getMetrics().structureHash, t3.getMetrics().structureHash);
     }
 
+    @Test
+    public void testLongHashValue() {
+        Tree t1 = TreeLoader.getDummySrc();
+        Tree t2 = t1.deepCopy();
+        t2.setLabel("foo");
+        Tree t3 = t2.deepCopy();
+        t3.addChild(new DefaultTree(TypeSet.type("foo")));
+        Tree t4 = t1.deepCopy();
+        t4.getChild(0).setLabel("");
+        t4.getChild(0).getChild(0).setLabel("b");
+        Tree t0 = TreeLoader.getDummySrc();
+        assertEquals(t0.getMetrics().longHash, t1.getMetrics().longHash);
+        assertNotEquals(t0.getMetrics().longHash, t2.getMetrics().longHash);
+        assertNotEquals(t0.getMetrics().longHash, t3.getMetrics().longHash);
+        assertNotEquals(t0.getMetrics().longHash, t4.getMetrics().longHash);
+    }
+
     @Test
     public void testHeight() {
         Tree root = TreeLoader.getDummySrc();
@@ -20,6 +20,7 @@
 
 package com.github.gumtreediff.gen.jdt;
 
+import com.github.gumtreediff.gen.BatchSink;
 import com.github.gumtreediff.gen.SyntaxException;
 import com.github.gumtreediff.gen.TreeGenerator;
 import com.github.gumtreediff.tree.TreeContext;
@@ -29,51 +30,139 @@ import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
 public abstract class AbstractJdtTreeGenerator extends TreeGenerator {
     private static final String JAVA_VERSION = JavaCore.latestSupportedJavaVersion();
 
+    private static final Map<String, String> COMPILER_OPTIONS = createCompilerOptions();
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static Map<String, String> createCompilerOptions() {
+        Map<String, String> options = JavaCore.getOptions();
+        options.put(JavaCore.COMPILER_COMPLIANCE, JAVA_VERSION);
+        options.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JAVA_VERSION);
+        options.put(JavaCore.COMPILER_SOURCE, JAVA_VERSION);
+        options.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
+        return Collections.unmodifiableMap(options);
+    }
+
     private static char[] readerToCharArray(Reader r) throws IOException {
-        StringBuilder fileData = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(r)) {
-            char[] buf = new char[10];
-            int numRead = 0;
-            while ((numRead = br.read(buf)) != -1) {
-                String readData = String.valueOf(buf, 0, numRead);
-                fileData.append(readData);
-                buf = new char[1024];
+        try (Reader reader = r) {
+            char[] buf = new char[BUFFER_SIZE];
+            int length = 0;
+            int numRead;
+            while ((numRead = reader.read(buf, length, buf.length - length)) != -1) {
+                length += numRead;
+                if (length == buf.length)
+                    buf = Arrays.copyOf(buf, buf.length * 2);
             }
+            return Arrays.copyOf(buf, length);
         }
-        return  fileData.toString().toCharArray();
     }
 
-    @Override
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    public TreeContext generate(Reader r) throws IOException {
+    /**
+     * Load the content of the provided file in a char array, decoding it directly from its
+     * bytes into a buffer sized after the length of the file. As with a reader, malformed
+     * input is replaced rather than rejected.
+     */
+    static char[] fileToCharArray(Path path, Charset charset) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate((int) Math.ceil(bytes.length * (double) decoder.maxCharsPerByte()));
+        decoder.decode(ByteBuffer.wrap(bytes), chars, true);
+        decoder.flush(chars);
+        return chars.position() == chars.capacity() ? chars.array() : Arrays.copyOf(chars.array(), chars.position());
+    }
+
+    private static ASTParser createParser() {
         ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
         parser.setKind(ASTParser.K_COMPILATION_UNIT);
-        Map pOptions = JavaCore.getOptions();
-        pOptions.put(JavaCore.COMPILER_COMPLIANCE, JAVA_VERSION);
-        pOptions.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JAVA_VERSION);
-        pOptions.put(JavaCore.COMPILER_SOURCE, JAVA_VERSION);
-        pOptions.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
-        parser.setCompilerOptions(pOptions);
-        char[] source = readerToCharArray(r);
+        parser.setCompilerOptions(COMPILER_OPTIONS);
+        return parser;
+    }
+
+    @Override
+    public TreeContext generate(Reader r) throws IOException {
+        return generate(readerToCharArray(r), r);
+    }
+
+    @Override
+    protected TreeContext generateTree(Path path, Charset charset) throws IOException {
+        return generate(fileToCharArray(path, charset), null);
+    }
+
+    private TreeContext generate(char[] source, Reader r) {
+        ASTParser parser = createParser();
         parser.setSource(source);
-        IScanner scanner = ToolFactory.createScanner(false, false, false, false);
-        scanner.setSource(source);
-        AbstractJdtVisitor v = createVisitor(scanner);
         ASTNode node = parser.createAST(null);
         if ((node.getFlags() & ASTNode.MALFORMED) != 0) // bitwise flag to check if the node has a syntax error
             throw new SyntaxException(this, r, null);
+        return visit(node, source);
+    }
+
+    private TreeContext visit(ASTNode node, char[] source) {
+        IScanner scanner = ToolFactory.createScanner(false, false, false, false);
+        scanner.setSource(source);
+        AbstractJdtVisitor v = createVisitor(scanner);
         node.accept(v);
         return v.getTreeContext();
     }
 
+    /**
+     * Generate the trees of the provided files, which are all parsed by a single parser
+     * configured once. The trees are given to the provided sink as they are produced, and
+     * the files that cannot be read, contain syntax errors or make the visitor fail are
+     * reported to the sink, without interrupting the batch.
+     * Bindings are not resolved, as in the other generation methods.
+     */
+    public void generateBatch(Collection<Path> files, Charset charset, BatchSink sink) {
+        Map<String, Path> paths = new LinkedHashMap<>();
+        for (Path file : files) {
+            if (Files.isReadable(file))
+                paths.put(file.toString(), file);
+            else
+                sink.treeFailed(file, new IOException("Unable to read " + file));
+        }
+        if (paths.isEmpty())
+            return;
+
+        String[] sourceFilePaths = paths.keySet().toArray(new String[0]);
+        String[] encodings = new String[sourceFilePaths.length];
+        Arrays.fill(encodings, charset.name());
+        ASTParser parser = createParser();
+        parser.setEnvironment(new String[0], new String[0], null, false);
+        parser.createASTs(sourceFilePaths, encodings, new String[0], new FileASTRequestor() {
+            @Override
+            public void acceptAST(String sourceFilePath, CompilationUnit ast) {
+                Path file = paths.get(sourceFilePath);
+                try {
+                    if ((ast.getFlags() & ASTNode.MALFORMED) != 0)
+                        throw new SyntaxException(AbstractJdtTreeGenerator.this, null, null);
+                    // The scanner of the visitors needs the source, which the AST does not keep.
+                    sink.treeGenerated(file, visit(ast, fileToCharArray(file, charset)));
+                } catch (IOException | RuntimeException e) {
+                    // A failure of the visitor on one file must not abort the whole batch.
+                    sink.treeFailed(file, e);
+                }
+            }
+        }, null);
+    }
+
     protected abstract AbstractJdtVisitor createVisitor(IScanner scanner);
 }
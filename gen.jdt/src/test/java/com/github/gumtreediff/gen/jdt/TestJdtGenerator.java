@@ -21,11 +21,19 @@
 package com.github.gumtreediff.gen.jdt;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
+import com.github.gumtreediff.gen.BatchSink;
 import com.github.gumtreediff.gen.SyntaxException;
 import com.github.gumtreediff.tree.*;
+import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -94,6 +102,85 @@ public class TestJdtGenerator {
         assertEquals(28, tree.getMetrics().size);
     }
 
+    @Test
+    public void testFileGeneration(@TempDir Path dir) throws IOException {
+        String input = "class Foo {\n    String foo() { return \"\u00e9\u00e8\"; }\n}\n"; // Non-ASCII literal.
+        Path file = Files.write(dir.resolve("Foo.java"), input.getBytes(StandardCharsets.UTF_8));
+        JdtTreeGenerator generator = new JdtTreeGenerator();
+        Tree expected = generator.generateFrom().string(input).getRoot();
+        Tree actual = generator.generateFrom().file(file).getRoot();
+        assertTrue(expected.isIsomorphicTo(actual));
+        assertEquals(input.length(), actual.getLength());
+    }
+
+    @Test
+    public void testBatchGeneration(@TempDir Path dir) throws IOException {
+        String foo = "public class Foo { public int foo; }";
+        String bar = "class Bar { void bar() { String s = \"\u00e9\"; } }"; // Non-ASCII literal.
+        Path fooFile = Files.write(dir.resolve("Foo.java"), foo.getBytes(StandardCharsets.UTF_8));
+        Path barFile = Files.write(dir.resolve("Bar.java"), bar.getBytes(StandardCharsets.UTF_8));
+        Path badFile = Files.write(dir.resolve("Bad.java"), "public clas Foo {}".getBytes(StandardCharsets.UTF_8));
+        Path missingFile = dir.resolve("Missing.java");
+
+        JdtTreeGenerator generator = new JdtTreeGenerator();
+        Map<Path, TreeContext> trees = new HashMap<>();
+        Set<Path> failures = new HashSet<>();
+        generator.generateBatch(Arrays.asList(fooFile, barFile, badFile, missingFile), StandardCharsets.UTF_8,
+                new BatchSink() {
+                    @Override
+                    public void treeGenerated(Path file, TreeContext context) {
+                        trees.put(file, context);
+                    }
+
+                    @Override
+                    public void treeFailed(Path file, Exception e) {
+                        failures.add(file);
+                    }
+                });
+        assertEquals(new HashSet<>(Arrays.asList(fooFile, barFile)), trees.keySet());
+        assertEquals(new HashSet<>(Arrays.asList(badFile, missingFile)), failures);
+        assertTrue(generator.generateFrom().string(foo).getRoot().isIsomorphicTo(trees.get(fooFile).getRoot()));
+        assertTrue(generator.generateFrom().string(bar).getRoot().isIsomorphicTo(trees.get(barFile).getRoot()));
+    }
+
+    @Test
+    public void testBatchGenerationVisitorFailure(@TempDir Path dir) throws IOException {
+        Path fooFile = Files.write(dir.resolve("Foo.java"), "class Foo {}".getBytes(StandardCharsets.UTF_8));
+        Path boomFile = Files.write(dir.resolve("Boom.java"), "class Boom {}".getBytes(StandardCharsets.UTF_8));
+        Path barFile = Files.write(dir.resolve("Bar.java"), "class Bar {}".getBytes(StandardCharsets.UTF_8));
+
+        JdtTreeGenerator generator = new JdtTreeGenerator() {
+            @Override
+            protected AbstractJdtVisitor createVisitor(IScanner scanner) {
+                return new JdtVisitor(scanner) {
+                    @Override
+                    public boolean visit(TypeDeclaration d) {
+                        if (d.getName().getIdentifier().equals("Boom"))
+                            throw new IllegalStateException("Boom");
+                        return super.visit(d);
+                    }
+                };
+            }
+        };
+        Map<Path, TreeContext> trees = new HashMap<>();
+        Map<Path, Exception> failures = new HashMap<>();
+        generator.generateBatch(Arrays.asList(fooFile, boomFile, barFile), StandardCharsets.UTF_8,
+                new BatchSink() {
+                    @Override
+                    public void treeGenerated(Path file, TreeContext context) {
+                        trees.put(file, context);
+                    }
+
+                    @Override
+                    public void treeFailed(Path file, Exception e) {
+                        failures.put(file, e);
+                    }
+                });
+        assertEquals(new HashSet<>(Arrays.asList(fooFile, barFile)), trees.keySet());
+        assertEquals(Collections.singleton(boomFile), failures.keySet());
+        assertTrue(failures.get(boomFile) instanceof IllegalStateException);
+    }
+
     @Test
     public void badSyntax() throws IOException {
         String input = "public clas Foo {}";
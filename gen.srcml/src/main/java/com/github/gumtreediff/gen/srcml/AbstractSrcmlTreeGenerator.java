@@ -19,6 +19,7 @@
 
 package com.github.gumtreediff.gen.srcml;
 
+import com.github.gumtreediff.gen.BatchSink;
 import com.github.gumtreediff.gen.ExternalProcessTreeGenerator;
 import com.github.gumtreediff.io.LineReader;
 import com.github.gumtreediff.tree.Tree;
@@ -28,8 +29,12 @@ import com.github.gumtreediff.tree.TreeContext;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 import static com.github.gumtreediff.tree.TypeSet.type;
@@ -41,6 +46,8 @@ public abstract class AbstractSrcmlTreeGenerator extends ExternalProcessTreeGene
 
     private static final QName POS_END = new  QName("http://www.srcML.org/srcML/position", "end", "pos");
 
+    private static final QName FILENAME = new QName("filename");
+
     private LineReader lr;
 
     private Set<Type> labeled = new HashSet<>(
@@ -57,63 +64,215 @@ public abstract class AbstractSrcmlTreeGenerator extends ExternalProcessTreeGene
 
     Type position = type("position");
 
-    private StringBuilder currentLabel;
-
-    private TreeContext context;
-
     @Override
     public TreeContext generate(Reader r) throws IOException {
-        lr = new LineReader(r);
-        String output = readStandardOutput(lr);
-        return getTreeContext(output);
+        LineReader lineReader = new LineReader(r);
+        lr = lineReader;
+        return processStandardOutput(lineReader, output -> {
+            try {
+                return buildTreeContext(XMLInputFactory.newInstance().createXMLEventReader(output), lineReader);
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        });
     }
 
+    /**
+     * Return the tree context of the provided srcML document, whose positions refer to the
+     * content last given to {@link #generate(Reader)}.
+     */
     public TreeContext getTreeContext(String xml) {
-        XMLInputFactory fact = XMLInputFactory.newInstance();
-        context = new TreeContext();
-        currentLabel = new StringBuilder();
         try {
-            ArrayDeque<Tree> trees = new ArrayDeque<>();
-            XMLEventReader r = fact.createXMLEventReader(new StringReader(xml));
-            while (r.hasNext()) {
-                XMLEvent ev = r.nextEvent();
-                if (ev.isStartElement()) {
-                    StartElement s = ev.asStartElement();
-                    Type type = type(s.getName().getLocalPart());
-                    if (type.equals(position))
-                        setLength(trees.peekFirst(), s);
-                    else {
-                        Tree t = context.createTree(type, "");
-
-                        if (trees.isEmpty()) {
-                            context.setRoot(t);
-                            t.setPos(0);
-                        } else {
-                            t.setParentAndUpdateChildren(trees.peekFirst());
-                            setPos(t, s);
-                        }
-                        trees.addFirst(t);
+            return buildTreeContext(XMLInputFactory.newInstance().createXMLEventReader(new StringReader(xml)), lr);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private TreeContext buildTreeContext(XMLEventReader r, LineReader lineReader) throws XMLStreamException {
+        TreeBuilder builder = new TreeBuilder(lineReader);
+        while (r.hasNext())
+            builder.accept(r.nextEvent());
+        return builder.finish();
+    }
+
+    /**
+     * Generate the trees of the provided files with a single srcML invocation producing an
+     * archive, instead of running srcML once per file. The archive is streamed from the
+     * process into the tree builder, and each tree is given to the provided sink as soon as
+     * its unit is read. The files for which srcML produces no unit are reported as failures.
+     */
+    public void generateBatch(Collection<Path> files, BatchSink sink) throws IOException {
+        Map<String, Path> pending = new LinkedHashMap<>();
+        for (Path file : files)
+            pending.put(file.toString(), file);
+        if (pending.isEmpty())
+            return;
+
+        File list = File.createTempFile("gumtree", ".lst");
+        try {
+            Files.write(list.toPath(), pending.keySet(), StandardCharsets.UTF_8);
+            ProcessBuilder b = new ProcessBuilder(getBatchCommandLine(list.getAbsolutePath()));
+            b.redirectError(ProcessBuilder.Redirect.DISCARD);
+            Process p = b.start();
+            try (InputStream output = p.getInputStream()) {
+                readArchive(XMLInputFactory.newInstance().createXMLEventReader(output), pending, sink);
+            } catch (XMLStreamException e) {
+                p.destroy();
+                throw new IOException("Unable to read the srcML archive", e);
+            }
+            int status = p.waitFor();
+            for (Path file : pending.values())
+                sink.treeFailed(file, new IOException("No srcML unit produced for " + file
+                        + " (srcML exit status " + status + ")"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for srcML");
+        } finally {
+            list.delete();
+        }
+    }
+
+    private void readArchive(XMLEventReader r, Map<String, Path> pending, BatchSink sink)
+            throws XMLStreamException {
+        int depth = 0;
+        Path file = null;
+        TreeBuilder builder = null;
+        while (r.hasNext()) {
+            XMLEvent ev = r.nextEvent();
+            if (ev.isStartElement() && ++depth == 2) {
+                // The units of the files are the children of the unit of the archive.
+                Attribute filename = ev.asStartElement().getAttributeByName(FILENAME);
+                file = filename == null ? null : pending.remove(filename.getValue());
+                builder = null;
+                if (file != null) {
+                    try {
+                        builder = new TreeBuilder(readLines(file));
+                    } catch (IOException e) {
+                        sink.treeFailed(file, e);
                     }
-                } else if (ev.isEndElement()) {
-                    EndElement end = ev.asEndElement();
-                    if (type(end.getName().getLocalPart()) != position) {
-                        if (isLabeled(trees))
-                            trees.peekFirst().setLabel(currentLabel.toString());
-                        trees.removeFirst();
-                        currentLabel = new StringBuilder();
+                }
+            }
+            if (builder != null)
+                builder.accept(ev);
+            if (ev.isEndElement() && depth-- == 2 && builder != null) {
+                sink.treeGenerated(file, builder.finish());
+                builder = null;
+            }
+        }
+    }
+
+    private static LineReader readLines(Path file) throws IOException {
+        LineReader lineReader = new LineReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        try (lineReader) {
+            char[] buf = new char[8192];
+            while (lineReader.read(buf) >= 0) {
+                // Reading the file is enough to record its lines.
+            }
+        }
+        return lineReader;
+    }
+
+    public abstract String getLanguage();
+
+    /**
+     * Return the srcML executable, which can be set using the gt.srcml.path property.
+     */
+    protected String getSrcmlCommand() {
+        return SRCML_CMD;
+    }
+
+    public String[] getCommandLine(String file) {
+        return new String[]{getSrcmlCommand(), "--register-ext", "txt=" + getLanguage(), "--position", file,
+                "--tabs=1"};
+    }
+
+    /**
+     * Return the command line producing the srcML archive of the files listed in the
+     * provided file.
+     */
+    public String[] getBatchCommandLine(String listFile) {
+        return new String[]{getSrcmlCommand(), "--language", getLanguage(), "--position", "--tabs=1",
+                "--archive", "--files-from", listFile};
+    }
+
+    /**
+     * Build the tree of a srcML unit from its XML events.
+     */
+    private final class TreeBuilder {
+        private final LineReader lr;
+
+        private final TreeContext context = new TreeContext();
+
+        private final ArrayDeque<Tree> trees = new ArrayDeque<>();
+
+        private StringBuilder currentLabel = new StringBuilder();
+
+        TreeBuilder(LineReader lr) {
+            this.lr = lr;
+        }
+
+        void accept(XMLEvent ev) {
+            if (ev.isStartElement()) {
+                StartElement s = ev.asStartElement();
+                Type type = type(s.getName().getLocalPart());
+                if (type.equals(position))
+                    setLength(trees.peekFirst(), s);
+                else {
+                    Tree t = context.createTree(type, "");
+
+                    if (trees.isEmpty()) {
+                        context.setRoot(t);
+                        t.setPos(0);
+                    } else {
+                        t.setParentAndUpdateChildren(trees.peekFirst());
+                        setPos(t, s);
                     }
-                } else if (ev.isCharacters()) {
-                    Characters chars = ev.asCharacters();
-                    if (!chars.isWhiteSpace() && isLabeled(trees))
-                        currentLabel.append(chars.getData().trim());
+                    trees.addFirst(t);
+                }
+            } else if (ev.isEndElement()) {
+                EndElement end = ev.asEndElement();
+                if (type(end.getName().getLocalPart()) != position) {
+                    if (isLabeled(trees))
+                        trees.peekFirst().setLabel(currentLabel.toString());
+                    trees.removeFirst();
+                    currentLabel = new StringBuilder();
                 }
+            } else if (ev.isCharacters()) {
+                Characters chars = ev.asCharacters();
+                if (!chars.isWhiteSpace() && isLabeled(trees))
+                    currentLabel.append(chars.getData().trim());
             }
+        }
+
+        TreeContext finish() {
             fixPos(context);
             return context;
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return null;
+
+        private void setPos(Tree t, StartElement e) {
+            if (e.getAttributeByName(POS_START) != null) {
+                String posStr = e.getAttributeByName(POS_START).getValue();
+                String[] chunks = posStr.split(":");
+                int line = Integer.parseInt(chunks[0]);
+                int column = Integer.parseInt(chunks[1]);
+                t.setPos(lr.positionFor(line, column));
+                setLength(t, e);
+            }
+        }
+
+        private void setLength(Tree t, StartElement e) {
+            if (t.getPos() == -1)
+                return;
+            if ( e.getAttributeByName(POS_END) != null) {
+                String posStr = e.getAttributeByName(POS_END).getValue();
+                String[] chunks = posStr.split(":");
+                int line = Integer.parseInt(chunks[0]);
+                int column = Integer.parseInt(chunks[1]);
+                t.setLength(lr.positionFor(line, column) - t.getPos() + 1);
+            }
+        }
     }
 
     private boolean isLabeled(ArrayDeque<Tree> trees) {
@@ -136,33 +295,4 @@ public abstract class AbstractSrcmlTreeGenerator extends ExternalProcessTreeGene
             }
         }
     }
-
-    private void setPos(Tree t, StartElement e) {
-        if (e.getAttributeByName(POS_START) != null) {
-            String posStr = e.getAttributeByName(POS_START).getValue();
-            String[] chunks = posStr.split(":");
-            int line = Integer.parseInt(chunks[0]);
-            int column = Integer.parseInt(chunks[1]);
-            t.setPos(lr.positionFor(line, column));
-            setLength(t, e);
-        }
-    }
-
-    private void setLength(Tree t, StartElement e) {
-        if (t.getPos() == -1)
-            return;
-        if ( e.getAttributeByName(POS_END) != null) {
-            String posStr = e.getAttributeByName(POS_END).getValue();
-            String[] chunks = posStr.split(":");
-            int line = Integer.parseInt(chunks[0]);
-            int column = Integer.parseInt(chunks[1]);
-            t.setLength(lr.positionFor(line, column) - t.getPos() + 1);
-        }
-    }
-
-    public abstract String getLanguage();
-
-    public String[] getCommandLine(String file) {
-        return new String[]{SRCML_CMD, "--register-ext", "txt=" + getLanguage(), "--position", file, "--tabs=1"};
-    }
 }
@@ -0,0 +1,139 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen.srcml;
+
+import com.github.gumtreediff.gen.BatchSink;
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("standalone")
+public class TestSrcmlBatch {
+    // Stands in for srcml: each unit holds a declaration named after the first line of its file.
+    private static final String FAKE_SRCML = "#!/bin/sh\n"
+            + "list=\"\"\n"
+            + "file=\"\"\n"
+            + "while [ $# -gt 0 ]; do\n"
+            + "  case \"$1\" in\n"
+            + "    --files-from) list=\"$2\"; shift ;;\n"
+            + "    --register-ext|--language) shift ;;\n"
+            + "    --*) ;;\n"
+            + "    *) file=\"$1\" ;;\n"
+            + "  esac\n"
+            + "  shift\n"
+            + "done\n"
+            + "unit() {\n"
+            + "  line=$(head -n 1 \"$1\")\n"
+            + "  echo \"<unit $2 filename=\\\"$1\\\"><decl_stmt pos:start=\\\"1:1\\\" pos:end=\\\"1:${#line}\\\">"
+            + "<name pos:start=\\\"1:1\\\" pos:end=\\\"1:${#line}\\\">$line</name></decl_stmt></unit>\"\n"
+            + "}\n"
+            + "ns='xmlns=\"http://www.srcML.org/srcML/src\" xmlns:pos=\"http://www.srcML.org/srcML/position\"'\n"
+            + "echo '<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>'\n"
+            + "if [ -z \"$list\" ]; then\n"
+            + "  unit \"$file\" \"$ns\"\n"
+            + "  exit 0\n"
+            + "fi\n"
+            + "echo \"<unit $ns>\"\n"
+            + "while IFS= read -r f; do\n"
+            + "  if [ -f \"$f\" ]; then unit \"$f\"; fi\n"
+            + "done < \"$list\"\n"
+            + "echo '</unit>'\n";
+
+    private Path directory;
+
+    private AbstractSrcmlTreeGenerator generator;
+
+    @BeforeEach
+    public void createFakeSrcml() throws IOException {
+        directory = Files.createTempDirectory("gumtree-srcml");
+        Path script = Files.write(directory.resolve("srcml"), FAKE_SRCML.getBytes(StandardCharsets.UTF_8));
+        assertTrue(script.toFile().setExecutable(true));
+        generator = new SrcmlCppTreeGenerator() {
+            @Override
+            protected String getSrcmlCommand() {
+                return script.toString();
+            }
+        };
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testSingleFile() throws IOException {
+        assertDeclaration("foo", generator.generateFrom().string("foo\n"));
+    }
+
+    @Test
+    public void testBatch() throws IOException {
+        Path foo = Files.write(directory.resolve("foo.cpp"), "foo\n".getBytes(StandardCharsets.UTF_8));
+        Path bar = Files.write(directory.resolve("bar.cpp"), "barbaz\n".getBytes(StandardCharsets.UTF_8));
+        Path missing = directory.resolve("missing.cpp");
+
+        Map<Path, TreeContext> trees = new LinkedHashMap<>();
+        List<Path> failures = new ArrayList<>();
+        generator.generateBatch(Arrays.asList(foo, missing, bar), new BatchSink() {
+            @Override
+            public void treeGenerated(Path file, TreeContext context) {
+                trees.put(file, context);
+            }
+
+            @Override
+            public void treeFailed(Path file, Exception e) {
+                failures.add(file);
+            }
+        });
+        assertEquals(Arrays.asList(foo, bar), new ArrayList<>(trees.keySet()));
+        assertEquals(Collections.singletonList(missing), failures);
+        assertDeclaration("foo", trees.get(foo));
+        assertDeclaration("barbaz", trees.get(bar));
+    }
+
+    private static void assertDeclaration(String name, TreeContext context) {
+        Tree root = context.getRoot();
+        assertEquals("unit", root.getType().name);
+        assertEquals(1, root.getChildren().size());
+        Tree declaration = root.getChild(0);
+        assertEquals("decl_stmt", declaration.getType().name);
+        Tree leaf = declaration.getChild(0);
+        assertEquals("name", leaf.getType().name);
+        assertEquals(name, leaf.getLabel());
+        assertEquals(0, leaf.getPos());
+        assertEquals(name.length(), leaf.getLength());
+    }
+}
@@ -26,23 +26,22 @@ import com.github.gumtreediff.utils.Pair;
 import org.treesitter.*;
 import org.yaml.snakeyaml.Yaml;
 
-import java.io.BufferedReader;
 import java.io.Reader;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
 
-    private static final String LF = "\n";
     private static final String RULES_FILE = "rules.yml";
 
-    private static final String YAML_IGNORED = "ignored";
-    private static final String YAML_LABEL_IGNORED = "label_ignored";
-    private static final String YAML_FLATTENED = "flattened";
-    private static final String YAML_ALIASED = "aliased";
-
     private static final Map<String, Map<String, Object>> RULES;
 
+    private static final Map<String, CompiledRules> COMPILED_RULES = new ConcurrentHashMap<>();
+
+    // Parsers are expensive to create and are not thread-safe, so each thread keeps one per language.
+    private static final ThreadLocal<Map<TSLanguage, TSParser>> PARSERS =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+
     static {
         Yaml yaml = new Yaml();
         RULES = yaml.load(Thread.currentThread().getContextClassLoader().getResourceAsStream(RULES_FILE));
@@ -50,10 +49,6 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
 
     @Override
     protected TreeContext generate(Reader r) throws java.io.IOException {
-        TSParser parser = new TSParser();
-        TSLanguage language = getTreeSitterLanguage();
-        parser.setLanguage(language);
-
         StringBuilder sb = new StringBuilder();
         char[] buf = new char[8192];
         int n;
@@ -64,71 +59,103 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
         if (content.isEmpty())
             return emptyContext();
 
-        List<String> contentLines = Arrays.asList(content.split(LF, -1));
-        TSTree tree = parser.parseString(null, content);
-        Map<String, Object> currentRule = RULES.getOrDefault(getLanguageName(), new HashMap<>());
-        return generateFromTreeSitterTree(contentLines, currentRule, tree);
+        SourceText text = new SourceText(content);
+        TSTree tree = getParser().parseString(null, content);
+        TreeContext context = new TreeContext();
+        generateFromTreeSitterTree(text, getRules(), tree, context, null, null);
+        return context;
     }
 
-    private static String getLabel(List<String> contentLines, TSNode node) {
-        int startRow = node.getStartPoint().getRow();
-        int startColumn = node.getStartPoint().getColumn();
-        int endRow = node.getEndPoint().getRow();
-        int endColumn = node.getEndPoint().getColumn();
-        List<String> substringLines;
-        // tree-sitter handles string by byte array, so we need this.
-        String startRowStr = contentLines.get(startRow);
-        byte[] startRowBytes = startRowStr.getBytes(StandardCharsets.UTF_8);
-        if (startRow == endRow) {
-            // endColumn == startRowBytes.length + 1 when the label in tree-sitter contains line separator
-            if (endColumn == startRowBytes.length + 1) {
-                substringLines = Collections.singletonList(startRowStr);
-            }
-            else {
-                substringLines = Collections.singletonList(new String(
-                        startRowBytes, startColumn, endColumn - startColumn, StandardCharsets.UTF_8));
-            }
-        }
-        else {
-            substringLines = new ArrayList<>();
-            String endRowStr = contentLines.get(endRow);
-            byte[] endRowBytes = endRowStr.getBytes(StandardCharsets.UTF_8);
-            String startLineSubstring;
-            if (startColumn > startRowBytes.length) {
-                // usually, line separator is not the start char of a tree node label
-                // if this situation happened, just put an empty string at start
-                startLineSubstring = "";
-            } else {
-                startLineSubstring = new String(startRowBytes, 0, startColumn, StandardCharsets.UTF_8);
-            }
-            List<String> middleLines = contentLines.subList(startRow + 1, endRow);
-            String endLineSubstring;
-            if (endColumn > endRowStr.length()) {
-                endLineSubstring = endRowStr;
-            }
-            else {
-                endLineSubstring = new String(endRowBytes, 0, endColumn, StandardCharsets.UTF_8);
-            }
-            substringLines.add(startLineSubstring);
-            substringLines.addAll(middleLines);
-            substringLines.add(endLineSubstring);
-        }
-        return String.join(LF, substringLines);
+    /**
+     * Parse the provided content and return a handle on the result, which can be given to
+     * {@link #reparse(TreeSitterNgParse, String)} to parse a following revision of the content.
+     */
+    public TreeSitterNgParse parse(String content) {
+        return parse(new SourceText(content), null);
     }
 
-    private static int calculateOffset(List<String> contentLines, TSPoint point) {
-        int startRow = point.getRow();
-        int startColumn = point.getColumn();
-        int offset = 0;
-        for (int i = 0; i < startRow; i++) {
-            // Each line in contentLines (except maybe the last) was terminated by LF (\n).
-            // If the original was CRLF, the CR (\r) is still at the end of the line string.
-            // offset must be a char (UTF-16 code unit) index, matching how consumers (e.g.
-            // VanillaDiffHtmlBuilder) walk the source, so use .length() and not byte length.
-            offset += contentLines.get(i).length() + 1;
-        }
-        offset += startColumn;
-        return offset;
+    /**
+     * Parse a new revision of the content of the provided previous parse. The part of the
+     * content that differs is computed from the common prefix and suffix of both revisions.
+     *
+     * @see #reparse(TreeSitterNgParse, int, int, String)
+     */
+    public TreeSitterNgParse reparse(TreeSitterNgParse previous, String content) {
+        String old = previous.getContent();
+        int max = Math.min(old.length(), content.length());
+        int prefix = 0;
+        while (prefix < max && old.charAt(prefix) == content.charAt(prefix))
+            prefix++;
+        int suffix = 0;
+        while (suffix < max - prefix
+                && old.charAt(old.length() - suffix - 1) == content.charAt(content.length() - suffix - 1))
+            suffix++;
+        // Never split a surrogate pair.
+        if (prefix > 0 && Character.isHighSurrogate(old.charAt(prefix - 1)))
+            prefix--;
+        if (suffix > 0 && Character.isLowSurrogate(old.charAt(old.length() - suffix)))
+            suffix--;
+        return reparse(previous, prefix, old.length() - suffix,
+                content.substring(prefix, content.length() - suffix));
+    }
+
+    /**
+     * Parse a new revision of the content of the provided previous parse, obtained by replacing
+     * the chars between start (inclusive) and oldEnd (exclusive) by the provided replacement.
+     * The previous tree-sitter tree is edited and reparsed incrementally, and the subtrees
+     * outside of the edit that tree-sitter did not change are copied from the previous tree
+     * context rather than rebuilt. The previous parse is left untouched.
+     */
+    public TreeSitterNgParse reparse(TreeSitterNgParse previous, int start, int oldEnd, String replacement) {
+        if (!getLanguageName().equals(previous.language))
+            throw new IllegalArgumentException("Previous parse is in " + previous.language
+                    + ", not in " + getLanguageName());
+        SourceText oldText = previous.text;
+        if (start < 0 || start > oldEnd || oldEnd > oldText.content.length())
+            throw new IndexOutOfBoundsException("Invalid edit range [" + start + ", " + oldEnd + ")");
+        SourceText text = new SourceText(oldText.content.substring(0, start) + replacement
+                + oldText.content.substring(oldEnd));
+        if (previous.tree == null)
+            return parse(text, null);
+
+        int newEnd = start + replacement.length();
+        int startByte = oldText.byteOffset(start);
+        int oldEndByte = oldText.byteOffset(oldEnd);
+        int newEndByte = text.byteOffset(newEnd);
+        TSPoint newEndPoint = text.point(newEnd);
+        TSTree editedTree = previous.tree.copy();
+        editedTree.edit(new TSInputEdit(startByte, oldEndByte, newEndByte,
+                oldText.point(start), oldText.point(oldEnd), newEndPoint));
+        return parse(text, new TreeSitterNgParse.Reuse(previous, editedTree, startByte, oldEndByte, newEndByte,
+                newEndPoint.getRow(), newEnd - oldEnd, getRules().depth));
+    }
+
+    private TreeSitterNgParse parse(SourceText text, TreeSitterNgParse.Reuse reuse) {
+        if (text.content.isEmpty())
+            return new TreeSitterNgParse(getLanguageName(), text, null, emptyContext());
+        TSTree tree = getParser().parseString(reuse == null ? null : reuse.editedTree, text.content);
+        if (reuse != null)
+            reuse.setChangedRanges(TSTree.getChangedRanges(reuse.editedTree, tree));
+        TreeContext context = new TreeContext();
+        TreeSitterNgParse parse = new TreeSitterNgParse(getLanguageName(), text, tree, context);
+        generateFromTreeSitterTree(text, getRules(), tree, context, parse, reuse);
+        return parse;
+    }
+
+    /**
+     * Return the parser of the current thread for the language of this generator.
+     */
+    protected TSParser getParser() {
+        return PARSERS.get().computeIfAbsent(getTreeSitterLanguage(), language -> {
+            TSParser parser = new TSParser();
+            parser.setLanguage(language);
+            return parser;
+        });
+    }
+
+    private CompiledRules getRules() {
+        return COMPILED_RULES.computeIfAbsent(getLanguageName(),
+                name -> new CompiledRules(RULES.getOrDefault(name, new HashMap<>()), getTreeSitterLanguage()));
     }
 
     /**
@@ -139,96 +166,81 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
      * @return matched types. null if not matched.
      */
     protected static String matchNodeOrAncestorTypes(Collection<String> ruleSet, TSNode node) {
-        int depth = 1;
-        String nodeType = node.getType();
-        StringBuilder typesBuilder = new StringBuilder(nodeType);
-        TSNode ancestor = node.getParent();
-        int maxDepthInRuleSet = 1;
-        for (String rule : ruleSet) {
-            String[] ruleTypes = rule.split(" ");
-            if (ruleTypes.length > maxDepthInRuleSet) {
-                maxDepthInRuleSet = ruleTypes.length;
-            }
-            if (ruleTypes.length == 1 && rule.equals(nodeType)) {
-                // matched directly
-                return nodeType;
-            }
-        }
-        while (!ancestor.isNull() && depth <= maxDepthInRuleSet) {
-            typesBuilder.insert(0, ' ');
-            typesBuilder.insert(0, ancestor.getType());
-            String typesString = typesBuilder.toString();
-            if (ruleSet.contains(typesString)) {
-                return typesString;
-            }
-            ancestor = ancestor.getParent();
-            depth++;
-        }
-        return null;
+        Map<String, Integer> rules = new HashMap<>();
+        for (String rule : ruleSet)
+            rules.put(rule, RuleTable.IGNORED);
+        return new RuleTable(rules, Collections.emptyMap()).matchRule(node);
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Convert the provided tree-sitter node into a tree of the provided context, following the
+     * provided rules of a language. Return null if the node is ignored, and otherwise the tree
+     * and whether the node is flattened. The rules are compiled at each call, and the ancestors
+     * are obtained from the node: the generators themselves convert nodes with precompiled rules.
+     */
     protected static Pair<Tree, Boolean> tsNode2GumTree(
             List<String> contentLines, Map<String, Object> currentRule, TreeContext context, TSNode node) {
-        String type = node.getType();
-        if (currentRule.containsKey(YAML_IGNORED)) {
-            List<String> ignores = (List<String>) currentRule.get(YAML_IGNORED);
-            if (matchNodeOrAncestorTypes(ignores, node) != null) {
-                return null;
-            }
-        }
-        boolean ignoreLabel = false;
-        if (currentRule.containsKey(YAML_LABEL_IGNORED)) {
-            List<String> ignores = (List<String>) currentRule.get(YAML_LABEL_IGNORED);
-            if (matchNodeOrAncestorTypes(ignores, node) != null) {
-                ignoreLabel = true;
-            }
-        }
-        if (currentRule.containsKey(YAML_ALIASED)) {
-            Map<String, String> alias = (Map<String, String>) currentRule.get(YAML_ALIASED);
-            String matchedTypes = matchNodeOrAncestorTypes(alias.keySet(), node);
-            if (matchedTypes != null) {
-                type = alias.get(matchedTypes);
-            }
-        }
-        boolean flatten = false;
-        if (currentRule.containsKey(YAML_FLATTENED)) {
-            List<String> flattenList = (List<String>) currentRule.get(YAML_FLATTENED);
-            if (matchNodeOrAncestorTypes(flattenList, node) != null) {
-                flatten = true;
-            }
+        RuleTable table = RuleTable.compile(currentRule);
+        Deque<TSNode> ancestors = new ArrayDeque<>();
+        for (TSNode n = node; !n.isNull() && ancestors.size() < Math.max(1, table.getDepth()); n = n.getParent())
+            ancestors.push(n);
+        // The symbols are only used to reuse subtrees, so they are not needed here.
+        NodeFrame frame = null;
+        for (TSNode n : ancestors)
+            frame = new NodeFrame(-1, table.typeId(n.getType()), frame);
+        return tsNode2GumTree(new SourceText(String.join("\n", contentLines)), table, context, node,
+                frame, node.getType());
+    }
+
+    private static Pair<Tree, Boolean> tsNode2GumTree(SourceText text, RuleTable table, TreeContext context,
+            TSNode node, NodeFrame frame, String nodeType) {
+        int decisions = table.match(frame);
+        if ((decisions & RuleTable.IGNORED) != 0) {
+            return null;
         }
+        boolean ignoreLabel = (decisions & RuleTable.LABEL_IGNORED) != 0;
+        boolean flatten = (decisions & RuleTable.FLATTENED) != 0;
+        String type = (decisions & RuleTable.ALIASED) != 0 ? table.getAlias(decisions) : nodeType;
         Tree tree;
         // attach label for non ignore-label leafs or flattened nodes
         if ((node.getChildCount() == 0 && !ignoreLabel) || flatten) {
-            String label = getLabel(contentLines, node);
+            String label = text.label(node);
             tree = context.createTree(TypeSet.type(type), label);
         }
         else {
             tree = context.createTree(TypeSet.type(type));
         }
-        tree.setPos(calculateOffset(contentLines, node.getStartPoint()));
-        int endOffset = calculateOffset(contentLines, node.getEndPoint());
+        tree.setPos(text.offset(node.getStartPoint()));
+        int endOffset = text.offset(node.getEndPoint());
         tree.setLength(endOffset - tree.getPos());
         return new Pair<>(tree, flatten);
     }
 
-    private static TreeContext generateFromTreeSitterTree(
-            List<String> contentLines, Map<String, Object> currentRule, TSTree tree) {
+    /**
+     * Fill the provided context with the conversion of the provided tree-sitter tree. When a
+     * parse is provided, the source range of the converted subtrees is recorded in it, and when
+     * a reuse is provided, the subtrees that it can copy are not converted again.
+     */
+    private static void generateFromTreeSitterTree(SourceText text, CompiledRules rules, TSTree tree,
+            TreeContext context, TreeSitterNgParse parse, TreeSitterNgParse.Reuse reuse) {
         TSNode rootNode = tree.getRootNode();
-        TreeContext context = new TreeContext();
-        Pair<Tree, Boolean> rootPair = tsNode2GumTree(contentLines, currentRule, context, rootNode);
+        NodeFrame rootFrame = rules.frame(rootNode, null);
+        Pair<Tree, Boolean> rootPair = tsNode2GumTree(text, rules.table, context, rootNode, rootFrame,
+                rules.type(rootFrame.symbol, rootNode));
         if (rootPair == null) {
-            return context;
+            return;
         }
         context.setRoot(rootPair.first);
         Stack<TSNode> tsNodeStack = new Stack<>();
         Stack<Pair<Tree, Boolean>> treeStack = new Stack<>();
+        Stack<NodeFrame> frameStack = new Stack<>();
         tsNodeStack.push(rootNode);
         treeStack.push(rootPair);
+        frameStack.push(rootFrame);
         while (!tsNodeStack.isEmpty()) {
             TSNode tsNodeNow = tsNodeStack.pop();
             Pair<Tree, Boolean> treeNow = treeStack.pop();
+            NodeFrame frameNow = frameStack.pop();
             // if node was flattened, ignore children
             if (treeNow.second) {
                 continue;
@@ -236,15 +248,25 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
             int childCount = tsNodeNow.getChildCount();
             for (int i = 0; i < childCount; i++) {
                 TSNode child = tsNodeNow.getChild(i);
-                Pair<Tree, Boolean> childTree = tsNode2GumTree(contentLines, currentRule, context, child);
+                NodeFrame childFrame = rules.frame(child, frameNow);
+                Tree reused = reuse == null ? null : reuse.copy(child, childFrame, parse);
+                if (reused != null) {
+                    treeNow.first.addChild(reused);
+                    continue;
+                }
+                Pair<Tree, Boolean> childTree = tsNode2GumTree(text, rules.table, context, child, childFrame,
+                        rules.type(childFrame.symbol, child));
                 if (childTree != null) {
                     treeNow.first.addChild(childTree.first);
+                    // leaves are cheap to convert, so only the inner nodes are recorded for reuse
+                    if (parse != null && (childTree.second || child.getChildCount() > 0))
+                        parse.record(childTree.first, child.getStartByte(), child.getEndByte(), childFrame);
                     tsNodeStack.push(child);
                     treeStack.push(childTree);
+                    frameStack.push(childFrame);
                 }
             }
         }
-        return context;
     }
 
     protected abstract TSLanguage getTreeSitterLanguage();
@@ -259,4 +281,38 @@ public abstract class AbstractTreeSitterNgGenerator extends TreeGenerator {
         ctx.setRoot(root);
         return ctx;
     }
+
+    /**
+     * The rules of a language, compiled once into a rule table, together with the type name
+     * and the rule type number of each symbol of the language.
+     */
+    private static final class CompiledRules {
+        final RuleTable table;
+        final String[] typeBySymbol;
+        final int[] typeIdBySymbol;
+        // The number of ancestor levels the rules can look at, including the node.
+        final int depth;
+
+        CompiledRules(Map<String, Object> rules, TSLanguage language) {
+            table = RuleTable.compile(rules);
+            depth = Math.max(1, table.getDepth());
+            int symbols = language.symbolCount();
+            typeBySymbol = new String[symbols];
+            typeIdBySymbol = new int[symbols];
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                typeBySymbol[symbol] = language.symbolName(symbol);
+                typeIdBySymbol[symbol] = typeBySymbol[symbol] == null ? -1 : table.typeId(typeBySymbol[symbol]);
+            }
+        }
+
+        NodeFrame frame(TSNode node, NodeFrame parent) {
+            int symbol = node.getSymbol();
+            int typeId = symbol < typeIdBySymbol.length ? typeIdBySymbol[symbol] : table.typeId(node.getType());
+            return new NodeFrame(symbol, typeId, parent);
+        }
+
+        String type(int symbol, TSNode node) {
+            return symbol < typeBySymbol.length && typeBySymbol[symbol] != null ? typeBySymbol[symbol] : node.getType();
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen.treesitterng;
+
+/**
+ * A tree-sitter node being converted, linked to its parent, which gives the ancestors of a
+ * node without asking tree-sitter for them.
+ */
+final class NodeFrame {
+    final int symbol;
+
+    // The number of the type of the node in the rules, or -1.
+    final int typeId;
+
+    final NodeFrame parent;
+
+    NodeFrame(int symbol, int typeId, NodeFrame parent) {
+        this.symbol = symbol;
+        this.typeId = typeId;
+        this.parent = parent;
+    }
+
+    /**
+     * Indicate if the provided frames have the same symbols on their first depth levels.
+     */
+    static boolean sameSymbols(NodeFrame a, NodeFrame b, int depth) {
+        for (int i = 0; i < depth; i++) {
+            if (a == null || b == null)
+                return a == b;
+            if (a.symbol != b.symbol)
+                return false;
+            a = a.parent;
+            b = b.parent;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen.treesitterng;
+
+import org.treesitter.TSNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules of rules.yml for a language, compiled into a single trie over the types of the
+ * nodes and of their ancestors. A rule is either a node type, or a space separated list of
+ * types ending with the type of the node and starting with the type of one of its ancestors.
+ * The types appearing in the rules are numbered, and the edges of the trie are indexed by these
+ * numbers, so that the four decisions on a node are taken by a single walk up its ancestors.
+ * For each decision, the rule with the fewest types wins.
+ */
+final class RuleTable {
+    static final int IGNORED = 1;
+    static final int LABEL_IGNORED = 2;
+    static final int FLATTENED = 4;
+    static final int ALIASED = 8;
+
+    private static final String YAML_IGNORED = "ignored";
+    private static final String YAML_LABEL_IGNORED = "label_ignored";
+    private static final String YAML_FLATTENED = "flattened";
+    private static final String YAML_ALIASED = "aliased";
+
+    private static final int DECISIONS = 4;
+    private static final int DECISION_MASK = (1 << DECISIONS) - 1;
+
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final List<String> aliases = new ArrayList<>();
+    private final Node root;
+    private int depth = 0;
+
+    /**
+     * Compile the provided rules, mapping each rule to the decisions it triggers. The rules
+     * triggering {@link #ALIASED} are mapped to their alias in the provided map.
+     */
+    RuleTable(Map<String, Integer> decisions, Map<String, String> aliasOf) {
+        for (String rule : decisions.keySet())
+            for (String type : rule.split(" "))
+                typeIds.putIfAbsent(type, typeIds.size());
+        root = new Node();
+        for (Map.Entry<String, Integer> entry : decisions.entrySet()) {
+            String[] types = entry.getKey().split(" ");
+            depth = Math.max(depth, types.length);
+            Node node = root;
+            for (int i = types.length - 1; i >= 0; i--)
+                node = node.child(typeIds.get(types[i]), typeIds.size());
+            node.rule = entry.getKey();
+            node.decisions |= entry.getValue();
+            if ((entry.getValue() & ALIASED) != 0) {
+                node.alias = aliases.size();
+                aliases.add(aliasOf.get(entry.getKey()));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static RuleTable compile(Map<String, Object> rules) {
+        Map<String, Integer> decisions = new LinkedHashMap<>();
+        addRules(decisions, (List<String>) rules.get(YAML_IGNORED), IGNORED);
+        addRules(decisions, (List<String>) rules.get(YAML_LABEL_IGNORED), LABEL_IGNORED);
+        addRules(decisions, (List<String>) rules.get(YAML_FLATTENED), FLATTENED);
+        Map<String, String> aliases = (Map<String, String>) rules.getOrDefault(YAML_ALIASED, new HashMap<>());
+        addRules(decisions, aliases.keySet(), ALIASED);
+        return new RuleTable(decisions, aliases);
+    }
+
+    private static void addRules(Map<String, Integer> decisions, Iterable<String> rules, int decision) {
+        if (rules != null)
+            for (String rule : rules)
+                decisions.merge(rule, decision, (a, b) -> a | b);
+    }
+
+    /**
+     * Return the number of the provided type, or -1 if it does not appear in the rules.
+     */
+    int typeId(String type) {
+        Integer id = typeIds.get(type);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the number of types of the longest rule.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Return the decisions on the node of the provided frame, as a combination of
+     * {@link #IGNORED}, {@link #LABEL_IGNORED}, {@link #FLATTENED} and {@link #ALIASED}.
+     * When {@link #ALIASED} is set, the alias is given by {@link #getAlias(int)}.
+     */
+    int match(NodeFrame frame) {
+        int result = 0;
+        Node node = root;
+        for (NodeFrame f = frame; f != null && f.typeId >= 0; f = f.parent) {
+            node = node.children == null ? null : node.children[f.typeId];
+            if (node == null)
+                break;
+            int found = node.decisions & ~result & DECISION_MASK;
+            if ((found & ALIASED) != 0)
+                result |= node.alias << DECISIONS;
+            result |= found;
+        }
+        return result;
+    }
+
+    /**
+     * Return the alias of a result of {@link #match(NodeFrame)}.
+     */
+    String getAlias(int match) {
+        return aliases.get(match >>> DECISIONS);
+    }
+
+    /**
+     * Return the rule with the fewest types matching the provided node, or null if no rule
+     * matches. The ancestors are obtained from the node, which is slower than using frames.
+     */
+    String matchRule(TSNode node) {
+        Node current = root;
+        for (TSNode n = node; !n.isNull(); n = n.getParent()) {
+            int typeId = typeId(n.getType());
+            current = typeId < 0 || current.children == null ? null : current.children[typeId];
+            if (current == null)
+                return null;
+            if (current.rule != null)
+                return current.rule;
+        }
+        return null;
+    }
+
+    private static final class Node {
+        Node[] children;
+        String rule;
+        int decisions;
+        int alias;
+
+        Node child(int typeId, int types) {
+            if (children == null)
+                children = new Node[types];
+            if (children[typeId] == null)
+                children[typeId] = new Node();
+            return children[typeId];
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen.treesitterng;
+
+import org.treesitter.TSNode;
+import org.treesitter.TSPoint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The content given to tree-sitter, encoded once in UTF-8 and indexed by line, since
+ * tree-sitter positions are expressed in rows and byte columns.
+ */
+final class SourceText {
+    private static final char LF = '\n';
+
+    final String content;
+
+    final byte[] bytes;
+
+    // Offsets of the first byte and the first char of each line.
+    private final int[] byteLineStarts;
+    private final int[] charLineStarts;
+
+    SourceText(String content) {
+        this.content = content;
+        this.bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        int lines = 1;
+        for (int i = 0; i < content.length(); i++)
+            if (content.charAt(i) == LF)
+                lines++;
+        charLineStarts = new int[lines];
+        byteLineStarts = new int[lines];
+        int line = 1;
+        for (int i = 0; i < content.length(); i++)
+            if (content.charAt(i) == LF)
+                charLineStarts[line++] = i + 1;
+        // The bytes of multi-byte characters are never equal to LF.
+        line = 1;
+        for (int i = 0; i < bytes.length; i++)
+            if (bytes[i] == LF)
+                byteLineStarts[line++] = i + 1;
+    }
+
+    /**
+     * Return the char offset of the provided point. Note that the column of the point, which
+     * is a number of bytes, is added as is to the char offset of its line.
+     */
+    int offset(TSPoint point) {
+        return charLineStarts[point.getRow()] + point.getColumn();
+    }
+
+    /**
+     * Return the UTF-8 offset of the provided char offset.
+     */
+    int byteOffset(int offset) {
+        int row = row(offset);
+        return byteLineStarts[row] + utf8Length(charLineStarts[row], offset);
+    }
+
+    /**
+     * Return the tree-sitter point of the provided char offset.
+     */
+    TSPoint point(int offset) {
+        int row = row(offset);
+        return new TSPoint(row, utf8Length(charLineStarts[row], offset));
+    }
+
+    /**
+     * Return the label of the provided node.
+     */
+    String label(TSNode node) {
+        int startRow = node.getStartPoint().getRow();
+        int startColumn = node.getStartPoint().getColumn();
+        int endRow = node.getEndPoint().getRow();
+        int endColumn = node.getEndPoint().getColumn();
+        int startRowLength = lineLength(startRow);
+        if (startRow == endRow) {
+            // endColumn == startRowLength + 1 when the label in tree-sitter contains line separator
+            if (endColumn == startRowLength + 1)
+                return line(startRow);
+            else
+                return decode(byteLineStarts[startRow] + startColumn, endColumn - startColumn);
+        } else {
+            String startLineSubstring;
+            if (startColumn > startRowLength) {
+                // usually, line separator is not the start char of a tree node label
+                // if this situation happened, just put an empty string at start
+                startLineSubstring = "";
+            } else {
+                startLineSubstring = decode(byteLineStarts[startRow], startColumn);
+            }
+            // The middle lines, each one followed by its line separator.
+            int middleStart = byteLineStarts[startRow + 1];
+            String middleLines = decode(middleStart, byteLineStarts[endRow] - middleStart);
+            String endRowStr = line(endRow);
+            String endLineSubstring;
+            if (endColumn > endRowStr.length())
+                endLineSubstring = endRowStr;
+            else
+                endLineSubstring = decode(byteLineStarts[endRow], endColumn);
+            return startLineSubstring + LF + middleLines + endLineSubstring;
+        }
+    }
+
+    private int row(int offset) {
+        int row = Arrays.binarySearch(charLineStarts, offset);
+        return row >= 0 ? row : -row - 2;
+    }
+
+    private int utf8Length(int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            char c = content.charAt(i);
+            if (c < 0x80)
+                length += 1;
+            else if (c < 0x800 || Character.isSurrogate(c))
+                length += 2;
+            else
+                length += 3;
+        }
+        return length;
+    }
+
+    private String line(int row) {
+        return decode(byteLineStarts[row], lineLength(row));
+    }
+
+    // The number of bytes of a line, excluding its line separator.
+    private int lineLength(int row) {
+        int end = (row + 1 < byteLineStarts.length) ? byteLineStarts[row + 1] - 1 : bytes.length;
+        return end - byteLineStarts[row];
+    }
+
+    private String decode(int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+}
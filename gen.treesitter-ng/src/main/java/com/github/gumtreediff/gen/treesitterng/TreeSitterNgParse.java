@@ -0,0 +1,180 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.gen.treesitterng;
+
+import com.github.gumtreediff.tree.Tree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.treesitter.TSNode;
+import org.treesitter.TSRange;
+import org.treesitter.TSTree;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The result of a parse by a tree-sitter-ng generator, which keeps the tree-sitter tree and
+ * the source positions of the produced subtrees so that a following revision of the content
+ * can be parsed incrementally.
+ *
+ * @see AbstractTreeSitterNgGenerator#parse(String)
+ * @see AbstractTreeSitterNgGenerator#reparse(TreeSitterNgParse, String)
+ */
+public final class TreeSitterNgParse {
+    final String language;
+
+    final SourceText text;
+
+    // null when the content is empty.
+    final TSTree tree;
+
+    private final TreeContext context;
+
+    private final Map<Long, Subtree> subtreesByRange = new HashMap<>();
+
+    private final Map<Tree, Subtree> subtreesByTree = new IdentityHashMap<>();
+
+    int reusedSubtrees = 0;
+
+    TreeSitterNgParse(String language, SourceText text, TSTree tree, TreeContext context) {
+        this.language = language;
+        this.text = text;
+        this.tree = tree;
+        this.context = context;
+    }
+
+    public String getContent() {
+        return text.content;
+    }
+
+    public TreeContext getTreeContext() {
+        return context;
+    }
+
+    void record(Tree tree, int startByte, int endByte, NodeFrame frame) {
+        Subtree subtree = new Subtree(tree, startByte, endByte, frame);
+        subtree.next = subtreesByRange.put(range(startByte, endByte), subtree);
+        subtreesByTree.put(tree, subtree);
+    }
+
+    private Subtree find(int startByte, int endByte, NodeFrame frame, int depth) {
+        for (Subtree subtree = subtreesByRange.get(range(startByte, endByte));
+                subtree != null; subtree = subtree.next)
+            if (NodeFrame.sameSymbols(subtree.frame, frame, depth))
+                return subtree;
+        return null;
+    }
+
+    private static long range(int startByte, int endByte) {
+        return ((long) startByte << 32) | (endByte & 0xFFFFFFFFL);
+    }
+
+    private static final class Subtree {
+        final Tree tree;
+        final int startByte;
+        final int endByte;
+        final NodeFrame frame;
+        Subtree next;
+
+        Subtree(Tree tree, int startByte, int endByte, NodeFrame frame) {
+            this.tree = tree;
+            this.startByte = startByte;
+            this.endByte = endByte;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * The subtrees of a previous parse that can be copied into the parse of an edited content.
+     * A subtree is reused when it lies before the edit or on the lines following it, when
+     * tree-sitter did not report a change of its range, and when it has the same type and the
+     * same ancestor types as the node being converted.
+     */
+    static final class Reuse {
+        final TSTree editedTree;
+        private final TreeSitterNgParse previous;
+        private final int editStartByte;
+        private final int newEndRow;
+        private final int byteDelta;
+        private final int charDelta;
+        private int[] changedRanges = new int[0];
+        private final int depth;
+
+        Reuse(TreeSitterNgParse previous, TSTree editedTree, int editStartByte, int oldEndByte, int newEndByte,
+                int newEndRow, int charDelta, int depth) {
+            this.previous = previous;
+            this.editedTree = editedTree;
+            this.editStartByte = editStartByte;
+            this.newEndRow = newEndRow;
+            this.byteDelta = newEndByte - oldEndByte;
+            this.charDelta = charDelta;
+            this.depth = depth;
+        }
+
+        /**
+         * Set the ranges of the new tree that tree-sitter reported as changed.
+         */
+        void setChangedRanges(TSRange[] ranges) {
+            changedRanges = new int[ranges.length * 2];
+            for (int i = 0; i < ranges.length; i++) {
+                changedRanges[2 * i] = ranges[i].getStartByte();
+                changedRanges[2 * i + 1] = ranges[i].getEndByte();
+            }
+        }
+
+        /**
+         * Return a copy of the previous subtree corresponding to the provided node, recorded
+         * in the provided parse, or null if there is none.
+         */
+        Tree copy(TSNode node, NodeFrame frame, TreeSitterNgParse target) {
+            int startByte = node.getStartByte();
+            int endByte = node.getEndByte();
+            int shift;
+            if (endByte < editStartByte)
+                shift = 0;
+            else if (node.getStartPoint().getRow() > newEndRow)
+                shift = byteDelta;
+            else
+                return null;
+            for (int i = 0; i < changedRanges.length; i += 2)
+                if (changedRanges[i] < endByte && startByte < changedRanges[i + 1])
+                    return null;
+            Subtree subtree = previous.find(startByte - shift, endByte - shift, frame, depth);
+            if (subtree == null)
+                return null;
+
+            Tree copy = subtree.tree.deepCopy();
+            // The lines following the edit are all moved by the same number of chars.
+            int posDelta = shift == 0 ? 0 : charDelta;
+            Iterator<Tree> originals = subtree.tree.preOrder().iterator();
+            for (Tree t : copy.preOrder()) {
+                Subtree original = previous.subtreesByTree.get(originals.next());
+                if (posDelta != 0)
+                    t.setPos(t.getPos() + posDelta);
+                if (original != null)
+                    target.record(t, original.startByte + shift, original.endByte + shift, original.frame);
+            }
+            target.reusedSubtrees++;
+            return copy;
+        }
+    }
+}
@@ -20,11 +20,17 @@ package com.github.gumtreediff.gen.treesitterng;
 
 import com.github.gumtreediff.tree.Tree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.github.gumtreediff.gen.treesitterng.AbstractTreeSitterNgGenerator.matchNodeOrAncestorTypes;
 import static org.junit.jupiter.api.Assertions.*;
@@ -74,6 +80,59 @@ public class AbstractTreeSitterNgGeneratorTest {
                 "Line 2 should start at char offset 5 after a surrogate-pair emoji and LF");
     }
 
+    @Test
+    public void testParserReuse() throws Exception {
+        String content = "def foo(x):\n    return x + 1\n\nfoo(\"🐍\")\n";
+        TreeContext expected = generator.generateFrom().string(content);
+        assertSameTrees(expected, generator.generateFrom().string(content));
+        generator.generateFrom().string("x = [1, 2");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TreeContext>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+                results.add(pool.submit(() -> generator.generateFrom().string(content)));
+            for (Future<TreeContext> result : results)
+                assertSameTrees(expected, result.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIncrementalReparse() throws IOException {
+        String v1 = "def foo(x):\n    return x + 1\n\ndef bar(y):\n    return y * 2\n";
+        String v2 = "def foo(x):\n    return x + \"é\"\n\ndef bar(y):\n    return y * 2\n";
+        String v3 = "import os\n\ndef foo(x):\n    return x + \"é\"\n\ndef bar(y):\n    return y * 2\n";
+        String v4 = "import os\n\ndef foo(x):\n    return x + \"é\"\n";
+
+        TreeSitterNgParse parse = generator.parse(v1);
+        assertSameTrees(generator.generateFrom().string(v1), parse.getTreeContext());
+        for (String content : new String[] {v2, v3, v4, v1}) {
+            TreeSitterNgParse next = generator.reparse(parse, content);
+            assertEquals(content, next.getContent());
+            assertSameTrees(generator.generateFrom().string(content), next.getTreeContext());
+            parse = next;
+        }
+
+        TreeSitterNgParse edited = generator.reparse(generator.parse(v1), 27, 28, "3");
+        assertTrue(edited.reusedSubtrees > 0);
+        assertSameTrees(generator.generateFrom().string(v1.replace("x + 1", "x + 3")), edited.getTreeContext());
+    }
+
+    private static void assertSameTrees(TreeContext expected, TreeContext actual) {
+        List<Tree> expectedTrees = TreeUtils.preOrder(expected.getRoot());
+        List<Tree> actualTrees = TreeUtils.preOrder(actual.getRoot());
+        assertTrue(expected.getRoot().isIsomorphicTo(actual.getRoot()));
+        assertEquals(expectedTrees.size(), actualTrees.size());
+        for (int i = 0; i < expectedTrees.size(); i++) {
+            assertEquals(expectedTrees.get(i).getType(), actualTrees.get(i).getType());
+            assertEquals(expectedTrees.get(i).getLabel(), actualTrees.get(i).getLabel());
+            assertEquals(expectedTrees.get(i).getPos(), actualTrees.get(i).getPos());
+            assertEquals(expectedTrees.get(i).getLength(), actualTrees.get(i).getLength());
+        }
+    }
+
     @Test
     public void testMatchNodeOrAncestorTypes() {
         MockTypeOnlyTreeSitterNode root = new MockTypeOnlyTreeSitterNode();
@@ -104,4 +163,37 @@ public class AbstractTreeSitterNgGeneratorTest {
         assertEquals("root depth1Node0 depth2Node0", matchNodeOrAncestorTypes(ruleSet, depth2Node0));
         assertEquals("depth2Node1", matchNodeOrAncestorTypes(ruleSet, depth2Node1));
     }
+
+    @Test
+    public void testRuleTable() {
+        Map<String, Object> rules = new HashMap<>();
+        rules.put("ignored", List.of("comment"));
+        rules.put("label_ignored", List.of("call identifier", "string"));
+        rules.put("flattened", List.of("string"));
+        Map<String, String> aliases = new HashMap<>();
+        aliases.put("identifier", "name");
+        aliases.put("call attribute identifier", "method_name");
+        rules.put("aliased", aliases);
+        RuleTable table = RuleTable.compile(rules);
+        assertEquals(3, table.getDepth());
+
+        NodeFrame call = frame(table, "call", null);
+        NodeFrame attribute = frame(table, "attribute", call);
+        assertEquals(RuleTable.IGNORED, table.match(frame(table, "comment", call)));
+        assertEquals(0, table.match(attribute));
+        assertEquals(RuleTable.LABEL_IGNORED | RuleTable.FLATTENED, table.match(frame(table, "string", null)));
+
+        int match = table.match(frame(table, "identifier", call));
+        assertTrue((match & RuleTable.LABEL_IGNORED) != 0);
+        assertTrue((match & RuleTable.ALIASED) != 0);
+        assertEquals(0, match & (RuleTable.IGNORED | RuleTable.FLATTENED));
+        assertEquals("name", table.getAlias(match));
+        // the rule with the fewest types wins
+        assertEquals("name", table.getAlias(table.match(frame(table, "identifier", attribute))));
+        assertEquals(0, table.match(frame(table, "unknown", attribute)));
+    }
+
+    private static NodeFrame frame(RuleTable table, String type, NodeFrame parent) {
+        return new NodeFrame(0, table.typeId(type), parent);
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+
+package com.github.gumtreediff.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.SimpleAnnotationValueVisitor9;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generate, for each compiled module, a registry index installing the tree generators, matchers
+ * and clients annotated with their <code>@Register</code> annotation, together with the service
+ * file allowing to load it through a {@link java.util.ServiceLoader}. The index installs factories
+ * calling the constructors directly, and implementations of the annotations holding the values
+ * written in the sources, therefore neither classpath scanning nor reflection are needed at runtime.
+ *
+ * <p>The index is generated in the longest package common to all the annotated classes of the module,
+ * unless the <code>gumtree.index.package</code> option is provided. Its simple name is given by the
+ * <code>gumtree.index.name</code> option, which must be unique among the modules since several modules
+ * can share a package: the build derives it from the name of each module.
+ */
+@SupportedOptions({RegistryProcessor.PACKAGE_OPTION, RegistryProcessor.NAME_OPTION})
+public class RegistryProcessor extends AbstractProcessor {
+    public static final String PACKAGE_OPTION = "gumtree.index.package";
+
+    public static final String NAME_OPTION = "gumtree.index.name";
+
+    public static final String INDEX_INTERFACE = "com.github.gumtreediff.utils.RegistryIndex";
+
+    public static final String INDEX_NAME = "GeneratedRegistryIndex";
+
+    private static final Map<String, Kind> KINDS = new LinkedHashMap<>();
+
+    static {
+        KINDS.put("com.github.gumtreediff.gen.Register",
+                new Kind("com.github.gumtreediff.gen.TreeGenerators", ""));
+        KINDS.put("com.github.gumtreediff.matchers.Register",
+                new Kind("com.github.gumtreediff.matchers.Matchers", ""));
+        KINDS.put("com.github.gumtreediff.client.Register",
+                new Kind("com.github.gumtreediff.client.Clients", "java.lang.String[]"));
+    }
+
+    // The annotated classes, sorted by name for reproducible builds.
+    private final SortedMap<String, Registration> registrations = new TreeMap<>();
+
+    private boolean written = false;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return KINDS.keySet();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            Kind kind = KINDS.get(annotation.getQualifiedName().toString());
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS)
+                    continue;
+                TypeElement type = (TypeElement) element;
+                if (written) {
+                    // Only classes generated by another processor can show up after the first round.
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "A registered class is generated too late to be indexed.", type);
+                    continue;
+                }
+                if (checkInstantiable(type, kind))
+                    registrations.put(type.getQualifiedName() + "@" + annotation.getQualifiedName(),
+                            new Registration(type, annotation, kind));
+            }
+        }
+
+        // Written at the end of the first round so that the index is compiled as any other source.
+        if (!written && !registrations.isEmpty()) {
+            written = true;
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unable to write the registry index: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private boolean checkInstantiable(TypeElement type, Kind kind) {
+        boolean instantiable = type.getModifiers().contains(Modifier.PUBLIC)
+                && !type.getModifiers().contains(Modifier.ABSTRACT)
+                && (type.getNestingKind() == NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.STATIC));
+        for (Element enclosing = type.getEnclosingElement(); enclosing.getKind().isClass()
+                || enclosing.getKind().isInterface(); enclosing = enclosing.getEnclosingElement())
+            instantiable &= enclosing.getModifiers().contains(Modifier.PUBLIC);
+        if (!instantiable) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "A registered class must be public, concrete and static if nested.", type);
+            return false;
+        }
+
+        for (ExecutableElement ctor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!ctor.getModifiers().contains(Modifier.PUBLIC))
+                continue;
+            List<String> parameters = new ArrayList<>();
+            for (VariableElement parameter : ctor.getParameters())
+                parameters.add(erasure(parameter.asType()));
+            if (String.join(",", parameters).equals(kind.signature))
+                return true;
+        }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                String.format("A registered class must have a public constructor (%s).", kind.signature), type);
+        return false;
+    }
+
+    private void writeIndex() throws IOException {
+        String pkg = processingEnv.getOptions().get(PACKAGE_OPTION);
+        if (pkg == null)
+            pkg = commonPackage();
+        String simpleName = processingEnv.getOptions().getOrDefault(NAME_OPTION, INDEX_NAME);
+        String name = pkg.isEmpty() ? simpleName : pkg + "." + simpleName;
+
+        Element[] origins = registrations.values().stream().map(r -> r.type).toArray(Element[]::new);
+        JavaFileObject source = processingEnv.getFiler().createSourceFile(name, origins);
+        try (PrintWriter w = new PrintWriter(source.openWriter())) {
+            if (!pkg.isEmpty())
+                w.printf("package %s;\n\n", pkg);
+            w.printf("@javax.annotation.processing.Generated(\"%s\")\n", getClass().getName());
+            w.printf("public final class %s implements %s {\n", simpleName, INDEX_INTERFACE);
+            w.println("    @Override");
+            w.println("    public void install() {");
+            for (Registration r : registrations.values())
+                writeRegistration(w, r);
+            w.println("    }");
+            w.println("}");
+        }
+
+        FileObject services = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                "META-INF/services/" + INDEX_INTERFACE, origins);
+        try (Writer w = services.openWriter()) {
+            w.write(name + "\n");
+        }
+    }
+
+    private void writeRegistration(PrintWriter w, Registration r) {
+        String type = r.type.getQualifiedName().toString();
+        String annotation = r.annotation.getQualifiedName().toString();
+        w.printf("        %s.getInstance().install(%s.class, new %s() {\n", r.kind.registry, type, annotation);
+        w.println("            @Override");
+        w.println("            public Class<? extends java.lang.annotation.Annotation> annotationType() {");
+        w.printf("                return %s.class;\n", annotation);
+        w.println("            }");
+        AnnotationMirror mirror = r.type.getAnnotationMirrors().stream()
+                .filter(m -> m.getAnnotationType().asElement().equals(r.annotation)).findFirst().get();
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (ExecutableElement member : ElementFilter.methodsIn(r.annotation.getEnclosedElements())) {
+            w.println();
+            w.println("            @Override");
+            w.printf("            public %s %s() {\n", member.getReturnType(), member.getSimpleName());
+            w.printf("                return %s;\n", toSource(values.get(member), member.getReturnType()));
+            w.println("            }");
+        }
+        if (r.kind.signature.isEmpty())
+            w.printf("        }, args -> new %s());\n", type);
+        else
+            w.printf("        }, args -> new %s((%s) args[0]));\n", type, r.kind.signature);
+    }
+
+    private String toSource(AnnotationValue value, TypeMirror type) {
+        return value.accept(new SimpleAnnotationValueVisitor9<String, TypeMirror>() {
+            @Override
+            protected String defaultAction(Object o, TypeMirror t) {
+                return processingEnv.getElementUtils().getConstantExpression(o);
+            }
+
+            @Override
+            public String visitType(TypeMirror t, TypeMirror expected) {
+                return erasure(t) + ".class";
+            }
+
+            @Override
+            public String visitEnumConstant(VariableElement c, TypeMirror expected) {
+                return erasure(c.asType()) + "." + c.getSimpleName();
+            }
+
+            @Override
+            public String visitArray(List<? extends AnnotationValue> values, TypeMirror expected) {
+                TypeMirror component = ((ArrayType) expected).getComponentType();
+                StringJoiner elements = new StringJoiner(", ", "new " + erasure(component) + "[] {", "}");
+                for (AnnotationValue v : values)
+                    elements.add(v.accept(this, component));
+                return elements.toString();
+            }
+
+            @Override
+            public String visitAnnotation(AnnotationMirror a, TypeMirror expected) {
+                throw new IllegalStateException("Nested annotations are not supported: " + a);
+            }
+        }, type);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String commonPackage() {
+        String[] common = null;
+        int length = 0;
+        for (Registration r : registrations.values()) {
+            String[] pkg = processingEnv.getElementUtils().getPackageOf(r.type).getQualifiedName()
+                    .toString().split("\\.");
+            if (common == null) {
+                common = pkg;
+                length = pkg.length;
+            } else {
+                int i = 0;
+                while (i < length && i < pkg.length && common[i].equals(pkg[i]))
+                    i++;
+                length = i;
+            }
+        }
+        return String.join(".", Arrays.copyOf(common, length));
+    }
+
+    private static final class Kind {
+        final String registry;
+        final String signature;
+
+        Kind(String registry, String signature) {
+            this.registry = registry;
+            this.signature = signature;
+        }
+    }
+
+    private static final class Registration {
+        final TypeElement type;
+        final TypeElement annotation;
+        final Kind kind;
+
+        Registration(TypeElement type, TypeElement annotation, Kind kind) {
+            this.type = type;
+            this.annotation = annotation;
+            this.kind = kind;
+        }
+    }
+}